@@ -0,0 +1,118 @@
+package com.pda_rfid_scanner.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * ByteUtils 的每个转换与校验方法，输入为一帧 FDX 数据量级(14~30 字节)；
+ * 另含原解码实现中的 rev/paddingLeft
+ */
+@State(Scope.Thread)
+public class ByteUtilsBenchmark {
+    private final byte[] frame = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX);
+    private final String hex = ByteUtils.bytesToHexString(frame);
+    private final char[] hexChars = hex.toCharArray();
+    private final byte[] hexBytes = hex.getBytes();
+    private final char[] charOut = new char[frame.length * 2];
+    private final byte[] byteOut = new byte[frame.length];
+    private final String text = "41A199EBC17E30010000000000";
+    private final String textHex = ByteUtils.convertStringToHex(text);
+    private int c = 'A';
+
+    @Benchmark
+    public int hexValue() {
+        c = c == 'F' ? '0' : c + 1;
+        return ByteUtils.hexValue(c);
+    }
+
+    @Benchmark
+    public char[] toHexChars() {
+        ByteUtils.toHexChars(frame, 0, frame.length, charOut, 0);
+        return charOut;
+    }
+
+    @Benchmark
+    public byte[] parseHexChars() {
+        ByteUtils.parseHexChars(hexChars, 0, hexChars.length, byteOut, 0);
+        return byteOut;
+    }
+
+    @Benchmark
+    public byte[] parseHexBytes() {
+        ByteUtils.parseHexBytes(hexBytes, 0, hexBytes.length, byteOut, 0);
+        return byteOut;
+    }
+
+    @Benchmark
+    public byte xorChecksum() {
+        return ByteUtils.xorChecksum(frame, 1, FrameAssembler.FDX_CHECKSUM_OFFSET - 1);
+    }
+
+    @Benchmark
+    public byte getXor() {
+        return ByteUtils.getXor(frame, frame.length);
+    }
+
+    @Benchmark
+    public long fnv1a() {
+        return ByteUtils.fnv1a(frame, 0, frame.length);
+    }
+
+    @Benchmark
+    public String checkcode0007() {
+        return ByteUtils.checkcode_0007(hex);
+    }
+
+    @Benchmark
+    public String parseHex2Opposite() {
+        return ByteUtils.parseHex2Opposite("5A");
+    }
+
+    @Benchmark
+    public int decodeHEX() {
+        return ByteUtils.decodeHEX("3E7");
+    }
+
+    @Benchmark
+    public String convertHexToString() {
+        return ByteUtils.convertHexToString(textHex);
+    }
+
+    @Benchmark
+    public String convertStringToHex() {
+        return ByteUtils.convertStringToHex(text);
+    }
+
+    @Benchmark
+    public String bytesToHexString() {
+        return ByteUtils.bytesToHexString(frame);
+    }
+
+    @Benchmark
+    public String bytesToHexStringRange() {
+        return ByteUtils.bytesToHexString(frame, 1, 14);
+    }
+
+    @Benchmark
+    public String parseByte2HexStr() {
+        return ByteUtils.parseByte2HexStr(frame);
+    }
+
+    @Benchmark
+    public byte[] parseHexStr2Byte() {
+        return ByteUtils.parseHexStr2Byte(hex);
+    }
+
+    @Benchmark
+    public String rev() {
+        return ByteUtils.rev("41A199EBC1");
+    }
+
+    @Benchmark
+    public void legacyRevPaddingLeft(Blackhole bh) {
+        bh.consume(LegacyRfidDecoder.rev("41A199EBC1"));
+        bh.consume(LegacyRfidDecoder.paddingLeft("123456789", 12, "0"));
+    }
+}
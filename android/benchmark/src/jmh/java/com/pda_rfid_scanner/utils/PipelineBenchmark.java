@@ -0,0 +1,89 @@
+package com.pda_rfid_scanner.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 读取 -> 组帧 -> 解码 -> 事件的完整路径，与插件解码线程上的处理一致：
+ * 串口数据按随机块大小写入 FrameAssembler，每帧经 TagDecoderRegistry 校验并解码，
+ * 编码为二进制或字符串事件后发布到 ScanEventBus，订阅方在当前线程直接接收。
+ * 不含串口线程切换，分数为每秒处理的帧数。
+ */
+@State(Scope.Thread)
+public class PipelineBenchmark {
+    private static final int FRAMES = 256;
+
+    @Param({"binary", "string"})
+    public String events;
+
+    private final TagDecoder decoder = new TagDecoder();
+    private final TagDecoderRegistry registry = TagDecoderRegistry.withBuiltInFormats();
+    private final ScanEventBus bus = new ScanEventBus();
+    private ScanEventBus.Subscription subscription;
+    private FrameAssembler assembler;
+    private byte[] stream;
+    private int[] chunks;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole bh) {
+        blackhole = bh;
+        Random random = new Random(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < FRAMES; i++) {
+            byte etx = random.nextInt(4) == 0 ? FrameAssembler.ETX_ALT : FrameAssembler.ETX;
+            byte[] frame = LoadGenerator.buildFrame(100000000000L + random.nextInt(1000000), 999, etx);
+            out.write(frame, 0, frame.length);
+        }
+        stream = out.toByteArray();
+        // 串口每次读取 1..64 字节
+        chunks = new int[stream.length];
+        int n = 0;
+        for (int pos = 0; pos < stream.length; n++) {
+            chunks[n] = Math.min(1 + random.nextInt(64), stream.length - pos);
+            pos += chunks[n];
+        }
+        chunks = Arrays.copyOf(chunks, n);
+
+        final boolean binary = "binary".equals(events);
+        subscription = bus.subscribe(Runnable::run, event -> blackhole.consume(event));
+        assembler = new FrameAssembler((frame, length) -> {
+            if (registry.decode(frame, length, decoder) == TagDecoder.FORMAT_NONE) {
+                return;
+            }
+            if (binary) {
+                bus.publish(ScanEventCodec.encodeRfid(decoder, frame, length, ScanEventCodec.TYPE_RFID, 1, 0));
+            } else {
+                bus.publish("rfid:" + decoder.getIdString());
+            }
+        });
+    }
+
+    @TearDown
+    public void tearDown() {
+        subscription.dispose();
+        if (bus.getDeliveredCount() == 0) {
+            throw new IllegalStateException("No events delivered");
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(FRAMES)
+    public void readFrameDecodePublish() {
+        int pos = 0;
+        for (int chunk : chunks) {
+            assembler.feed(stream, pos, chunk);
+            pos += chunk;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.pda_rfid_scanner.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * PdaRfidScannerPlugin.processRfidData 的两种帧格式：
+ * TagDecoderRegistry(插件路径，含校验)、TagDecoder 与 LegacyRfidDecoder(原 BigInteger/String 实现)对照
+ */
+@State(Scope.Thread)
+public class TagDecoderBenchmark {
+
+    @Param({"fdx", "hdx", "ascii"})
+    public String format;
+
+    private final TagDecoder decoder = new TagDecoder();
+    private final TagDecoderRegistry registry = TagDecoderRegistry.withBuiltInFormats();
+    private byte[] frame;
+
+    @Setup
+    public void setUp() {
+        switch (format) {
+            case "fdx":
+                frame = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX);
+                break;
+            case "hdx":
+                frame = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX_ALT);
+                break;
+            default:
+                frame = "\u0002A985000012345678  #\r\n".getBytes(StandardCharsets.ISO_8859_1);
+                break;
+        }
+        if (decoder.decode(frame, frame.length) == TagDecoder.FORMAT_NONE) {
+            throw new IllegalStateException("Frame does not decode: " + format);
+        }
+    }
+
+    @Benchmark
+    public long decode() {
+        decoder.decode(frame, frame.length);
+        return decoder.getTagKey();
+    }
+
+    /**
+     * 插件实际使用的路径：查表分发并校验
+     */
+    @Benchmark
+    public long registryDecode() {
+        registry.decode(frame, frame.length, decoder);
+        return decoder.getTagKey();
+    }
+
+    /**
+     * 解码并生成字符串事件中的卡号
+     */
+    @Benchmark
+    public String decodeToString() {
+        decoder.decode(frame, frame.length);
+        return decoder.getIdString();
+    }
+
+    @Benchmark
+    public String legacyDecode() {
+        return LegacyRfidDecoder.processRfidData(frame);
+    }
+}
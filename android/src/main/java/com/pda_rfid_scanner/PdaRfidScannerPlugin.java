@@ -13,20 +13,49 @@ import io.flutter.plugin.common.MethodChannel.MethodCallHandler;
 import io.flutter.plugin.common.MethodChannel.Result;
 import io.flutter.plugin.common.EventChannel;
 import io.flutter.plugin.common.EventChannel.StreamHandler;
-import io.reactivex.subjects.PublishSubject;
 
-import android.app.Activity;
 import android.device.ScanDevice;
 import android.content.IntentFilter;
 import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
-import java.math.BigInteger;
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import com.pda_rfid_scanner.utils.ByteUtils;
+import com.pda_rfid_scanner.utils.CaptureOrderBuffer;
+import com.pda_rfid_scanner.utils.DeviceCommandQueue;
+import com.pda_rfid_scanner.utils.DeviceState;
+import com.pda_rfid_scanner.utils.EventBatcher;
+import com.pda_rfid_scanner.utils.FrameAssembler;
+import com.pda_rfid_scanner.utils.IDataReceive;
 import com.pda_rfid_scanner.utils.LFUtil;
+import com.pda_rfid_scanner.utils.PowerScheduler;
+import com.pda_rfid_scanner.utils.PowerUtil;
+import com.pda_rfid_scanner.utils.RawCapture;
+import com.pda_rfid_scanner.utils.ReaderConfig;
+import com.pda_rfid_scanner.utils.ScanEventBus;
+import com.pda_rfid_scanner.utils.ScanEventCodec;
+import com.pda_rfid_scanner.utils.ScanJournal;
+import com.pda_rfid_scanner.utils.ScannerMetrics;
+import com.pda_rfid_scanner.utils.SerialPortTransport;
+import com.pda_rfid_scanner.utils.TagDecoder;
+import com.pda_rfid_scanner.utils.TagDecoderRegistry;
+import com.pda_rfid_scanner.utils.TagDeduplicator;
+import com.pda_rfid_scanner.utils.TagIndex;
+import com.pda_rfid_scanner.utils.TagInventory;
 
 /** 
  * PdaRfidScannerPlugin - Improved version
@@ -41,79 +70,260 @@ public class PdaRfidScannerPlugin implements FlutterPlugin, MethodCallHandler, A
   private static final String EVENT_CHANNEL_NAME = "pda_rfid_scanner/stream";
   private static final String SCAN_ACTION = "scan.rcv.message";
   
-  // Scanning modes
-  private static final int MODE_BARCODE = 1;
-  private static final int MODE_RFID = 2;
-  
+  // Per-engine channels. Everything static below is shared by all engines in
+  // the process: the serial readers and ScanDevice are opened once, frames are
+  // decoded once, and each engine's event stream subscribes to eventBus.
   private MethodChannel channel;
-  private Activity activity;
-  private Context context;
+  private EventChannel eventChannel;
+  // Engines attached to the plugin; devices and threads are released with the last one
+  private static int attachedEngines = 0;
+  private static volatile Context context;
   protected static LFUtil lfUtil = null;
-  private static PublishSubject<String> subject = PublishSubject.create();
+  private static final ScanEventBus eventBus = new ScanEventBus();
+
+  static {
+    eventBus.setDeliveryLatency(ScannerMetrics.decodeToSink);
+    // Capture times must keep counting while the handheld is in deep sleep,
+    // which System.nanoTime() (CLOCK_MONOTONIC) does not
+    ScanEventCodec.setMonotonicClock(SystemClock::elapsedRealtimeNanos);
+  }
+  // Send ScanEventCodec byte[] records instead of "rfid:"/"barcode:" strings
+  private static volatile boolean binaryEvents = false;
+  // Decode stage: framing happens on the LFUtil read thread, decoding and
+  // dedup on this thread, and only final events reach the main thread
+  private static HandlerThread decodeThread;
+  private static Handler decodeHandler;
+  // Only used from onRfidDataReceived, which is confined to the decode thread.
+  // Frames are validated and decoded by the formats in the shared registry;
+  // apps can register their own formats there.
+  private static final TagDecoder tagDecoder = new TagDecoder();
+  private static final TagDecoderRegistry decoderRegistry = TagDecoderRegistry.getDefault();
+  private static final TagDeduplicator tagDeduplicator = new TagDeduplicator();
+  // Only used from onBarcodeReceived, also on the decode thread
+  private static final TagDeduplicator barcodeDeduplicator = new TagDeduplicator();
+  // Dual mode runs barcode and RFID together; events are merged in capture order
+  private static volatile boolean dualMode = false;
+  private static final CaptureOrderBuffer captureOrder = new CaptureOrderBuffer(eventBus::publish);
+  private static boolean captureReleaseScheduled = false;
+  // Inventory session, only touched on the decode thread
+  private static final TagInventory inventory = new TagInventory();
+  private static boolean inventoryActive = false;
+  private static volatile boolean inventoryStreamReads = false;
+  // Crash-safe scan journal, only touched on the decode thread
+  private static ScanJournal journal;
+  private static boolean journalSyncScheduled = false;
+  // Readers added through addReader, keyed by reader number (1..255).
+  // The built-in reader is lfUtil with number 0.
+  private static final Map<Integer, LFUtil> readers = new HashMap<>();
+  private static final Map<Integer, ReaderConfig> readerConfigs = new HashMap<>();
+  private static final int MAX_READERS = 255;
+  // Duty-cycled power of the built-in reader while RFID mode is on
+  private static PowerScheduler powerScheduler;
+  private static long powerOnMs = 0;
+  private static long powerOffMs = 0;
+  private static long powerIdleTimeoutMs = 0;
+  // Opt-in raw serial capture of the built-in reader, null when disabled
+  private static volatile RawCapture rawCapture;
+  // Known-tag lookup, memory-mapped and shared read-only with the decode thread
+  private static volatile TagIndex tagIndex;
   
-  // Device state
-  private ScanDevice scanDevice;
-  private boolean isRfidPowerOn = false;
-  private boolean isScannerOn = false;
-  private int currentMode = 0;
-  private boolean autoRestartScan = true;
+  // Device state. Both devices and their standby flags are one atomically
+  // updated bit set; it only changes on the device command thread. Every
+  // engine sees and drives the same devices.
+  private static final DeviceState deviceState = new DeviceState();
+  private static volatile ScanDevice scanDevice;
+  private static volatile boolean autoRestartScan = true;
+  // Continuous mode keeps the scan engine running across reads instead of
+  // stopping and restarting it after each barcode
+  private static final int LASER_MODE_CONTINUOUS = 4;
+  private static volatile boolean continuousScan = false;
+  private static int continuousIntervalMs = 0;
+  // Device laser mode before switching to continuous, restored afterwards
+  private static int savedLaserMode = -1;
+  // Hot standby: switching modes leaves the other device open but idle
+  private static volatile boolean standby = false;
+  private static volatile long lastModeSwitchMicros = -1;
+
+  // Event delivery
+  private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  // Serial open/close, GPIO power and ScanDevice calls from all engines run
+  // here in call order, never on the platform thread. Back-to-back commands
+  // for the same device are coalesced and all their callers get the result
+  // of the last one.
+  private static final int COMMAND_RFID = 1;
+  private static final int COMMAND_BARCODE = 2;
+  // Single-mode restart after a barcode; kept apart from COMMAND_BARCODE so
+  // it never replaces a queued start or stop
+  private static final int COMMAND_SCAN_RESTART = 3;
+  // Duty-cycle power switches of the built-in reader; kept apart from
+  // COMMAND_RFID for the same reason
+  private static final int COMMAND_RFID_POWER = 4;
+  // Added readers, COMMAND_*_READER | reader number. Adding and removing the
+  // same reader use different keys, so a remove never replaces a queued add
+  // whose caller expects the reader number back.
+  private static final int COMMAND_ADD_READER = 0x100;
+  private static final int COMMAND_REMOVE_READER = 0x200;
+  private static final DeviceCommandQueue<Result> deviceCommands =
+      new DeviceCommandQueue<>("PdaRfidDevice", results -> new MainThreadResult(mainHandler, results));
+  // Capture dumps and tag index build/load/close, in call order and off
+  // both the platform thread and the device command thread
+  private static final ExecutorService fileExecutor = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "PdaRfidFiles");
+    thread.setDaemon(true);
+    return thread;
+  });
+  private ScanEventBus.Subscription eventSubscription;
+  private EventBatcher eventBatcher;
+  private int batchSize = 1;
+  private long batchLatencyMs = EventBatcher.DEFAULT_MAX_LATENCY_MS;
 
   @Override
   public void onAttachedToEngine(@NonNull FlutterPluginBinding flutterPluginBinding) {
-    Log.d(TAG, "Plugin attached to engine");
+    synchronized (PdaRfidScannerPlugin.class) {
+      attachedEngines++;
+      Log.d(TAG, "Plugin attached to engine, " + attachedEngines + " attached");
+    }
     context = flutterPluginBinding.getApplicationContext();
     
     // Setup Method Channel
     channel = new MethodChannel(flutterPluginBinding.getBinaryMessenger(), CHANNEL_NAME);
     channel.setMethodCallHandler(this);
 
-    // Setup Event Channel for streaming scan results
-    new EventChannel(flutterPluginBinding.getBinaryMessenger(), EVENT_CHANNEL_NAME)
-        .setStreamHandler(new EventChannel.StreamHandler() {
+    // Setup Event Channel for streaming scan results. Every engine's listener
+    // gets its own subscription to the shared bus, so events decoded once
+    // fan out to all of them.
+    eventChannel = new EventChannel(flutterPluginBinding.getBinaryMessenger(), EVENT_CHANNEL_NAME);
+    eventChannel.setStreamHandler(new EventChannel.StreamHandler() {
           @Override
           public void onListen(Object args, final EventChannel.EventSink events) {
             Log.d(TAG, "Event stream listener added");
-            subject.subscribe(data -> events.success(data));
+            // A re-listen replaces the previous sink instead of adding another one
+            cancelEventStream();
+            final EventBatcher batcher = new EventBatcher(mainHandler, events::success);
+            batcher.configure(batchSize, batchLatencyMs);
+            eventBatcher = batcher;
+            eventSubscription = eventBus.subscribe(mainHandler::post, batcher::add);
           }
 
           @Override
           public void onCancel(Object args) {
             Log.d(TAG, "Event stream listener canceled");
-            // Can add cleanup if needed
+            cancelEventStream();
           }
         });
   }
 
+  /**
+   * Dispose the event subscription of the current listener
+   */
+  private void cancelEventStream() {
+    if (eventSubscription != null) {
+      eventSubscription.dispose();
+      eventSubscription = null;
+    }
+    if (eventBatcher != null) {
+      eventBatcher.close();
+      eventBatcher = null;
+    }
+  }
+
   /**
    * Broadcast receiver for barcode scanning
    */
-  private BroadcastReceiver mScanReceiver = new BroadcastReceiver() {
+  private static final BroadcastReceiver mScanReceiver = new BroadcastReceiver() {
     @Override
     public void onReceive(Context context, Intent intent) {
       String action = intent.getAction();
-      if (action.equals(SCAN_ACTION)) {
-        byte[] barcode = intent.getByteArrayExtra("barocode");
-        int barcodeLen = intent.getIntExtra("length", 0);
+      // A scanner in standby does not route scans
+      if (action.equals(SCAN_ACTION) && deviceState.is(DeviceState.BARCODE)) {
+        final byte[] barcode = intent.getByteArrayExtra("barocode");
+        final int barcodeLen = intent.getIntExtra("length", 0);
         
         if (barcode != null && barcodeLen > 0) {
-          String barcodeStr = new String(barcode, 0, barcodeLen);
-          Log.d(TAG, "Barcode scanned: " + barcodeStr);
-          
-          // Send the result to Flutter via Event Channel
-          subject.onNext("barcode:" + barcodeStr);
+          final long capturedMicros = ScanEventCodec.nowMicros();
+          ScannerMetrics.barcodeRate.mark(System.nanoTime());
+          // Decode and publish on the decode thread, keep the main thread free
+          startDecodeThread().post(() -> onBarcodeReceived(barcode, barcodeLen, capturedMicros));
           
-          // Automatically restart scanner for next scan if enabled
-          if (scanDevice != null) {
-            scanDevice.stopScan();
-            if (autoRestartScan) {
-              scanDevice.startScan();
-            }
+          // In single mode restart the scanner for the next scan if enabled;
+          // continuous mode keeps the engine running. ScanDevice is only
+          // driven from the device command thread.
+          if (!continuousScan) {
+            submitDeviceCommand(COMMAND_SCAN_RESTART, r -> restartScan(), null);
           }
         }
       }
     }
   };
 
+  /**
+   * Publish a decoded event. In dual mode events are held briefly and released
+   * in capture order, so barcodes and tags read together arrive in the order
+   * they were scanned. Runs on the decode thread.
+   */
+  private static void publishEvent(Object event, long capturedMicros) {
+    if (!dualMode) {
+      if (captureOrder.size() > 0) {
+        captureOrder.flush();
+      }
+      eventBus.publish(event);
+      return;
+    }
+    captureOrder.add(event, capturedMicros);
+    releaseCaptureOrder();
+  }
+
+  private static void releaseCaptureOrder() {
+    long waitMicros = captureOrder.release(ScanEventCodec.nowMicros());
+    Handler handler = decodeHandler;
+    if (waitMicros >= 0 && !captureReleaseScheduled && handler != null) {
+      captureReleaseScheduled = true;
+      handler.postDelayed(() -> {
+        captureReleaseScheduled = false;
+        releaseCaptureOrder();
+      }, Math.max(1, (waitMicros + 999) / 1000));
+    }
+  }
+
+  /**
+   * Process a barcode broadcast. Runs on the decode thread.
+   */
+  private static void onBarcodeReceived(byte[] barcode, int barcodeLen, long capturedMicros) {
+    try {
+      ScannerMetrics.barcodesReceived.increment();
+      // Drop the same barcode read again inside the duplicate window
+      if (barcodeDeduplicator.isEnabled()) {
+        long key = ByteUtils.fnv1a(barcode, 0, barcodeLen);
+        if (barcodeDeduplicator.check(key, SystemClock.elapsedRealtime()) != TagDeduplicator.RESULT_NEW) {
+          ScannerMetrics.barcodeDuplicatesSuppressed.increment();
+          return;
+        }
+      }
+      
+      ScanJournal log = journal;
+      if (log != null) {
+        try {
+          log.append(ScanEventCodec.TYPE_BARCODE, 0, barcode, barcodeLen, 1, capturedMicros);
+          syncJournal();
+        } catch (IOException e) {
+          Log.e(TAG, "Failed to write scan journal: " + e.getMessage());
+        }
+      }
+      
+      // Send the result to Flutter via Event Channel
+      if (binaryEvents) {
+        publishEvent(ScanEventCodec.encodeBarcode(barcode, barcodeLen, capturedMicros), capturedMicros);
+      } else {
+        String barcodeStr = new String(barcode, 0, barcodeLen);
+        Log.d(TAG, "Barcode scanned: " + barcodeStr);
+        publishEvent("barcode:" + barcodeStr, capturedMicros);
+      }
+    } catch (Exception e) {
+      Log.e(TAG, "Error processing barcode: " + e.getMessage());
+    }
+  }
+
   @Override
   public void onMethodCall(@NonNull MethodCall call, @NonNull Result result) {
     try {
@@ -122,23 +332,27 @@ public class PdaRfidScannerPlugin implements FlutterPlugin, MethodCallHandler, A
           result.success("Android " + android.os.Build.VERSION.RELEASE);
           break;
           
+        case "warmUp":
+          warmUp(result);
+          break;
+          
         case "setRfidPowerOn":
         case "setPowerOn": // Legacy support
-          enableRfidModule(true, result);
+          submitDeviceCommand(COMMAND_RFID, r -> enableRfidModule(true, r), result);
           break;
           
         case "setRfidPowerOff":
         case "setPowerOff": // Legacy support
-          enableRfidModule(false, result);
+          submitDeviceCommand(COMMAND_RFID, r -> enableRfidModule(false, r), result);
           break;
           
         case "startBarcodeScan":
         case "startScan": // Legacy support
-          startBarcodeScan(result);
+          submitDeviceCommand(COMMAND_BARCODE, PdaRfidScannerPlugin::startBarcodeScan, result);
           break;
           
         case "stopBarcodeScan":
-          stopBarcodeScan(result);
+          submitDeviceCommand(COMMAND_BARCODE, PdaRfidScannerPlugin::stopBarcodeScan, result);
           break;
           
         case "setAutoRestartScan":
@@ -148,18 +362,211 @@ public class PdaRfidScannerPlugin implements FlutterPlugin, MethodCallHandler, A
           break;
           
         case "isScannerActive":
-          result.success(isScannerOn);
+          result.success(deviceState.is(DeviceState.BARCODE));
           break;
           
         case "isRfidActive":
-          result.success(isRfidPowerOn);
+          result.success(deviceState.is(DeviceState.RFID));
+          break;
+          
+        case "setDedupWindow":
+          long windowMs = longArgument(call, "windowMs", 0);
+          long heartbeatMs = longArgument(call, "heartbeatMs", 0);
+          tagDeduplicator.configure(windowMs, heartbeatMs);
+          result.success("Dedup window " + windowMs + " ms");
+          break;
+          
+        case "setEventBatching":
+          batchSize = (int) longArgument(call, "maxBatchSize", 1);
+          batchLatencyMs = longArgument(call, "maxLatencyMs", EventBatcher.DEFAULT_MAX_LATENCY_MS);
+          if (eventBatcher != null) {
+            eventBatcher.configure(batchSize, batchLatencyMs);
+          }
+          result.success("Event batching " + (batchSize > 1 ? "enabled" : "disabled"));
+          break;
+          
+        case "setChecksumVerification":
+          decoderRegistry.setVerifyChecksums(!Boolean.FALSE.equals(call.argument("enabled")));
+          result.success("Checksum verification " + (decoderRegistry.isVerifyingChecksums() ? "enabled" : "disabled"));
+          break;
+          
+        case "setEventFormat":
+          binaryEvents = "binary".equals(call.argument("format"));
+          result.success("Event format " + (binaryEvents ? "binary" : "string"));
+          break;
+          
+        case "setEventQueue":
+          int capacity = (int) longArgument(call, "capacity", ScanEventBus.DEFAULT_CAPACITY);
+          String policy = call.argument("policy");
+          eventBus.configure(capacity, overflowPolicy(policy));
+          result.success("Event queue " + capacity);
+          break;
+          
+        case "getEventQueueStats":
+          Map<String, Object> queueStats = new HashMap<>();
+          queueStats.put("published", eventBus.getPublishedCount());
+          queueStats.put("delivered", eventBus.getDeliveredCount());
+          queueStats.put("dropped", eventBus.getDroppedCount());
+          queueStats.put("queued", eventBus.getQueuedCount());
+          queueStats.put("listeners", eventBus.getSubscriberCount());
+          result.success(queueStats);
+          break;
+          
+        case "getStats":
+          Map<String, Object> stats = ScannerMetrics.snapshot();
+          stats.put("eventsPublished", eventBus.getPublishedCount());
+          stats.put("eventsDelivered", eventBus.getDeliveredCount());
+          stats.put("eventsDropped", eventBus.getDroppedCount());
+          stats.put("lastModeSwitchUs", lastModeSwitchMicros);
+          stats.put("mergeLateEvents", captureOrder.getLateEvents());
+          stats.put("rfidPoweredMs", PowerUtil.getPoweredMillis());
+          stats.put("rfidPowerCycles", PowerUtil.getPowerCycles());
+          LFUtil builtIn = lfUtil;
+          stats.put("rfidReadThread", builtIn != null && builtIn.isReading());
+          stats.put("decoder", decoderRegistry.snapshot());
+          stats.put("framesRejected", decoderRegistry.getRejectedCount());
+          stats.put("rfidIdlePowerDowns", powerScheduler != null ? powerScheduler.getIdlePowerDowns() : 0L);
+          stats.put("deviceCommandsExecuted", deviceCommands.getExecutedCount());
+          stats.put("deviceCommandsCoalesced", deviceCommands.getCoalescedCount());
+          stats.put("deviceCommandsPending", deviceCommands.getPendingCount());
+          stats.put("engines", attachedEngines);
+          result.success(stats);
+          break;
+          
+        case "resetStats":
+          ScannerMetrics.reset();
+          decoderRegistry.resetCounters();
+          PowerUtil.resetStats();
+          eventBus.resetCounters();
+          result.success("Stats reset");
+          break;
+          
+        case "addReader":
+          addReader(call, result);
+          break;
+          
+        case "removeReader":
+          final int removed = (int) longArgument(call, "reader", -1);
+          submitDeviceCommand(COMMAND_REMOVE_READER | (removed & 0xFF), r -> removeReader(removed, r), result);
+          break;
+          
+        case "getReaders":
+          result.success(describeReaders());
+          break;
+          
+        case "setPowerSchedule":
+          final long onMs = longArgument(call, "onMs", 0);
+          final long offMs = longArgument(call, "offMs", 0);
+          final long idleTimeoutMs = longArgument(call, "idleTimeoutMs", 0);
+          // Reconfiguring may switch the GPIO, so it is ordered with the other power changes
+          submitDeviceCommand(DeviceCommandQueue.KEY_NONE, r -> {
+            powerOnMs = onMs;
+            powerOffMs = offMs;
+            powerIdleTimeoutMs = idleTimeoutMs;
+            if (powerScheduler != null) {
+              powerScheduler.configure(powerOnMs, powerOffMs, powerIdleTimeoutMs);
+            }
+            r.success("Power schedule set");
+          }, result);
+          break;
+          
+        case "wakeRfid":
+          submitDeviceCommand(DeviceCommandQueue.KEY_NONE, r -> {
+            if (powerScheduler == null || !deviceState.is(DeviceState.RFID)) {
+              r.success(false);
+              return;
+            }
+            powerScheduler.wake();
+            r.success(true);
+          }, result);
+          break;
+          
+        case "setBarcodeScanMode":
+          final boolean continuous = "continuous".equals(call.argument("mode"));
+          final int intervalMs = (int) longArgument(call, "intervalMs", 0);
+          submitDeviceCommand(DeviceCommandQueue.KEY_NONE, r -> {
+            setBarcodeScanMode(continuous, intervalMs);
+            r.success("Barcode scan mode " + (continuous ? "continuous" : "single"));
+          }, result);
+          break;
+          
+        case "setBarcodeDedupWindow":
+          long barcodeWindowMs = longArgument(call, "windowMs", 0);
+          barcodeDeduplicator.configure(barcodeWindowMs, 0);
+          result.success("Barcode dedup window " + barcodeWindowMs + " ms");
+          break;
+          
+        case "setDualMode":
+          setDualMode(Boolean.TRUE.equals(call.argument("enabled")),
+              longArgument(call, "holdMs", CaptureOrderBuffer.DEFAULT_HOLD_MICROS / 1000));
+          result.success("Dual mode " + (dualMode ? "enabled" : "disabled"));
+          break;
+          
+        case "getActiveModes":
+          List<String> modes = new ArrayList<>();
+          int state = deviceState.get();
+          if ((state & DeviceState.BARCODE) != 0) modes.add("barcode");
+          if ((state & DeviceState.RFID) != 0) modes.add("rfid");
+          result.success(modes);
+          break;
+          
+        case "setStandby":
+          final boolean standbyEnabled = Boolean.TRUE.equals(call.argument("enabled"));
+          submitDeviceCommand(DeviceCommandQueue.KEY_NONE, r -> {
+            setStandby(standbyEnabled);
+            r.success("Standby " + (standbyEnabled ? "enabled" : "disabled"));
+          }, result);
+          break;
+          
+        case "setRawCapture":
+          setRawCapture(Boolean.TRUE.equals(call.argument("enabled")),
+              (int) longArgument(call, "records", RawCapture.DEFAULT_RECORDS));
+          result.success("Raw capture " + (rawCapture != null ? "enabled" : "disabled"));
+          break;
+          
+        case "dumpRawCapture":
+          dumpRawCapture(call.argument("path"), result);
+          break;
+          
+        case "loadTagIndex":
+          loadTagIndex(call.argument("path"), result);
+          break;
+          
+        case "buildTagIndex":
+          buildTagIndex(call, result);
+          break;
+          
+        case "closeTagIndex":
+          // Ordered after any build or load still in flight
+          fileExecutor.execute(() -> {
+            tagIndex = null;
+            mainHandler.post(() -> result.success("Tag index closed"));
+          });
+          break;
+          
+        case "setJournal":
+          setJournal(call, result);
+          break;
+          
+        case "queryJournal":
+          queryJournal(call, result);
+          break;
+          
+        case "startInventory":
+          startInventory(Boolean.TRUE.equals(call.argument("streamReads")));
+          result.success("Inventory started");
+          break;
+          
+        case "stopInventory":
+          stopInventory(result);
+          break;
+          
+        case "getInventorySnapshot":
+          getInventorySnapshot(!Boolean.FALSE.equals(call.argument("sinceLast")), result);
           break;
           
         case "getCurrentMode":
-          String mode = "unknown";
-          if (currentMode == MODE_BARCODE) mode = "barcode";
-          else if (currentMode == MODE_RFID) mode = "rfid";
-          result.success(mode);
+          result.success(deviceState.modeName());
           break;
           
         default:
@@ -173,77 +580,413 @@ public class PdaRfidScannerPlugin implements FlutterPlugin, MethodCallHandler, A
   }
 
   /**
-   * Enable/disable RFID module
+   * Queue a device command. It runs on the device command thread and its
+   * result is completed on the main thread.
+   */
+  private static void submitDeviceCommand(int key, final DeviceCommandQueue.Command<Result> command, Result result) {
+    deviceCommands.submit(key, r -> {
+      try {
+        command.run(r);
+      } catch (Exception e) {
+        Log.e(TAG, "Error in device command: " + e.getMessage());
+        r.error("METHOD_ERROR", e.getMessage(), null);
+      }
+    }, result);
+  }
+
+  /**
+   * Completes the Flutter results of a device command, or of several
+   * coalesced ones, on the main thread
+   */
+  private static final class MainThreadResult implements Result {
+    private final Handler handler;
+    private final List<Result> results;
+
+    MainThreadResult(Handler handler, List<Result> results) {
+      this.handler = handler;
+      this.results = results;
+    }
+
+    @Override
+    public void success(final Object value) {
+      handler.post(() -> {
+        for (Result result : results) {
+          if (result != null) result.success(value);
+        }
+      });
+    }
+
+    @Override
+    public void error(final String code, final String message, final Object details) {
+      handler.post(() -> {
+        for (Result result : results) {
+          if (result != null) result.error(code, message, details);
+        }
+      });
+    }
+
+    @Override
+    public void notImplemented() {
+      handler.post(() -> {
+        for (Result result : results) {
+          if (result != null) result.notImplemented();
+        }
+      });
+    }
+  }
+
+  private static long longArgument(MethodCall call, String key, long defaultValue) {
+    Number value = call.argument(key);
+    return value != null ? value.longValue() : defaultValue;
+  }
+
+  private static int overflowPolicy(String policy) {
+    if ("dropNewest".equals(policy)) return ScanEventBus.POLICY_DROP_NEWEST;
+    if ("latestOnly".equals(policy)) return ScanEventBus.POLICY_LATEST_ONLY;
+    return ScanEventBus.POLICY_DROP_OLDEST;
+  }
+
+  /**
+   * Create and open an additional reader from {path, baudRate, profile, maxFrameLength}.
+   * Its events carry the returned reader number. Only the serial port is opened, on the
+   * device command thread; the module must be powered separately.
+   */
+  private static void addReader(MethodCall call, Result result) {
+    ReaderConfig config;
+    try {
+      config = new ReaderConfig(call.argument("path"),
+          (int) longArgument(call, "baudRate", ReaderConfig.DEFAULT_BAUD_RATE),
+          "stxEtx".equals(call.argument("profile")) ? FrameAssembler.PROFILE_STX_ETX : FrameAssembler.PROFILE_LF,
+          (int) longArgument(call, "maxFrameLength", FrameAssembler.DEFAULT_MAX_FRAME_LENGTH));
+    } catch (IllegalArgumentException e) {
+      result.error("READER_CONFIG_ERROR", e.getMessage(), null);
+      return;
+    }
+    int reader;
+    LFUtil util;
+    synchronized (readers) {
+      reader = 1;
+      while (reader <= MAX_READERS && readers.containsKey(reader)) {
+        reader++;
+      }
+      if (reader > MAX_READERS) {
+        result.error("READER_LIMIT", "Too many readers", null);
+        return;
+      }
+      util = createReader(reader, config);
+      readers.put(reader, util);
+      readerConfigs.put(reader, config);
+    }
+    final int opened = reader;
+    final LFUtil openedUtil = util;
+    final ReaderConfig openedConfig = config;
+    submitDeviceCommand(COMMAND_ADD_READER | reader, r -> openReader(opened, openedUtil, openedConfig, r), result);
+  }
+
+  /**
+   * Open a reader reserved by addReader. Runs on the device command thread.
+   */
+  private static void openReader(int reader, LFUtil util, ReaderConfig config, Result result) {
+    try {
+      util.open();
+      Log.d(TAG, "Reader " + reader + " opened on " + config);
+      result.success(reader);
+    } catch (Exception e) {
+      Log.e(TAG, "Failed to open reader " + config + ": " + e.getMessage());
+      synchronized (readers) {
+        readers.remove(reader);
+        readerConfigs.remove(reader);
+      }
+      util.dispose();
+      result.error("RFID_OPEN_ERROR", "Failed to open " + config.getPath(), e.getMessage());
+    }
+  }
+
+  /**
+   * Close and dispose an added reader. Runs on the device command thread.
    */
-  private void enableRfidModule(boolean enable, Result result) {
+  private static void removeReader(int reader, Result result) {
+    LFUtil util;
+    synchronized (readers) {
+      util = readers.remove(reader);
+      readerConfigs.remove(reader);
+    }
+    if (util == null) {
+      result.error("READER_NOT_FOUND", "No reader " + reader, null);
+      return;
+    }
+    try {
+      util.close();
+    } catch (IOException e) {
+      Log.e(TAG, "Failed to close reader " + reader + ": " + e.getMessage());
+    }
+    util.dispose();
+    result.success("Reader " + reader + " removed");
+  }
+
+  private static void removeAllReaders() {
+    Map<Integer, LFUtil> removed;
+    synchronized (readers) {
+      removed = new HashMap<>(readers);
+      readers.clear();
+      readerConfigs.clear();
+    }
+    for (LFUtil util : removed.values()) {
+      try {
+        util.close();
+      } catch (IOException e) {
+        Log.e(TAG, "Failed to close reader: " + e.getMessage());
+      }
+      util.dispose();
+    }
+  }
+
+  private static List<Map<String, Object>> describeReaders() {
+    List<Map<String, Object>> list = new ArrayList<>();
+    synchronized (readers) {
+      for (Map.Entry<Integer, ReaderConfig> entry : readerConfigs.entrySet()) {
+        ReaderConfig config = entry.getValue();
+        Map<String, Object> reader = new HashMap<>();
+        reader.put("reader", entry.getKey());
+        reader.put("path", config.getPath());
+        reader.put("baudRate", config.getBaudRate());
+        reader.put("profile", config.getProfile() == FrameAssembler.PROFILE_STX_ETX ? "stxEtx" : "lf");
+        reader.put("opened", readers.get(entry.getKey()).isOpened());
+        list.add(reader);
+      }
+    }
+    return list;
+  }
+
+  /**
+   * Create a reader whose frames are decoded on the shared decode thread and
+   * published with the given reader number
+   */
+  private static LFUtil createReader(final int reader, ReaderConfig config) {
+    final Handler decoder = startDecodeThread();
+    IDataReceive receiver = data -> {
+      final long capturedMicros = ScanEventCodec.nowMicros();
+      decoder.post(() -> onRfidDataReceived(data, capturedMicros, reader));
+    };
+    return config != null ? new LFUtil(receiver, config) : new LFUtil(receiver);
+  }
+
+  /**
+   * Enable or disable the raw serial capture ring. Re-enabling with a new size
+   * starts an empty capture.
+   */
+  private static synchronized void setRawCapture(boolean enabled, int records) {
+    RawCapture capture = rawCapture;
+    if (!enabled) {
+      capture = null;
+    } else if (capture == null || capture.getCapacity() != records) {
+      capture = new RawCapture(records);
+    }
+    rawCapture = capture;
+    if (lfUtil != null) {
+      lfUtil.setCapture(capture);
+    }
+  }
+
+  /**
+   * Write the raw capture to a file, by default in the app cache directory.
+   * Runs on the file thread.
+   */
+  private static void dumpRawCapture(String path, final Result result) {
+    final RawCapture capture = rawCapture;
+    if (capture == null) {
+      result.error("CAPTURE_DISABLED", "Raw capture is not enabled", null);
+      return;
+    }
+    final File file = path != null ? new File(path)
+        : new File(context.getCacheDir(), "lf-capture-" + System.currentTimeMillis() + ".bin");
+    fileExecutor.execute(() -> {
+      try {
+        int records = capture.dump(file);
+        final Map<String, Object> dump = new HashMap<>();
+        dump.put("path", file.getAbsolutePath());
+        dump.put("records", records);
+        dump.put("bytes", file.length());
+        mainHandler.post(() -> result.success(dump));
+      } catch (IOException e) {
+        Log.e(TAG, "Failed to dump raw capture: " + e.getMessage());
+        mainHandler.post(() -> result.error("CAPTURE_ERROR", "Failed to dump raw capture", e.getMessage()));
+      }
+    });
+  }
+
+  /**
+   * Map a tag index file and use it for every following RFID read. Runs on
+   * the file thread.
+   */
+  private static void loadTagIndex(String path, final Result result) {
+    if (path == null) {
+      result.error("INVALID_ARGUMENT", "path is required", null);
+      return;
+    }
+    final File file = new File(path);
+    fileExecutor.execute(() -> {
+      try {
+        final TagIndex index = TagIndex.open(file);
+        tagIndex = index;
+        mainHandler.post(() -> result.success(describeTagIndex(index)));
+      } catch (IOException e) {
+        Log.e(TAG, "Failed to load tag index: " + e.getMessage());
+        mainHandler.post(() -> result.error("INDEX_ERROR", "Failed to load tag index", e.getMessage()));
+      }
+    });
+  }
+
+  /**
+   * Write a tag index file from Dart lists and load it. Sorting a large
+   * registry takes a while, so it runs on the file thread.
+   */
+  private static void buildTagIndex(MethodCall call, final Result result) {
+    final List<String> ids = call.argument("ids");
+    final byte[] payloads = call.argument("payloads");
+    final int payloadSize = (int) longArgument(call, "payloadSize", 0);
+    String path = call.argument("path");
+    final File file = path != null ? new File(path) : new File(context.getFilesDir(), "tag-index.bin");
+    if (ids == null) {
+      result.error("INVALID_ARGUMENT", "ids is required", null);
+      return;
+    }
+    fileExecutor.execute(() -> {
+      try {
+        TagIndex.build(file, ids, payloads, payloadSize);
+        final TagIndex index = TagIndex.open(file);
+        tagIndex = index;
+        mainHandler.post(() -> result.success(describeTagIndex(index)));
+      } catch (IllegalArgumentException e) {
+        mainHandler.post(() -> result.error("INVALID_ARGUMENT", e.getMessage(), null));
+      } catch (IOException e) {
+        Log.e(TAG, "Failed to build tag index: " + e.getMessage());
+        mainHandler.post(() -> result.error("INDEX_ERROR", "Failed to build tag index", e.getMessage()));
+      }
+    });
+  }
+
+  private static Map<String, Object> describeTagIndex(TagIndex index) {
+    Map<String, Object> description = new HashMap<>();
+    description.put("path", index.getFile().getAbsolutePath());
+    description.put("entries", index.size());
+    description.put("payloadSize", index.getPayloadSize());
+    return description;
+  }
+
+  /**
+   * Enable/disable RFID module. Runs on the device command thread.
+   */
+  private static void enableRfidModule(boolean enable, Result result) {
     if (enable) {
-      if (isRfidPowerOn) {
-        result.success("RFID already on");
+      if (deviceState.is(DeviceState.RFID)) {
+        if (result != null) result.success("RFID already on");
         return;
       }
+      long switchStart = System.nanoTime();
       
-      // Turn off barcode scanner if active
-      if (isScannerOn) {
+      // Turn off barcode scanner if active, unless both run together
+      if (deviceState.is(DeviceState.BARCODE) && !dualMode) {
         stopBarcodeScan(null);
       }
       
-      // Enable RFID module
+      // Hot standby: the port is still open and powered, only resume reading
+      if (deviceState.is(DeviceState.RFID_STANDBY) && lfUtil != null) {
+        lfUtil.setPaused(false);
+        powerScheduler.start();
+        deviceState.start(DeviceState.RFID);
+        recordModeSwitch(switchStart);
+        if (result != null) result.success("RFID on");
+        Log.d(TAG, "RFID module resumed from standby");
+        return;
+      }
+      
+      // Enable RFID module; the reader and its read thread are created on first use
+      builtInReader();
       if (lfUtil != null) {
         if (lfUtil.powerOn()) {
           try {
+            lfUtil.setPaused(false);
             lfUtil.open();
-            isRfidPowerOn = true;
-            currentMode = MODE_RFID;
-            result.success("RFID on");
+            powerScheduler.start();
+            deviceState.start(DeviceState.RFID);
+            recordModeSwitch(switchStart);
+            if (result != null) result.success("RFID on");
             Log.d(TAG, "RFID module powered on");
           } catch (Exception e) {
             Log.e(TAG, "Failed to open RFID module: " + e.getMessage());
-            result.error("RFID_OPEN_ERROR", "Failed to open RFID module", e.getMessage());
+            if (result != null) result.error("RFID_OPEN_ERROR", "Failed to open RFID module", e.getMessage());
           }
         } else {
           Log.e(TAG, "Failed to power on RFID module");
-          result.error("RFID_POWER_ERROR", "Failed to power on RFID module", null);
+          if (result != null) result.error("RFID_POWER_ERROR", "Failed to power on RFID module", null);
         }
       } else {
         Log.e(TAG, "RFID util is not initialized");
-        result.error("RFID_INIT_ERROR", "RFID util is not initialized", null);
+        if (result != null) result.error("RFID_INIT_ERROR", "RFID util is not initialized", null);
       }
     } else {
+      // Hot standby: keep the port open and powered, stop routing frames
+      if (standby && lfUtil != null && deviceState.is(DeviceState.RFID | DeviceState.RFID_STANDBY)) {
+        lfUtil.setPaused(true);
+        powerScheduler.stop();
+        // Standby keeps the module powered even if a duty-cycle window had cut
+        // it. Switches still queued from the scheduler are dropped once it is
+        // stopped, so check the GPIO itself.
+        if (!PowerUtil.isPowered()) {
+          lfUtil.powerOn();
+        }
+        deviceState.standby(DeviceState.RFID);
+        if (result != null) result.success("RFID off");
+        Log.d(TAG, "RFID module in standby");
+        return;
+      }
+      
       // Disable RFID module
       if (lfUtil != null) {
         try {
+          powerScheduler.stop();
           lfUtil.close();
           lfUtil.powerOff();
-          isRfidPowerOn = false;
-          currentMode = 0;
-          result.success("RFID off");
+          deviceState.stop(DeviceState.RFID);
+          if (result != null) result.success("RFID off");
           Log.d(TAG, "RFID module powered off");
         } catch (IOException e) {
           Log.e(TAG, "Failed to close RFID module: " + e.getMessage());
-          result.error("RFID_CLOSE_ERROR", "Failed to close RFID module", e.getMessage());
+          if (result != null) result.error("RFID_CLOSE_ERROR", "Failed to close RFID module", e.getMessage());
         }
       } else {
         Log.d(TAG, "RFID util is not initialized, nothing to turn off");
-        result.success("RFID off");
+        if (result != null) result.success("RFID off");
       }
     }
   }
 
   /**
-   * Start barcode scanning
+   * Start barcode scanning. Runs on the device command thread.
    */
-  private void startBarcodeScan(Result result) {
-    if (isScannerOn) {
+  private static void startBarcodeScan(Result result) {
+    if (deviceState.is(DeviceState.BARCODE)) {
       if (result != null) result.success("Scanner already on");
       return;
     }
+    long switchStart = System.nanoTime();
     
-    // Turn off RFID if active
-    if (isRfidPowerOn) {
+    // Turn off RFID if active, unless both run together
+    if (deviceState.is(DeviceState.RFID) && !dualMode) {
       enableRfidModule(false, null);
     }
     
     try {
+      // Hot standby: the scanner is open and the receiver registered
+      if (deviceState.is(DeviceState.BARCODE_STANDBY) && scanDevice != null) {
+        scanDevice.startScan();
+        deviceState.start(DeviceState.BARCODE);
+        recordModeSwitch(switchStart);
+        if (result != null) result.success("Scanner started");
+        return;
+      }
+      
       Log.d(TAG, "Starting barcode scanner");
       
       // Initialize scanner if not yet initialized
@@ -251,18 +994,20 @@ public class PdaRfidScannerPlugin implements FlutterPlugin, MethodCallHandler, A
         scanDevice = new ScanDevice();
       }
       
-      // Register receiver to get scan results
+      // Register receiver to get scan results. It is registered on the
+      // application context so it outlives any one engine's activity.
       IntentFilter filter = new IntentFilter();
       filter.addAction(SCAN_ACTION);
-      activity.registerReceiver(mScanReceiver, filter);
+      context.registerReceiver(mScanReceiver, filter);
       
       // Configure and start scanner
       scanDevice.setOutScanMode(0); // Output mode: broadcast
       scanDevice.openScan();
+      applyScanMode();
       scanDevice.startScan();
       
-      isScannerOn = true;
-      currentMode = MODE_BARCODE;
+      deviceState.start(DeviceState.BARCODE);
+      recordModeSwitch(switchStart);
       
       if (result != null) result.success("Scanner started");
     } catch (Exception e) {
@@ -272,32 +1017,29 @@ public class PdaRfidScannerPlugin implements FlutterPlugin, MethodCallHandler, A
   }
 
   /**
-   * Stop barcode scanning
+   * Stop barcode scanning. Runs on the device command thread.
    */
-  private void stopBarcodeScan(Result result) {
-    if (!isScannerOn) {
+  private static void stopBarcodeScan(Result result) {
+    if (!deviceState.is(DeviceState.BARCODE)) {
       if (result != null) result.success("Scanner already off");
       return;
     }
     
-    try {
-      Log.d(TAG, "Stopping barcode scanner");
-      
-      // Unregister receiver
+    // Hot standby: stop the scan but keep the scanner open and the receiver registered
+    if (standby && scanDevice != null) {
       try {
-        activity.unregisterReceiver(mScanReceiver);
-      } catch (Exception e) {
-        Log.e(TAG, "Error unregistering receiver: " + e.getMessage());
-      }
-      
-      // Stop and close scanner
-      if (scanDevice != null) {
         scanDevice.stopScan();
-        scanDevice.closeScan();
+      } catch (Exception e) {
+        Log.e(TAG, "Failed to stop scan: " + e.getMessage());
       }
-      
-      isScannerOn = false;
-      currentMode = 0;
+      deviceState.standby(DeviceState.BARCODE);
+      if (result != null) result.success("Scanner stopped");
+      return;
+    }
+    
+    try {
+      Log.d(TAG, "Stopping barcode scanner");
+      releaseScanner();
       
       if (result != null) result.success("Scanner stopped");
     } catch (Exception e) {
@@ -306,21 +1048,239 @@ public class PdaRfidScannerPlugin implements FlutterPlugin, MethodCallHandler, A
     }
   }
 
+  /**
+   * Restart the scan engine after a barcode in single mode, so it is ready
+   * for the next one. Runs on the device command thread.
+   */
+  private static void restartScan() {
+    ScanDevice device = scanDevice;
+    if (continuousScan || device == null || !deviceState.is(DeviceState.BARCODE)) {
+      return;
+    }
+    device.stopScan();
+    if (autoRestartScan) {
+      device.startScan();
+    }
+  }
+
+  /**
+   * Switch between single and continuous barcode scanning. Takes effect
+   * immediately if the scanner is open. Runs on the device command thread.
+   */
+  private static void setBarcodeScanMode(boolean continuous, int intervalMs) {
+    continuousScan = continuous;
+    continuousIntervalMs = Math.max(0, intervalMs);
+    if (scanDevice != null && deviceState.is(DeviceState.BARCODE | DeviceState.BARCODE_STANDBY)) {
+      try {
+        applyScanMode();
+        if (deviceState.is(DeviceState.BARCODE)) {
+          scanDevice.startScan();
+        }
+      } catch (Exception e) {
+        Log.e(TAG, "Failed to set scan mode: " + e.getMessage());
+      }
+    }
+  }
+
+  private static void applyScanMode() {
+    if (continuousScan) {
+      if (savedLaserMode < 0) {
+        savedLaserMode = scanDevice.getScanLaserMode();
+      }
+      scanDevice.setScanLaserMode(LASER_MODE_CONTINUOUS);
+      if (continuousIntervalMs > 0) {
+        scanDevice.setIntervalTime(continuousIntervalMs);
+      }
+    } else if (savedLaserMode >= 0) {
+      scanDevice.setScanLaserMode(savedLaserMode);
+      savedLaserMode = -1;
+    }
+  }
+
+  /**
+   * Unregister the receiver and close the scanner
+   */
+  private static void releaseScanner() {
+    // Unregister receiver
+    try {
+      context.unregisterReceiver(mScanReceiver);
+    } catch (Exception e) {
+      Log.e(TAG, "Error unregistering receiver: " + e.getMessage());
+    }
+    
+    // Stop and close scanner, restoring the laser mode continuous scanning changed
+    if (scanDevice != null) {
+      scanDevice.stopScan();
+      if (savedLaserMode >= 0) {
+        scanDevice.setScanLaserMode(savedLaserMode);
+        savedLaserMode = -1;
+      }
+      scanDevice.closeScan();
+    }
+    
+    deviceState.stop(DeviceState.BARCODE);
+  }
+
+  /**
+   * Turn hot standby on or off. Leaving standby fully releases whichever
+   * device is idling. Runs on the device command thread.
+   */
+  private static void setStandby(boolean enabled) {
+    standby = enabled;
+    if (enabled) {
+      return;
+    }
+    if (deviceState.is(DeviceState.BARCODE_STANDBY)) {
+      try {
+        releaseScanner();
+      } catch (Exception e) {
+        Log.e(TAG, "Failed to release scanner: " + e.getMessage());
+      }
+    }
+    if (deviceState.is(DeviceState.RFID_STANDBY)) {
+      enableRfidModule(false, null);
+    }
+  }
+
+  /**
+   * Allow barcode and RFID to run at the same time. Turning dual mode off
+   * leaves whatever is running; the next start switches the other one off.
+   */
+  private static void setDualMode(boolean enabled, long holdMs) {
+    dualMode = enabled;
+    final long holdMicros = Math.max(0, holdMs) * 1000L;
+    Handler handler = decodeHandler;
+    if (handler != null) {
+      handler.post(() -> {
+        captureOrder.setHoldMicros(holdMicros);
+        if (!dualMode) {
+          captureOrder.flush();
+        }
+      });
+    } else {
+      captureOrder.setHoldMicros(holdMicros);
+    }
+  }
+
+  /**
+   * Open or close the scan journal. Opening recovers existing segments and
+   * continues after the last intact record.
+   */
+  private void setJournal(MethodCall call, final Result result) {
+    final boolean enabled = Boolean.TRUE.equals(call.argument("enabled"));
+    String path = call.argument("directory");
+    final File directory = path != null ? new File(path) : new File(context.getFilesDir(), "scan-journal");
+    final int segmentRecords = (int) longArgument(call, "segmentRecords", ScanJournal.DEFAULT_SEGMENT_RECORDS);
+    final int maxSegments = (int) longArgument(call, "maxSegments", ScanJournal.DEFAULT_MAX_SEGMENTS);
+    final int commitRecords = (int) longArgument(call, "commitRecords", ScanJournal.DEFAULT_COMMIT_RECORDS);
+    final long commitMs = longArgument(call, "commitMs", ScanJournal.DEFAULT_COMMIT_MILLIS);
+    startDecodeThread().post(() -> {
+      if (journal != null) {
+        journal.close();
+        journal = null;
+      }
+      if (!enabled) {
+        mainHandler.post(() -> result.success(null));
+        return;
+      }
+      try {
+        ScanJournal opened = new ScanJournal(directory, segmentRecords, maxSegments);
+        opened.setCommitPolicy(commitRecords, commitMs);
+        journal = opened;
+        final Map<String, Object> info = new HashMap<>();
+        info.put("directory", directory.getAbsolutePath());
+        info.put("firstSequence", opened.getFirstSequence());
+        info.put("lastSequence", opened.getLastSequence());
+        info.put("recovered", opened.getRecoveredRecords());
+        mainHandler.post(() -> result.success(info));
+      } catch (IOException e) {
+        Log.e(TAG, "Failed to open scan journal: " + e.getMessage());
+        mainHandler.post(() -> result.error("JOURNAL_ERROR", "Failed to open scan journal", e.getMessage()));
+      }
+    });
+  }
+
+  /**
+   * Read one page of the journal on the decode thread
+   */
+  private void queryJournal(MethodCall call, final Result result) {
+    final long afterSequence = longArgument(call, "afterSequence", 0);
+    final long fromMicros = longArgument(call, "fromMicros", Long.MIN_VALUE);
+    final long toMicros = longArgument(call, "toMicros", Long.MAX_VALUE);
+    final int limit = (int) longArgument(call, "limit", 500);
+    startDecodeThread().post(() -> {
+      if (journal == null) {
+        mainHandler.post(() -> result.error("JOURNAL_DISABLED", "Scan journal is not enabled", null));
+        return;
+      }
+      final byte[] page = journal.query(afterSequence, fromMicros, toMicros, limit);
+      mainHandler.post(() -> result.success(page));
+    });
+  }
+
+  /**
+   * Start a new inventory session. Every decoded read is counted, before
+   * de-duplication; per-read events are only sent when streamReads is set.
+   */
+  private static void startInventory(boolean streamReads) {
+    final long startMicros = ScanEventCodec.nowMicros();
+    inventoryStreamReads = streamReads;
+    startDecodeThread().post(() -> {
+      inventory.clear(startMicros);
+      inventoryActive = true;
+    });
+  }
+
+  /**
+   * End the inventory session, keeping its contents for a final snapshot
+   */
+  private void stopInventory(final Result result) {
+    startDecodeThread().post(() -> {
+      inventoryActive = false;
+      final Map<String, Object> summary = new HashMap<>();
+      summary.put("tags", inventory.size());
+      summary.put("reads", inventory.getReadCount());
+      mainHandler.post(() -> result.success(summary));
+    });
+  }
+
+  /**
+   * Encode the inventory on the decode thread and reply on the main thread.
+   * With sinceLast only tags read since the previous snapshot are included.
+   */
+  private void getInventorySnapshot(final boolean sinceLast, final Result result) {
+    startDecodeThread().post(() -> {
+      final byte[] snapshot = inventory.snapshot(sinceLast);
+      mainHandler.post(() -> result.success(snapshot));
+    });
+  }
+
+  private static void recordModeSwitch(long startNanos) {
+    long micros = (System.nanoTime() - startNanos) / 1000L;
+    lastModeSwitchMicros = micros;
+    ScannerMetrics.modeSwitch.record(micros);
+  }
+
   @Override
   public void onDetachedFromEngine(@NonNull FlutterPluginBinding binding) {
-    Log.d(TAG, "Plugin detached from engine");
     channel.setMethodCallHandler(null);
+    eventChannel.setStreamHandler(null);
+    cancelEventStream();
+    synchronized (PdaRfidScannerPlugin.class) {
+      attachedEngines--;
+      Log.d(TAG, "Plugin detached from engine, " + attachedEngines + " attached");
+      // The last engine releases the shared devices
+      if (attachedEngines == 0) {
+        submitDeviceCommand(DeviceCommandQueue.KEY_NONE, r -> releaseDevices(), null);
+      }
+    }
   }
 
   @Override
   public void onAttachedToActivity(ActivityPluginBinding binding) {
     Log.d(TAG, "Plugin attached to activity");
-    activity = binding.getActivity();
     
-    // Initialize LFUtil for RFID scanning
-    lfUtil = new LFUtil(data -> 
-      activity.runOnUiThread(() -> onRfidDataReceived(data))
-    );
+    // The RFID reader is created on first use, see builtInReader()
   }
 
   @Override
@@ -331,44 +1291,243 @@ public class PdaRfidScannerPlugin implements FlutterPlugin, MethodCallHandler, A
   @Override
   public void onReattachedToActivityForConfigChanges(ActivityPluginBinding binding) {
     Log.d(TAG, "Plugin reattached to activity for config changes");
-    activity = binding.getActivity();
   }
 
   @Override
   public void onDetachedFromActivity() {
     Log.d(TAG, "Plugin detached from activity");
     
-    // Clean up resources
-    if (isScannerOn) {
-      stopBarcodeScan(null);
+    // With a single engine the devices go with its activity. When other
+    // engines (a background isolate, another screen) are attached they keep
+    // using the devices, which are released with the last engine instead.
+    synchronized (PdaRfidScannerPlugin.class) {
+      if (attachedEngines > 1) {
+        return;
+      }
+    }
+    // Clean up on the device command thread, after commands already queued
+    submitDeviceCommand(DeviceCommandQueue.KEY_NONE, r -> releaseDevices(), null);
+  }
+
+  /**
+   * Release both devices, including ones idling in standby, and stop the
+   * reader threads. Runs on the device command thread.
+   */
+  private static void releaseDevices() {
+    standby = false;
+    if (deviceState.is(DeviceState.BARCODE | DeviceState.BARCODE_STANDBY)) {
+      try {
+        releaseScanner();
+      } catch (Exception e) {
+        Log.e(TAG, "Error closing scanner: " + e.getMessage());
+      }
     }
     
-    if (isRfidPowerOn) {
+    if (powerScheduler != null) {
+      powerScheduler.shutdown();
+    }
+    if (deviceState.is(DeviceState.RFID | DeviceState.RFID_STANDBY)) {
       try {
         lfUtil.close();
         lfUtil.powerOff();
       } catch (Exception e) {
         Log.e(TAG, "Error closing RFID: " + e.getMessage());
       }
+      deviceState.stop(DeviceState.RFID);
     }
     
-    if (lfUtil != null) {
-      lfUtil.dispose();
-      lfUtil = null;
+    synchronized (PdaRfidScannerPlugin.class) {
+      if (lfUtil != null) {
+        lfUtil.dispose();
+        lfUtil = null;
+      }
+      powerScheduler = null;
+    }
+    PowerUtil.close();
+    removeAllReaders();
+    stopDecodeThread();
+  }
+
+  /**
+   * Create the built-in reader and its power scheduler on first use. Nothing
+   * is opened and no thread is started until the reader is opened.
+   */
+  private static synchronized LFUtil builtInReader() {
+    if (lfUtil == null) {
+      lfUtil = createReader(0, null);
+      lfUtil.setCapture(rawCapture);
+      // The scheduler thread only queues the GPIO write, so it is ordered
+      // with open, close and standby on the device command thread
+      powerScheduler = new PowerScheduler(on -> {
+        submitDeviceCommand(COMMAND_RFID_POWER, r -> switchBuiltInPower(on), null);
+        return true;
+      });
+      powerScheduler.configure(powerOnMs, powerOffMs, powerIdleTimeoutMs);
+    }
+    return lfUtil;
+  }
+
+  /**
+   * Apply a duty-cycle power switch. Runs on the device command thread and is
+   * skipped if RFID was turned off, or the scheduler changed its mind, after
+   * it was queued.
+   */
+  private static void switchBuiltInPower(boolean on) {
+    PowerScheduler scheduler = powerScheduler;
+    LFUtil reader = lfUtil;
+    if (scheduler == null || reader == null || !scheduler.isActive() || scheduler.isPowered() != on) {
+      return;
+    }
+    if (!(on ? reader.powerOn() : reader.powerOff())) {
+      Log.e(TAG, "Failed to switch RFID power " + (on ? "on" : "off"));
+    }
+  }
+
+  /**
+   * Load the serial port native library and the ScanDevice SDK, and start the
+   * decode thread, in the background so the first scan does not pay for them
+   */
+  private static void warmUp(final Result result) {
+    new Thread(() -> {
+      final boolean serialPort = SerialPortTransport.preload();
+      ScanDevice device = null;
+      try {
+        device = new ScanDevice();
+      } catch (Throwable e) {
+        Log.e(TAG, "ScanDevice unavailable: " + e.getMessage());
+      }
+      startDecodeThread();
+      builtInReader();
+      final ScanDevice warmDevice = device;
+      // Hand the scanner over on the command thread, which owns scanDevice
+      submitDeviceCommand(DeviceCommandQueue.KEY_NONE, r -> {
+        if (scanDevice == null) {
+          scanDevice = warmDevice;
+        }
+        Map<String, Object> status = new HashMap<>();
+        status.put("serialPort", serialPort);
+        status.put("scanner", warmDevice != null);
+        r.success(status);
+      }, result);
+    }, "PdaRfidWarmUp").start();
+  }
+
+  /**
+   * Start the RFID decode thread if it is not running
+   */
+  private static synchronized Handler startDecodeThread() {
+    if (decodeHandler == null) {
+      decodeThread = new HandlerThread("PdaRfidDecode");
+      decodeThread.start();
+      decodeHandler = new Handler(decodeThread.getLooper());
+    }
+    return decodeHandler;
+  }
+
+  /**
+   * Stop the RFID decode thread after it has processed the frames already posted
+   */
+  private static synchronized void stopDecodeThread() {
+    if (decodeThread != null) {
+      // Delayed capture-order releases are dropped on quit, send what is held now
+      decodeHandler.post(() -> {
+        captureOrder.flush();
+        captureReleaseScheduled = false;
+        if (journal != null) {
+          journal.sync();
+        }
+        journalSyncScheduled = false;
+      });
+      decodeThread.quitSafely();
+      decodeThread = null;
+      decodeHandler = null;
     }
-    
-    activity = null;
   }
 
   /**
    * Process RFID card data
    */
   protected static void onRfidDataReceived(final byte[] data) {
+    onRfidDataReceived(data, ScanEventCodec.nowMicros());
+  }
+
+  /**
+   * Process RFID card data. Runs on the decode thread.
+   *
+   * @param capturedMicros when the frame came off the serial port, Unix epoch microseconds
+   */
+  protected static void onRfidDataReceived(final byte[] data, long capturedMicros) {
+    onRfidDataReceived(data, capturedMicros, 0);
+  }
+
+  /**
+   * Process RFID card data from a numbered reader. Runs on the decode thread.
+   *
+   * @param reader 0 for the built-in reader, otherwise the number returned by addReader
+   */
+  private static void onRfidDataReceived(final byte[] data, long capturedMicros, int reader) {
     try {
-      String rfidData = processRfidData(data);
-      if (rfidData != null && !rfidData.isEmpty()) {
-        // Send the result to Flutter via Event Channel
-        subject.onNext("rfid:" + rfidData);
+      if (processRfidData(data) == TagDecoder.FORMAT_NONE) {
+        ScannerMetrics.decodeFailures.increment();
+        return;
+      }
+      ScannerMetrics.tagsDecoded.increment();
+      PowerScheduler scheduler = powerScheduler;
+      if (reader == 0 && scheduler != null) {
+        scheduler.onTag();
+      }
+      ScannerMetrics.readToDecode.record(ScanEventCodec.nowMicros() - capturedMicros);
+      // The inventory counts every read, before de-duplication
+      boolean streamRead = true;
+      if (inventoryActive) {
+        inventory.record(tagDecoder.getTagKey(), tagDecoder.getChars(), tagDecoder.getLength(), capturedMicros);
+        streamRead = inventoryStreamReads;
+      }
+      int type = ScanEventCodec.TYPE_RFID;
+      int readCount = 1;
+      // Drop repeats of a tag that is still in front of the reader
+      if (tagDeduplicator.isEnabled()) {
+        // The same tag on two readers is de-duplicated separately. Numeric
+        // keys use bits 0-49 (TagDecoder hashes ids whose country does not
+        // fit in 10 bits) and bit 63 marks hashed ids, so the reader number
+        // (at most 255) goes in bits 50-57 and never flips bit 63.
+        long key = tagDecoder.getTagKey() ^ ((long) (reader & 0xFF) << 50);
+        int seen = tagDeduplicator.check(key, SystemClock.elapsedRealtime());
+        if (seen == TagDeduplicator.RESULT_DUPLICATE) {
+          ScannerMetrics.duplicatesSuppressed.increment();
+          return;
+        }
+        if (seen == TagDeduplicator.RESULT_HEARTBEAT) {
+          type = ScanEventCodec.TYPE_RFID_PRESENT;
+          readCount = tagDeduplicator.getLastCount();
+        }
+      }
+      // Like barcodes, tags are journaled after de-duplication, whether or
+      // not an inventory session holds them back from the stream
+      journalTag(type, reader, readCount, capturedMicros);
+      if (!streamRead) {
+        return;
+      }
+      // Look the tag up in the known-tag index, if one is loaded
+      TagIndex index = tagIndex;
+      int record = -1;
+      if (index != null) {
+        record = index.find(tagDecoder.getChars(), tagDecoder.getLength());
+        (record >= 0 ? ScannerMetrics.knownTags : ScannerMetrics.unknownTags).increment();
+      }
+      // Send the result to Flutter via Event Channel
+      if (binaryEvents) {
+        publishEvent(ScanEventCodec.encodeRfid(tagDecoder, data, data.length, type, readCount,
+            capturedMicros, reader, index, record), capturedMicros);
+      } else {
+        // Events from added readers are tagged "rfid@<reader>:..."
+        String source = reader != 0 ? "@" + reader : "";
+        String tag = tagDecoder.getIdString() + describeMatch(index, record);
+        if (type == ScanEventCodec.TYPE_RFID_PRESENT) {
+          publishEvent("rfid_present" + source + ":" + readCount + ":" + tag, capturedMicros);
+        } else {
+          publishEvent("rfid" + source + ":" + tag, capturedMicros);
+        }
       }
     } catch (Exception e) {
       Log.e(TAG, "Error processing RFID data: " + e.getMessage());
@@ -376,78 +1535,65 @@ public class PdaRfidScannerPlugin implements FlutterPlugin, MethodCallHandler, A
   }
 
   /**
-   * Process RFID data
+   * Append the tag in tagDecoder to the scan journal, if enabled
    */
-  private static String processRfidData(final byte[] data) {
+  private static void journalTag(int type, int reader, int readCount, long capturedMicros) {
+    ScanJournal log = journal;
+    if (log == null) {
+      return;
+    }
     try {
-      byte[] id = new byte[64];
-      System.arraycopy(data, 0, id, 0, data.length);
-      
-      if ((data.length >= 20) & (id[19] == 35)) {
-        // First RFID format
-        byte[] temp = new byte[15];
-        System.arraycopy(id, 2, temp, 0, 15);
-        return new String(temp, "ascii");
-      } else if (data.length >= 30) {
-        // Second RFID format (FDX/HDX)
-        int start = -1, end = -1;
-        for (int i = 0; i < data.length; i++) {
-          if (data[i] == 0x02) {
-            start = i;
-          } else if (data[i] == 0x03 || data[i] == 0x07) {
-            end = i;
-            break;
-          }
-        }
-        
-        if (start != -1 && end != -1) {
-          byte[] tempBuffer = new byte[14];
-          System.arraycopy(data, start + 1, tempBuffer, 0, tempBuffer.length);
-          
-          String rawString = new String(tempBuffer, "ascii");
-          String idStr = new BigInteger(rev(rawString.substring(0, 10)), 16).toString(10);
-          idStr = paddingLeft(idStr, 12, "0");
-          String countCodeStr = new BigInteger(rev(rawString.substring(10, 13)), 16).toString(10);
-          
-          return countCodeStr + idStr;
-        }
-      }
-    } catch (Exception e) {
-      Log.e(TAG, "Error in processRfidData: " + e.getMessage());
+      log.append(type, reader, tagDecoder.getChars(), tagDecoder.getLength(), readCount, capturedMicros);
+      syncJournal();
+    } catch (IOException e) {
+      Log.e(TAG, "Failed to write scan journal: " + e.getMessage());
     }
-    
-    return null;
   }
 
   /**
-   * Helper function to reverse a string
+   * Group commit: force the journal to disk once its oldest unsynced record
+   * is due, and schedule another check while records are pending
    */
-  private static String rev(String ox) {
-    byte[] b = ox.getBytes();
-    int j = 0;
-    byte[] result = new byte[b.length];
-    int i = b.length - 1;
-    while (i >= 0) {
-      result[j] = b[i];
-      i--;
-      j++;
+  private static void syncJournal() {
+    ScanJournal log = journal;
+    if (log == null) {
+      return;
+    }
+    long waitNanos = log.syncIfDue(System.nanoTime());
+    Handler handler = decodeHandler;
+    if (waitNanos >= 0 && !journalSyncScheduled && handler != null) {
+      journalSyncScheduled = true;
+      handler.postDelayed(() -> {
+        journalSyncScheduled = false;
+        syncJournal();
+      }, Math.max(1, (waitNanos + 999999) / 1000000));
     }
-    return new String(result);
   }
 
   /**
-   * Helper function to pad a string on the left
+   * String event suffix for an index lookup: "|known:<payload hex>",
+   * "|unknown", or nothing when no index is loaded
    */
-  private static String paddingLeft(String rawString, int len, String fillChar) {
-    StringBuilder stringBuilder = new StringBuilder();
-    int fillLen = len - rawString.length();
-    if (fillLen <= 0)
-      return rawString;
-    while (fillLen-- > 0) {
-      stringBuilder.append(fillChar);
+  private static String describeMatch(TagIndex index, int record) {
+    if (index == null) {
+      return "";
+    }
+    if (record < 0) {
+      return "|unknown";
     }
-    stringBuilder.append(rawString);
-    return stringBuilder.toString();
+    byte[] payload = new byte[index.getPayloadSize()];
+    index.copyPayload(record, payload, 0);
+    return "|known:" + ByteUtils.bytesToHexString(payload, 0, payload.length);
+  }
+
+  /**
+   * Process RFID data, leaving the decoded tag in tagDecoder
+   *
+   * @return TagDecoder.FORMAT_NONE if the frame is not a tag read or fails
+   *     its format's checksum
+   */
+  private static int processRfidData(final byte[] data) {
+    return decoderRegistry.decode(data, data.length, tagDecoder);
   }
 
 }
@@ -1,15 +1,112 @@
 package com.pda_rfid_scanner.utils;
 
-import android.util.Log;
-
 import java.math.BigInteger;
 
 /**
  * Created by moxiaomo
  * on 2020/7/13
+ * <p>
+ * 十六进制转换与校验均基于查表，提供 byte[]/char[] 带 offset/length 的版本；
+ * 原有的 String 方法保留为对其的简单包装。
  */
 public class ByteUtils {
 
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final char[] HEX_LOWER = "0123456789abcdef".toCharArray();
+    private static final byte[] HEX_VALUE = new byte[128];
+
+    static {
+        for (int i = 0; i < HEX_VALUE.length; i++) {
+            HEX_VALUE[i] = -1;
+        }
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUE['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUE['A' + i] = (byte) (10 + i);
+            HEX_VALUE['a' + i] = (byte) (10 + i);
+        }
+    }
+
+    /**
+     * 十六进制字符的值
+     *
+     * @return 0~15，非十六进制字符返回 -1
+     */
+    public static int hexValue(int c) {
+        return c >= 0 && c < HEX_VALUE.length ? HEX_VALUE[c] : -1;
+    }
+
+    /**
+     * 字节转大写十六进制字符，dst 需至少 2*length 长
+     *
+     * @return 写入的字符数
+     */
+    public static int toHexChars(byte[] src, int offset, int length, char[] dst, int dstOffset) {
+        return toHexChars(src, offset, length, dst, dstOffset, HEX_UPPER);
+    }
+
+    private static int toHexChars(byte[] src, int offset, int length, char[] dst, int dstOffset, char[] digits) {
+        int j = dstOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int v = src[i] & 0xFF;
+            dst[j++] = digits[v >>> 4];
+            dst[j++] = digits[v & 0x0F];
+        }
+        return j - dstOffset;
+    }
+
+    /**
+     * 十六进制字符转字节，奇数长度时忽略最后一个字符
+     *
+     * @return 写入的字节数
+     * @throws NumberFormatException 含非十六进制字符
+     */
+    public static int parseHexChars(char[] src, int offset, int length, byte[] dst, int dstOffset) {
+        return parseHex(src, (chars, index) -> chars[index], offset, length, dst, dstOffset);
+    }
+
+    /**
+     * ASCII 十六进制字节(如串口帧内容)转字节，奇数长度时忽略最后一个字符
+     *
+     * @return 写入的字节数
+     * @throws NumberFormatException 含非十六进制字符
+     */
+    public static int parseHexBytes(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        return parseHex(src, (bytes, index) -> bytes[index], offset, length, dst, dstOffset);
+    }
+
+    /**
+     * 按下标读取字符，让 char[] 与 byte[] 共用同一段解析逻辑（不捕获变量的 lambda 不会每次分配）
+     */
+    private interface CharAt<T> {
+        int charAt(T src, int index);
+    }
+
+    private static <T> int parseHex(T src, CharAt<T> charAt, int offset, int length, byte[] dst, int dstOffset) {
+        int count = length / 2;
+        for (int i = 0, p = offset; i < count; i++, p += 2) {
+            int high = hexValue(charAt.charAt(src, p));
+            int low = hexValue(charAt.charAt(src, p + 1));
+            if ((high | low) < 0) {
+                throw new NumberFormatException("Invalid hex at " + (p - offset));
+            }
+            dst[dstOffset + i] = (byte) ((high << 4) | low);
+        }
+        return count;
+    }
+
+    /**
+     * 异或校验(BCC)
+     */
+    public static byte xorChecksum(byte[] buff, int offset, int length) {
+        int temp = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            temp ^= buff[i];
+        }
+        return (byte) temp;
+    }
+
     // 將16進制字符串轉換為10進制數字
     public static int decodeHEX(String hexs) {
         BigInteger bigint = new BigInteger(hexs, 16);
@@ -21,92 +118,48 @@ public class ByteUtils {
      * 取反
      */
     public static String parseHex2Opposite(String str) {
-        String hex;
         // 十六进制转成二进制
         byte[] er = parseHexStr2Byte(str);
 
         // 取反
-        byte erBefore[] = new byte[er.length];
         for (int i = 0; i < er.length; i++) {
-            erBefore[i] = (byte) ~er[i];
+            er[i] = (byte) ~er[i];
         }
 
         // 二进制转成十六进制
-        hex = parseByte2HexStr(erBefore);
+        String hex = parseByte2HexStr(er);
 
         // 如果不够校验位的长度，补0,这里用的是两位校验
-        hex = (hex.length() < 2 ? "0" + hex : hex);
-
-        return hex;
+        return hex.length() < 2 ? "0" + hex : hex;
     }
 
     public static String checkcode_0007(String para) {
         int length = para.length() / 2;
-        String[] dateArr = new String[length];
-
-        for (int i = 0; i < length; i++) {
-            dateArr[i] = para.substring(i * 2, i * 2 + 2);
-        }
-        String code = "00";
-        for (int i = 0; i < dateArr.length; i++) {
-            code = xor(code, dateArr[i]);
-        }
-        if (code.length() == 1) {
-            code = "0" + code;
-            return code;
-        } else {
-            return code;
-        }
-    }
-
-    private static String xor(String strHex_X, String strHex_Y) {
-        // 将x、y转成二进制形式
-        String anotherBinary = Integer.toBinaryString(Integer.valueOf(strHex_X, 16));
-        String thisBinary = Integer.toBinaryString(Integer.valueOf(strHex_Y, 16));
-        String result = "";
-        // 判断是否为8位二进制，否则左补零
-        if (anotherBinary.length() != 8) {
-            for (int i = anotherBinary.length(); i < 8; i++) {
-                anotherBinary = "0" + anotherBinary;
-            }
-        }
-        if (thisBinary.length() != 8) {
-            for (int i = thisBinary.length(); i < 8; i++) {
-                thisBinary = "0" + thisBinary;
+        int code = 0;
+        for (int i = 0, p = 0; i < length; i++, p += 2) {
+            int high = hexValue(para.charAt(p));
+            int low = hexValue(para.charAt(p + 1));
+            if ((high | low) < 0) {
+                throw new NumberFormatException("For input string: \"" + para.substring(p, p + 2) + "\"");
             }
+            code ^= (high << 4) | low;
         }
-        // 异或运算
-        for (int i = 0; i < anotherBinary.length(); i++) {
-            // 如果相同位置数相同，则补0，否则补1
-            if (thisBinary.charAt(i) == anotherBinary.charAt(i))
-                result += "0";
-            else {
-                result += "1";
-            }
-        }
-        Log.e("code", result);
-        return Integer.toHexString(Integer.parseInt(result, 2));
+        return new String(new char[]{HEX_LOWER[code >>> 4], HEX_LOWER[code & 0x0F]});
     }
 
     public static String convertHexToString(String hex) {
-
-        StringBuilder sb = new StringBuilder();
-        StringBuilder temp = new StringBuilder();
-
         // 49204c6f7665204a617661 split into two characters 49, 20, 4c...
-        for (int i = 0; i < hex.length() - 1; i += 2) {
-
-            // grab the hex in pairs
-            String output = hex.substring(i, (i + 2));
-            // convert hex to decimal
-            int decimal = Integer.parseInt(output, 16);
-            // convert the decimal to character
-            sb.append((char) decimal);
-
-            temp.append(decimal);
+        int length = hex.length() / 2;
+        char[] chars = new char[length];
+        for (int i = 0, p = 0; i < length; i++, p += 2) {
+            int high = hexValue(hex.charAt(p));
+            int low = hexValue(hex.charAt(p + 1));
+            if ((high | low) < 0) {
+                throw new NumberFormatException("For input string: \"" + hex.substring(p, p + 2) + "\"");
+            }
+            chars[i] = (char) ((high << 4) | low);
         }
-
-        return sb.toString();
+        return new String(chars);
     }
 
     public static String convertStringToHex(String str) {
@@ -122,43 +175,51 @@ public class ByteUtils {
     }
 
     public static byte getXor(byte[] buff, int length) {
+        return xorChecksum(buff, 0, length);
+    }
 
-        byte temp = buff[0];
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
 
-        for (int i = 1; i < length; i++) {
-            temp ^= buff[i];
+    /**
+     * 64 位 FNV-1a 散列
+     */
+    public static long fnv1a(byte[] buff, int offset, int length) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h ^= buff[i] & 0xFF;
+            h *= FNV_PRIME;
         }
+        return h;
+    }
 
-        return temp;
+    /**
+     * 64 位 FNV-1a 散列，每个字符按一个单元计入；ASCII 字符串与其字节的散列相同
+     */
+    public static long fnv1a(char[] chars, int offset, int length) {
+        long h = FNV_OFFSET_BASIS;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            h ^= chars[i];
+            h *= FNV_PRIME;
+        }
+        return h;
     }
 
     public static String bytesToHexString(byte[] bArr) {
-        StringBuffer sb = new StringBuffer(bArr.length);
-        String sTmp;
-
-        for (int i = 0; i < bArr.length; i++) {
-            sTmp = Integer.toHexString(0xFF & bArr[i]);
-            if (sTmp.length() < 2)
-                sb.append(0);
-            sb.append(sTmp.toUpperCase());
-        }
+        return bytesToHexString(bArr, 0, bArr.length);
+    }
 
-        return sb.toString();
+    public static String bytesToHexString(byte[] bArr, int offset, int length) {
+        char[] chars = new char[length * 2];
+        toHexChars(bArr, offset, length, chars, 0);
+        return new String(chars);
     }
 
     /**
      * 将二进制转换成十六进制
      */
     public static String parseByte2HexStr(byte buf[]) {
-        StringBuffer sb = new StringBuffer();
-        for (int i = 0; i < buf.length; i++) {
-            String hex = Integer.toHexString(buf[i] & 0xFF);
-            if (hex.length() == 1) {
-                hex = '0' + hex;
-            }
-            sb.append(hex.toUpperCase());
-        }
-        return sb.toString();
+        return bytesToHexString(buf, 0, buf.length);
     }
 
     /**
@@ -168,12 +229,9 @@ public class ByteUtils {
         if (hexStr.length() < 1) {
             return null;
         }
-        byte[] result = new byte[hexStr.length() / 2];
-        for (int i = 0; i < hexStr.length() / 2; i++) {
-            int high = Integer.parseInt(hexStr.substring(i * 2, i * 2 + 1), 16);
-            int low = Integer.parseInt(hexStr.substring(i * 2 + 1, i * 2 + 2), 16);
-            result[i] = (byte) (high * 16 + low);
-        }
+        char[] chars = hexStr.toCharArray();
+        byte[] result = new byte[chars.length / 2];
+        parseHexChars(chars, 0, chars.length, result, 0);
         return result;
     }
 
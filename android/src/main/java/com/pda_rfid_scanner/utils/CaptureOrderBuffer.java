@@ -0,0 +1,108 @@
+package com.pda_rfid_scanner.utils;
+
+import java.util.PriorityQueue;
+
+/**
+ * 按采集时间重排事件
+ * <p>
+ * 条码与 RFID 在不同线程采集后再交给解码线程，到达顺序与采集顺序可能略有出入。
+ * 事件在缓冲区中停留 holdMicros 后按采集时间(相同时按加入顺序)依次发出；
+ * 晚于已发出事件到达的事件立即发出，不会阻塞后续事件。
+ * <p>
+ * 非线程安全，只应在解码线程中调用；{@link #getLateEvents()} 可在任意线程读取。
+ */
+public class CaptureOrderBuffer {
+    public static final long DEFAULT_HOLD_MICROS = 5000;
+
+    public interface Sink {
+        void send(Object event);
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final long captureMicros;
+        final long sequence;
+        final Object event;
+
+        Entry(long captureMicros, long sequence, Object event) {
+            this.captureMicros = captureMicros;
+            this.sequence = sequence;
+            this.event = event;
+        }
+
+        @Override
+        public int compareTo(Entry o) {
+            if (captureMicros != o.captureMicros) {
+                return captureMicros < o.captureMicros ? -1 : 1;
+            }
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>();
+    private final Sink sink;
+    private long holdMicros = DEFAULT_HOLD_MICROS;
+    private long sequence;
+    private long lastReleasedMicros = Long.MIN_VALUE;
+    // 只有解码线程写入，统计从平台线程读取
+    private volatile long lateEvents;
+
+    public CaptureOrderBuffer(Sink sink) {
+        this.sink = sink;
+    }
+
+    public void setHoldMicros(long holdMicros) {
+        this.holdMicros = Math.max(0, holdMicros);
+    }
+
+    public long getHoldMicros() {
+        return holdMicros;
+    }
+
+    public void add(Object event, long captureMicros) {
+        if (captureMicros < lastReleasedMicros) {
+            // 已有更晚采集的事件发出，无法再排到它前面
+            lateEvents++;
+            sink.send(event);
+            return;
+        }
+        queue.add(new Entry(captureMicros, sequence++, event));
+    }
+
+    /**
+     * 发出采集时间早于 nowMicros - holdMicros 的事件
+     *
+     * @return 下一个事件到期前还需等待的微秒数，缓冲区为空时为 -1
+     */
+    public long release(long nowMicros) {
+        long deadline = nowMicros - holdMicros;
+        Entry head;
+        while ((head = queue.peek()) != null && head.captureMicros <= deadline) {
+            queue.poll();
+            lastReleasedMicros = head.captureMicros;
+            sink.send(head.event);
+        }
+        return head == null ? -1 : head.captureMicros - deadline;
+    }
+
+    /**
+     * 立即按顺序发出全部事件
+     */
+    public void flush() {
+        Entry head;
+        while ((head = queue.poll()) != null) {
+            lastReleasedMicros = head.captureMicros;
+            sink.send(head.event);
+        }
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * @return 到达过晚、未能按顺序发出的事件数
+     */
+    public long getLateEvents() {
+        return lateEvents;
+    }
+}
@@ -0,0 +1,119 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+
+/**
+ * 回放 {@link RawCapture} 抓包文件
+ * <p>
+ * 作为 {@link SerialTransport} 交给 LFUtil 时，每条记录作为一次 read() 返回，
+ * 时间间隔按原始间隔除以 speed；speed &lt;= 0 时不等待。
+ * 命令行解码见 tools 模块的 CaptureReplayTool。
+ */
+public class CaptureReplay implements SerialTransport {
+    private final File file;
+    private final double speed;
+    private ReplayInputStream inputStream;
+
+    /**
+     * @param file  抓包文件
+     * @param speed 1 为原速，2 为两倍速，&lt;= 0 为不限速
+     */
+    public CaptureReplay(File file, double speed) {
+        this.file = file;
+        this.speed = speed;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        if (inputStream == null) {
+            inputStream = new ReplayInputStream(new RawCapture.Reader(file));
+        }
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (inputStream != null) {
+            inputStream.close();
+            inputStream = null;
+        }
+    }
+
+    @Override
+    public boolean isReadInterruptible() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "capture:" + file;
+    }
+
+    private class ReplayInputStream extends InputStream {
+        private final RawCapture.Reader reader;
+        private final long startNanos = System.nanoTime();
+        private int pos;
+        private boolean pending;
+        private boolean closed;
+
+        ReplayInputStream(RawCapture.Reader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (!closed) {
+                if (!pending) {
+                    if (!reader.next()) {
+                        return -1;
+                    }
+                    pending = true;
+                    pos = 0;
+                }
+                if (speed > 0) {
+                    long due = startNanos + (long) (reader.getOffsetNanos() / speed);
+                    long waitNanos = due - System.nanoTime();
+                    if (waitNanos > 0) {
+                        try {
+                            wait(waitNanos / 1000000L, (int) (waitNanos % 1000000L));
+                        } catch (InterruptedException e) {
+                            throw new InterruptedIOException();
+                        }
+                        continue;
+                    }
+                }
+                int n = Math.min(len, reader.getLength() - pos);
+                System.arraycopy(reader.getData(), pos, b, off, n);
+                pos += n;
+                if (pos == reader.getLength()) {
+                    pending = false;
+                }
+                return n;
+            }
+            return -1;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            closed = true;
+            notifyAll();
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.pda_rfid_scanner.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 设备命令串行队列
+ * <p>
+ * 串口开关、GPIO 上下电、扫描头开关等命令在一个后台线程上按提交顺序逐个执行，
+ * 调用线程只负责入队。命令执行完通过回调对象 R(插件中为 MethodChannel.Result)报告结果。
+ * <p>
+ * 合并：新命令与队尾尚未开始执行的命令属于同一设备(key 相同且不为 {@link #KEY_NONE})时，
+ * 以新命令替换队尾命令，被替换命令的回调并入新命令，执行时由 {@link Joiner} 合成一个回调，
+ * 所有调用方得到实际执行的那条命令的结果。快速开、关、开只执行最后一次；
+ * 只合并队尾，命令之间的相对顺序不变。
+ * <p>
+ * 方法可在任意线程调用。
+ */
+public class DeviceCommandQueue<R> {
+    /**
+     * 不参与合并的命令
+     */
+    public static final int KEY_NONE = 0;
+
+    public interface Command<R> {
+        void run(R result);
+    }
+
+    /**
+     * 把命令的回调(合并后可能有多个，元素可为 null)合成一个，在命令线程上调用
+     */
+    public interface Joiner<R> {
+        R join(List<R> results);
+    }
+
+    private static final class Entry<R> {
+        final int key;
+        Command<R> command;
+        final List<R> results = new ArrayList<>(1);
+
+        Entry(int key, Command<R> command, R result) {
+            this.key = key;
+            this.command = command;
+            this.results.add(result);
+        }
+    }
+
+    private final Joiner<R> joiner;
+    private final ExecutorService executor;
+    private final ArrayDeque<Entry<R>> pending = new ArrayDeque<>();
+    private final Runnable runNext = new Runnable() {
+        @Override
+        public void run() {
+            runNext();
+        }
+    };
+    private long executed;
+    private long coalesced;
+
+    public DeviceCommandQueue(final String threadName, Joiner<R> joiner) {
+        this.joiner = joiner;
+        // 空闲时不保留线程
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), runnable -> {
+                    Thread thread = new Thread(runnable, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        this.executor = executor;
+    }
+
+    /**
+     * 提交命令
+     *
+     * @param key    设备与操作，相同 key 的相邻待执行命令会合并，被替换的调用方收到最后一个命令的结果，
+     *               因此只应给结果类型相同的命令使用同一个 key；{@link #KEY_NONE} 不合并
+     * @param result 命令结束时的回调，可为 null
+     */
+    public void submit(int key, Command<R> command, R result) {
+        synchronized (this) {
+            Entry<R> tail = pending.peekLast();
+            if (key != KEY_NONE && tail != null && tail.key == key) {
+                tail.command = command;
+                tail.results.add(result);
+                coalesced++;
+                return;
+            }
+            pending.addLast(new Entry<>(key, command, result));
+        }
+        executor.execute(runNext);
+    }
+
+    /**
+     * @return 等待执行的命令数
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    public synchronized long getExecutedCount() {
+        return executed;
+    }
+
+    /**
+     * @return 被后续命令替换而没有执行的命令数
+     */
+    public synchronized long getCoalescedCount() {
+        return coalesced;
+    }
+
+    /**
+     * 等待已提交的命令执行完
+     *
+     * @return false 超时
+     */
+    public boolean awaitIdle(long timeoutMs) throws InterruptedException {
+        final Object done = new Object();
+        final boolean[] finished = new boolean[1];
+        submit(KEY_NONE, result -> {
+            synchronized (done) {
+                finished[0] = true;
+                done.notifyAll();
+            }
+        }, null);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        synchronized (done) {
+            while (!finished[0]) {
+                long waitNanos = deadline - System.nanoTime();
+                if (waitNanos <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(done, waitNanos);
+            }
+        }
+        return true;
+    }
+
+    private void runNext() {
+        Entry<R> entry;
+        synchronized (this) {
+            entry = pending.pollFirst();
+            if (entry == null) {
+                return;
+            }
+            executed++;
+        }
+        entry.command.run(joiner.join(entry.results));
+    }
+}
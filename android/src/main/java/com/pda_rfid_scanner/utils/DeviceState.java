@@ -0,0 +1,94 @@
+package com.pda_rfid_scanner.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 扫描头与 RFID 模块的运行状态
+ * <p>
+ * 各状态位放在一个 int 中整体原子更新，命令线程、广播接收线程、解码线程读到的
+ * 总是某次完整转换之后的状态，不会看到“RFID 已关但模式位未清”之类的中间状态。
+ * <p>
+ * 转换规则：进入 X 清除 X_STANDBY，进入 X_STANDBY 清除 X，关闭 X 同时清除两者。
+ */
+public class DeviceState {
+    public static final int BARCODE = 1;
+    public static final int RFID = 2;
+    public static final int BARCODE_STANDBY = 4;
+    public static final int RFID_STANDBY = 8;
+
+    private final AtomicInteger bits = new AtomicInteger();
+
+    public int get() {
+        return bits.get();
+    }
+
+    /**
+     * @return flags 中任一位已置
+     */
+    public boolean is(int flags) {
+        return (bits.get() & flags) != 0;
+    }
+
+    /**
+     * 打开设备
+     *
+     * @param device {@link #BARCODE} 或 {@link #RFID}
+     * @return 转换前的状态
+     */
+    public int start(int device) {
+        return update(standbyOf(device), device);
+    }
+
+    /**
+     * 设备转入待机
+     *
+     * @return 转换前的状态
+     */
+    public int standby(int device) {
+        return update(device, standbyOf(device));
+    }
+
+    /**
+     * 关闭设备，包括待机
+     *
+     * @return 转换前的状态
+     */
+    public int stop(int device) {
+        return update(device | standbyOf(device), 0);
+    }
+
+    /**
+     * 原子地清除 clear 位并置 set 位
+     *
+     * @return 转换前的状态
+     */
+    public int update(int clear, int set) {
+        while (true) {
+            int current = bits.get();
+            int next = (current & ~clear) | set;
+            if (bits.compareAndSet(current, next)) {
+                return current;
+            }
+        }
+    }
+
+    /**
+     * @return "barcode"、"rfid"、"dual"，都未运行时为 "unknown"
+     */
+    public String modeName() {
+        switch (bits.get() & (BARCODE | RFID)) {
+            case BARCODE:
+                return "barcode";
+            case RFID:
+                return "rfid";
+            case BARCODE | RFID:
+                return "dual";
+            default:
+                return "unknown";
+        }
+    }
+
+    private static int standbyOf(int device) {
+        return device << 2;
+    }
+}
@@ -0,0 +1,101 @@
+package com.pda_rfid_scanner.utils;
+
+import android.os.Handler;
+
+import java.util.ArrayList;
+
+/**
+ * 扫描事件批量发送
+ * <p>
+ * 批量模式下事件先缓存，数量达到 maxBatchSize 或第一条事件等待超过 maxLatencyMs
+ * 时一次性以 List 发出，减少平台通道往返。maxBatchSize &lt;= 1 时逐条直接发出。
+ * <p>
+ * 所有方法都必须在 handler 所在线程(平台主线程)调用。
+ */
+public class EventBatcher {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 32;
+    public static final long DEFAULT_MAX_LATENCY_MS = 16;
+
+    public interface Sink {
+        /**
+         * @param event 单条事件，或批量模式下的 List；List 在回调返回后会被清空复用，
+         *              接收方需同步处理(EventSink.success 会立即编码)
+         */
+        void send(Object event);
+    }
+
+    private final Handler handler;
+    private final Sink sink;
+    private final ArrayList<Object> pending = new ArrayList<>();
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+    private int maxBatchSize = 1;
+    private long maxLatencyMs = DEFAULT_MAX_LATENCY_MS;
+    private boolean closed = false;
+
+    public EventBatcher(Handler handler, Sink sink) {
+        this.handler = handler;
+        this.sink = sink;
+    }
+
+    /**
+     * @param maxBatchSize 每批最多事件数，&lt;= 1 关闭批量
+     * @param maxLatencyMs 一批中第一条事件最长等待时间
+     */
+    public void configure(int maxBatchSize, long maxLatencyMs) {
+        flush();
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyMs = Math.max(0, maxLatencyMs);
+        pending.ensureCapacity(Math.max(1, maxBatchSize));
+    }
+
+    public boolean isBatching() {
+        return maxBatchSize > 1;
+    }
+
+    public void add(Object event) {
+        if (closed) {
+            return;
+        }
+        if (!isBatching()) {
+            sink.send(event);
+            return;
+        }
+        pending.add(event);
+        if (pending.size() >= maxBatchSize) {
+            flush();
+        } else if (pending.size() == 1) {
+            handler.postDelayed(flushTask, maxLatencyMs);
+        }
+    }
+
+    /**
+     * 立即发出已缓存的事件
+     */
+    public void flush() {
+        handler.removeCallbacks(flushTask);
+        if (pending.isEmpty()) {
+            return;
+        }
+        try {
+            if (!closed) {
+                sink.send(pending);
+            }
+        } finally {
+            pending.clear();
+        }
+    }
+
+    /**
+     * 监听取消后调用，丢弃未发出的事件
+     */
+    public void close() {
+        closed = true;
+        handler.removeCallbacks(flushTask);
+        pending.clear();
+    }
+}
@@ -0,0 +1,120 @@
+package com.pda_rfid_scanner.utils;
+
+import android.os.Build;
+import android.system.ErrnoException;
+import android.system.Os;
+import android.system.OsConstants;
+import android.system.StructPollfd;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+
+/**
+ * poll(2) 等待串口可读，并带一个自唤醒管道，
+ * 使阻塞中的读线程可以被 close()/dispose() 立即唤醒。
+ * 需要 API 21+ (android.system.Os)。
+ */
+class FdPoller {
+    private static final byte[] WAKE_BYTE = {1};
+
+    private final StructPollfd[] pollFds = {new StructPollfd(), new StructPollfd()};
+    private final byte[] drainBuffer = new byte[16];
+    private FileDescriptor wakeRead;
+    private FileDescriptor wakeWrite;
+
+    static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP;
+    }
+
+    FdPoller() throws IOException {
+        try {
+            FileDescriptor[] pipe = Os.pipe();
+            wakeRead = pipe[0];
+            wakeWrite = pipe[1];
+        } catch (ErrnoException e) {
+            throw new IOException("pipe() failed: " + e.getMessage());
+        }
+        pollFds[1].fd = wakeRead;
+        pollFds[1].events = (short) OsConstants.POLLIN;
+    }
+
+    /**
+     * 串口挂断或 fd 失效，继续 poll 会立即返回同样的结果
+     */
+    static class HangupException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        HangupException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * 阻塞直到 fd 可读或被 wakeup() 唤醒
+     *
+     * @return true fd 可读，false 被唤醒或出错(调用方应重新检查状态)
+     * @throws HangupException 串口 POLLERR/POLLHUP/POLLNVAL
+     */
+    boolean await(FileDescriptor fd) throws IOException {
+        pollFds[0].fd = fd;
+        pollFds[0].events = (short) OsConstants.POLLIN;
+        pollFds[0].revents = 0;
+        pollFds[1].revents = 0;
+        try {
+            Os.poll(pollFds, -1);
+        } catch (ErrnoException e) {
+            if (e.errno == OsConstants.EINTR) {
+                return false;
+            }
+            throw new IOException("poll() failed: " + e.getMessage());
+        }
+        if (pollFds[1].revents != 0) {
+            drain();
+            return false;
+        }
+        int revents = pollFds[0].revents;
+        if ((revents & (OsConstants.POLLERR | OsConstants.POLLHUP | OsConstants.POLLNVAL)) != 0) {
+            throw new HangupException("serial port error, revents=" + revents);
+        }
+        return (revents & OsConstants.POLLIN) != 0;
+    }
+
+    /**
+     * 唤醒阻塞在 await() 中的线程
+     */
+    void wakeup() {
+        FileDescriptor fd = wakeWrite;
+        if (fd == null) {
+            return;
+        }
+        try {
+            Os.write(fd, WAKE_BYTE, 0, 1);
+        } catch (Exception ignored) {
+            // 管道已满时读线程必然会被唤醒
+        }
+    }
+
+    void close() {
+        closeQuietly(wakeWrite);
+        closeQuietly(wakeRead);
+        wakeWrite = null;
+        wakeRead = null;
+    }
+
+    private void drain() {
+        try {
+            Os.read(wakeRead, drainBuffer, 0, drainBuffer.length);
+        } catch (Exception ignored) {
+        }
+    }
+
+    private static void closeQuietly(FileDescriptor fd) {
+        if (fd == null) {
+            return;
+        }
+        try {
+            Os.close(fd);
+        } catch (ErrnoException ignored) {
+        }
+    }
+}
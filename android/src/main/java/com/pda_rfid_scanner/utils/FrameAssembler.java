@@ -0,0 +1,208 @@
+package com.pda_rfid_scanner.utils;
+
+/**
+ * 串口数据分帧器
+ * <p>
+ * 串口一次 read() 可能只读到半帧，也可能读到多帧或夹带干扰字节。
+ * 数据先写入固定大小的环形缓冲区，再按 STX(0x02) 开头、ETX(0x03/0x07) 结尾
+ * (或第 19 字节为 '#' 的格式) 切出完整帧，通过 {@link FrameListener} 回调。
+ * FDX/HDX 帧中的两个二进制校验字节不参与帧头帧尾判断。
+ * {@link #PROFILE_STX_ETX} 只按 STX/ETX 切分，用于帧内没有二进制字段的模块。
+ * <p>
+ * 非线程安全，只应在读线程中调用。
+ */
+public class FrameAssembler {
+    public static final byte STX = 0x02;
+    public static final byte ETX = 0x03;
+    public static final byte ETX_ALT = 0x07;
+    /**
+     * '#' 结尾格式中 '#' 相对 STX 的位置
+     */
+    public static final int HASH_OFFSET = 19;
+    /**
+     * FDX/HDX 帧: STX + 26 字节 ASCII + 校验字节 + 校验取反 + ETX
+     */
+    public static final int FDX_FRAME_LENGTH = 30;
+    /**
+     * 校验字节为二进制值，可能恰好等于 STX/ETX，分帧时跳过
+     */
+    public static final int FDX_CHECKSUM_OFFSET = 27;
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 64;
+
+    /**
+     * 低频读头：FDX/HDX 帧与 '#' 结尾格式
+     */
+    public static final int PROFILE_LF = 0;
+    /**
+     * 仅 STX ... ETX，帧内所有字节都参与帧尾判断
+     */
+    public static final int PROFILE_STX_ETX = 1;
+
+    private static final int RING_CAPACITY = 256;
+    private static final int RING_MASK = RING_CAPACITY - 1;
+
+    public interface FrameListener {
+        /**
+         * @param frame  完整帧，缓冲区会被复用，回调返回后内容失效
+         * @param length 帧长度(含 STX/ETX)
+         */
+        void onFrame(byte[] frame, int length);
+    }
+
+    private final byte[] ring = new byte[RING_CAPACITY];
+    private final byte[] frame;
+    private final int maxFrameLength;
+    private final boolean lfFormats;
+    private final FrameListener listener;
+    private int start;
+    private int size;
+    private int scanned;
+    private boolean synced;
+
+    private long frameCount;
+    private long discardedBytes;
+
+    public FrameAssembler(FrameListener listener) {
+        this(listener, DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    public FrameAssembler(FrameListener listener, int maxFrameLength) {
+        this(listener, maxFrameLength, PROFILE_LF);
+    }
+
+    /**
+     * @param profile PROFILE_*
+     */
+    public FrameAssembler(FrameListener listener, int maxFrameLength, int profile) {
+        if (maxFrameLength < 2 || maxFrameLength > RING_CAPACITY / 2) {
+            throw new IllegalArgumentException("maxFrameLength out of range: " + maxFrameLength);
+        }
+        this.listener = listener;
+        this.maxFrameLength = maxFrameLength;
+        this.lfFormats = profile == PROFILE_LF;
+        this.frame = new byte[maxFrameLength];
+    }
+
+    /**
+     * 写入一次读取到的数据，凑齐的帧会立即回调
+     */
+    public void feed(byte[] data, int offset, int length) {
+        while (length > 0) {
+            int n = Math.min(length, RING_CAPACITY - size);
+            int tail = (start + size) & RING_MASK;
+            int first = Math.min(n, RING_CAPACITY - tail);
+            System.arraycopy(data, offset, ring, tail, first);
+            if (n > first) {
+                System.arraycopy(data, offset + first, ring, 0, n - first);
+            }
+            size += n;
+            offset += n;
+            length -= n;
+            process();
+        }
+    }
+
+    /**
+     * 丢弃未凑齐的数据，串口重新打开时调用
+     */
+    public void reset() {
+        start = 0;
+        size = 0;
+        scanned = 0;
+        synced = false;
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getDiscardedBytes() {
+        return discardedBytes;
+    }
+
+    private void process() {
+        while (size > 0) {
+            if (!synced && !syncToStx()) {
+                return;
+            }
+            int frameLength = scanForEnd();
+            if (frameLength < 0) {
+                return;
+            }
+            if (frameLength > 0) {
+                emit(frameLength);
+            }
+        }
+    }
+
+    /**
+     * 丢弃 STX 之前的干扰字节
+     *
+     * @return true 缓冲区起始为 STX
+     */
+    private boolean syncToStx() {
+        for (int i = 0; i < size; i++) {
+            if (ring[(start + i) & RING_MASK] == STX) {
+                discard(i);
+                synced = true;
+                scanned = 1;
+                return true;
+            }
+        }
+        discard(size);
+        return false;
+    }
+
+    /**
+     * @return 帧长度; 0 表示丢弃了无效帧头需重新同步; -1 表示数据不足
+     */
+    private int scanForEnd() {
+        for (; scanned < size; scanned++) {
+            if (lfFormats && (scanned == FDX_CHECKSUM_OFFSET || scanned == FDX_CHECKSUM_OFFSET + 1)) {
+                continue;
+            }
+            byte b = ring[(start + scanned) & RING_MASK];
+            if (b == ETX || b == ETX_ALT || (lfFormats && b == '#' && scanned == HASH_OFFSET)) {
+                return scanned + 1;
+            }
+            if (b == STX) {
+                // 上一帧被截断，从新的 STX 开始
+                discard(scanned);
+                scanned = 0;
+                continue;
+            }
+            if (scanned + 1 >= maxFrameLength) {
+                // 超长仍无帧尾，视 STX 为干扰字节
+                discard(1);
+                synced = false;
+                return 0;
+            }
+        }
+        return -1;
+    }
+
+    private void emit(int length) {
+        int first = Math.min(length, RING_CAPACITY - start);
+        System.arraycopy(ring, start, frame, 0, first);
+        if (length > first) {
+            System.arraycopy(ring, 0, frame, first, length - first);
+        }
+        start = (start + length) & RING_MASK;
+        size -= length;
+        scanned = 0;
+        synced = false;
+        frameCount++;
+        if (listener != null) {
+            listener.onFrame(frame, length);
+        }
+    }
+
+    private void discard(int count) {
+        if (count <= 0) {
+            return;
+        }
+        start = (start + count) & RING_MASK;
+        size -= count;
+        discardedBytes += count;
+    }
+}
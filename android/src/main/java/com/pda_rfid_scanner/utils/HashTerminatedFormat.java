@@ -0,0 +1,48 @@
+package com.pda_rfid_scanner.utils;
+
+/**
+ * 第 19 字节为 '#' 的 ASCII 格式：STX、格式字符、15 位 ASCII 卡号、两个空格、'#'，
+ * 其后可带回车换行。该格式不带校验和。
+ * <p>
+ * 与原实现一致只检查第 19 字节，不要求第 0 字节为 STX。
+ */
+public final class HashTerminatedFormat implements TagFormat {
+    public static final HashTerminatedFormat INSTANCE = new HashTerminatedFormat();
+
+    private HashTerminatedFormat() {
+    }
+
+    @Override
+    public int getFormat() {
+        return TagDecoder.FORMAT_ASCII;
+    }
+
+    @Override
+    public String getName() {
+        return "ASCII";
+    }
+
+    @Override
+    public int getStartByte() {
+        return ANY_START_BYTE;
+    }
+
+    @Override
+    public int getMinLength() {
+        return FrameAssembler.HASH_OFFSET + 1;
+    }
+
+    @Override
+    public int getMaxLength() {
+        return TagDecoderRegistry.MAX_FRAME_LENGTH;
+    }
+
+    @Override
+    public int decode(byte[] frame, int length, boolean verifyChecksum, TagDecoder out) {
+        if (frame[FrameAssembler.HASH_OFFSET] != '#') {
+            return NO_MATCH;
+        }
+        out.decodeAscii(frame);
+        return ACCEPT;
+    }
+}
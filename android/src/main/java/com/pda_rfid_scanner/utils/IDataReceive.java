@@ -4,7 +4,7 @@ public interface IDataReceive {
     /**
      * 获取刷卡数据
      * 
-     * @param data 刷卡数据0x36开头0x19结尾
+     * @param data 一帧完整的刷卡数据，由 {@link FrameAssembler} 切分，0x02开头0x03/0x07(或'#')结尾
      */
     public void onLFDataReceived(byte[] data);
 }
@@ -0,0 +1,116 @@
+package com.pda_rfid_scanner.utils;
+
+/**
+ * ISO 11784/11785 FDX-B 与 HDX 标签
+ * <p>
+ * 读头把空中接口的 64 位识别码(已由读头做 CRC-CCITT 校验)转成 30 字节的 ASCII 帧：
+ * <pre>
+ *  0      STX
+ *  1..10  国家识别码，10 位十六进制，低位在前
+ * 11..14  国家代码，低位在前
+ * 15      数据块/动物标志
+ * 16..26  保留
+ * 27      1..26 的异或校验
+ * 28      校验取反
+ * 29      ETX：0x03 为 FDX-B，0x07 为 HDX
+ * </pre>
+ * 校验两个校验字节，并按 ISO 11784 检查取值范围：识别码 38 位，国家代码 10 位。
+ * 卡号输出与 {@link TagDecoder#decode} 一致。
+ * <p>
+ * 与原实现一样容忍帧前的干扰字节和帧后的回车换行：在最长 64 字节的数据中查找
+ * 相距 29 字节的 STX 与本格式的 ETX，不要求 STX 位于第 0 字节。
+ */
+public final class Iso11784Format implements TagFormat {
+    public static final Iso11784Format FDX_B = new Iso11784Format(TagDecoder.FORMAT_FDX, "FDX-B", FrameAssembler.ETX);
+    public static final Iso11784Format HDX = new Iso11784Format(TagDecoder.FORMAT_HDX, "HDX", FrameAssembler.ETX_ALT);
+
+    public static final long MAX_NATIONAL_ID = (1L << 38) - 1;
+    public static final int MAX_COUNTRY_CODE = (1 << 10) - 1;
+
+    private static final int FRAME_LENGTH = FrameAssembler.FDX_FRAME_LENGTH;
+    private static final int CHECKSUM_OFFSET = FrameAssembler.FDX_CHECKSUM_OFFSET;
+    private static final int NATIONAL_ID_NIBBLES = 10;
+    private static final int COUNTRY_NIBBLES = 3;
+
+    private final int format;
+    private final String name;
+    private final byte etx;
+
+    private Iso11784Format(int format, String name, byte etx) {
+        this.format = format;
+        this.name = name;
+        this.etx = etx;
+    }
+
+    @Override
+    public int getFormat() {
+        return format;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int getStartByte() {
+        return ANY_START_BYTE;
+    }
+
+    @Override
+    public int getMinLength() {
+        return FRAME_LENGTH;
+    }
+
+    @Override
+    public int getMaxLength() {
+        return TagDecoderRegistry.MAX_FRAME_LENGTH;
+    }
+
+    @Override
+    public int decode(byte[] frame, int length, boolean verifyChecksum, TagDecoder out) {
+        // 校验字节可能恰为 STX/ETX，逐个位置尝试，优先返回解码成功的位置
+        int rejected = NO_MATCH;
+        for (int start = 0; start + FRAME_LENGTH <= length; start++) {
+            if (frame[start] != FrameAssembler.STX || frame[start + FRAME_LENGTH - 1] != etx) {
+                continue;
+            }
+            int status = decodeAt(frame, start, verifyChecksum, out);
+            if (status == ACCEPT) {
+                return ACCEPT;
+            }
+            if (rejected == NO_MATCH) {
+                rejected = status;
+            }
+        }
+        return rejected;
+    }
+
+    private int decodeAt(byte[] frame, int start, boolean verifyChecksum, TagDecoder out) {
+        if (verifyChecksum) {
+            byte xor = ByteUtils.xorChecksum(frame, start + 1, CHECKSUM_OFFSET - 1);
+            if (frame[start + CHECKSUM_OFFSET] != xor || frame[start + CHECKSUM_OFFSET + 1] != (byte) ~xor) {
+                return BAD_CHECKSUM;
+            }
+        }
+        for (int i = start + 1; i < start + CHECKSUM_OFFSET; i++) {
+            if (ByteUtils.hexValue(frame[i]) < 0) {
+                return MALFORMED;
+            }
+        }
+        // 低位在前
+        long id = 0;
+        for (int i = start + NATIONAL_ID_NIBBLES; i > start; i--) {
+            id = (id << 4) | ByteUtils.hexValue(frame[i]);
+        }
+        int country = 0;
+        for (int i = start + NATIONAL_ID_NIBBLES + COUNTRY_NIBBLES; i > start + NATIONAL_ID_NIBBLES; i--) {
+            country = (country << 4) | ByteUtils.hexValue(frame[i]);
+        }
+        if (id > MAX_NATIONAL_ID || country > MAX_COUNTRY_CODE) {
+            return MALFORMED;
+        }
+        out.setNumericId(format, country, id);
+        return ACCEPT;
+    }
+}
@@ -2,59 +2,188 @@ package com.pda_rfid_scanner.utils;
 
 import android.util.Log;
 
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.InvalidParameterException;
 
-import android_serialport_api.SerialPort;
-import android_serialport_api.SerialPortTool;
-
 /**
  * 低频卡模块操作帮助类
+ * <p>
+ * 默认读取设备串口 /dev/ttyS3，也可传入其他 {@link SerialTransport}
+ * (伪终端、回放文件、{@link LoadGenerator})在普通 JVM 上运行同一条读取流水线。
+ * <p>
+ * 创建时不打开串口也不启动线程；读线程在 open() 时启动，close()/dispose() 时退出。
  */
 public class LFUtil {
-    private static final String PATH = "/dev/ttyS3";
-    private static final int BAUTRATE = 9600;
+    private static final String TAG = "LFUtil";
+    private static final String PATH = ReaderConfig.DEFAULT_PATH;
+    private static final int BAUTRATE = ReaderConfig.DEFAULT_BAUD_RATE;
+    private static final int POLL_INTERVAL_MS = 20;
+
+    /**
+     * 读模式：轮询 available() 并 sleep(20)，兼容旧设备
+     */
+    public static final int READ_MODE_POLLING = 0;
+    /**
+     * 读模式：poll(2) 阻塞等待串口数据，有数据才唤醒 (API 21+)
+     */
+    public static final int READ_MODE_EVENT = 1;
 
-    private final static Object lockObj = new Object();
-    protected SerialPortTool serialPortTool;
-    protected SerialPort mSerialPort;
-    private InputStream mInputStream;
+    private final SerialTransport mTransport;
+    private final int mProfile;
+    private final int mMaxFrameLength;
+    private volatile InputStream mInputStream;
     private ReadThread mReadThread;
+    private FdPoller mPoller;
     private IDataReceive iDataReceive;
-    private boolean mIsOpen = false;
-    private boolean mIsRunning = false;
+    private volatile int mReadMode;
+    private volatile RawCapture mCapture;
+    private volatile boolean mPaused = false;
+    private volatile boolean mIsOpen = false;
 
-    private class ReadThread extends Thread {
+    private class ReadThread extends Thread implements FrameAssembler.FrameListener {
+        private final byte[] buffer = new byte[64];
+        private final FrameAssembler frameAssembler = new FrameAssembler(this, mMaxFrameLength, mProfile);
+        private InputStream lastInputStream;
+        private long lastDiscardedBytes;
+        private boolean pausedSinceLastFrame;
+        private boolean readFailed;
+        private volatile boolean running = true;
+
+        ReadThread() {
+            super("LFUtil-ReadThread");
+        }
 
         @Override
         public void run() {
-            super.run();
-            while (mIsRunning) {
-                int size = 0;
+            while (running) {
+                InputStream in;
                 try {
-                    // Log.e("ReadThread", "开始读串口数据..." + (mInputStream == null ?
-                    // "mInputStream=null" : ""));
-                    if (mInputStream != null && mInputStream.available() > 0) {
-                        byte[] buffer = new byte[64];
-                        size = mInputStream.read(buffer, 0, buffer.length);
-                        // Log.e("ReadThread", "读串口数据 len=" + size);
-                        if (size > 0) {
-                            if (iDataReceive != null) {
-                                byte[] data = new byte[size];
-                                System.arraycopy(buffer, 0, data, 0, size);
-                                Log.e("ReadThread STRING IS", ByteUtils.bytesToHexString(data));
-                                iDataReceive.onLFDataReceived(data);
-                            }
+                    in = awaitInputStream(this);
+                } catch (InterruptedException e) {
+                    break;
+                }
+                if (in == null) {
+                    break;
+                }
+                if (in != lastInputStream) {
+                    // 新打开的串口，丢弃上次残留的半帧
+                    frameAssembler.reset();
+                    lastInputStream = in;
+                }
+                try {
+                    if (!awaitReadable(in)) {
+                        continue;
+                    }
+                    int size = in.read(buffer, 0, buffer.length);
+                    if (size < 0) {
+                        onEndOfStream(in);
+                    } else if (size > 0) {
+                        if (mPaused) {
+                            // 待机时串口保持打开，读到的数据直接丢弃
+                            pausedSinceLastFrame = true;
+                            continue;
+                        }
+                        if (pausedSinceLastFrame) {
+                            frameAssembler.reset();
+                            pausedSinceLastFrame = false;
+                        }
+                        RawCapture capture = mCapture;
+                        if (capture != null) {
+                            capture.record(buffer, 0, size, ScanEventCodec.monotonicNanos());
+                        }
+                        readFailed = false;
+                        ScannerMetrics.bytesRead.add(size);
+                        frameAssembler.feed(buffer, 0, size);
+                        long discarded = frameAssembler.getDiscardedBytes();
+                        if (discarded != lastDiscardedBytes) {
+                            ScannerMetrics.framingDiscardedBytes.add(discarded - lastDiscardedBytes);
+                            lastDiscardedBytes = discarded;
                         }
                     }
-                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    break;
+                } catch (FdPoller.HangupException e) {
+                    // 串口挂断后 poll 会立即返回，按读完处理，等待重新 open()
+                    if (running && in == mInputStream) {
+                        Log.e(TAG, mTransport + " hung up: " + e.getMessage());
+                        onEndOfStream(in);
+                    }
                 } catch (Exception e) {
-                    e.printStackTrace();
+                    // close() 期间流被关闭属于正常退出路径
+                    if (!running || in != mInputStream) {
+                        continue;
+                    }
+                    if (!readFailed) {
+                        Log.e(TAG, "read " + mTransport + " failed", e);
+                        readFailed = true;
+                    }
+                    // 持续出错时退避，避免空转
+                    try {
+                        Thread.sleep(POLL_INTERVAL_MS);
+                    } catch (InterruptedException ie) {
+                        break;
+                    }
                 }
             }
             // Log.e("ReadThread", "线程退出!!!");
         }
+
+        @Override
+        public void onFrame(byte[] frame, int length) {
+            ScannerMetrics.framesAssembled.increment();
+            if (iDataReceive != null) {
+                byte[] data = new byte[length];
+                System.arraycopy(frame, 0, data, 0, length);
+                iDataReceive.onLFDataReceived(data);
+            }
+        }
+    }
+
+    /**
+     * 数据源读完后挂起读线程，直到重新 open() 或 close()
+     */
+    private synchronized InputStream awaitInputStream(ReadThread thread) throws InterruptedException {
+        while (thread.running && mInputStream == null) {
+            wait();
+        }
+        return thread.running ? mInputStream : null;
+    }
+
+    /**
+     * 回放文件等数据源读完，关闭数据源并挂起读线程，重新 open() 时从头打开
+     */
+    private synchronized void onEndOfStream(InputStream in) {
+        if (mInputStream != in) {
+            return;
+        }
+        mInputStream = null;
+        try {
+            mTransport.close();
+        } catch (IOException e) {
+            Log.w(TAG, "close after end of stream failed: " + e.getMessage());
+        } finally {
+            mIsOpen = false;
+        }
+    }
+
+    /**
+     * @return true 串口有数据可读
+     */
+    private boolean awaitReadable(InputStream in) throws Exception {
+        if (mTransport.isReadInterruptible()) {
+            return true;
+        }
+        FdPoller poller = mPoller;
+        if (mReadMode == READ_MODE_EVENT && poller != null && in instanceof FileInputStream) {
+            return poller.await(((FileInputStream) in).getFD());
+        }
+        if (in.available() > 0) {
+            return true;
+        }
+        Thread.sleep(POLL_INTERVAL_MS);
+        return false;
     }
 
     /**
@@ -63,17 +192,113 @@ public class LFUtil {
      * @param iDataReceive 数据回调方法
      */
     public LFUtil(IDataReceive iDataReceive) {
+        this(iDataReceive, FdPoller.isSupported() ? READ_MODE_EVENT : READ_MODE_POLLING);
+    }
 
-        if (mSerialPort == null) {
-            serialPortTool = new SerialPortTool();
-            /* Create a receiving thread */
-            if (mReadThread == null) {
-                mIsRunning = true;
-                mReadThread = new ReadThread();
-                mReadThread.start();
+    /**
+     * 1.创建低频帮助对象
+     *
+     * @param iDataReceive 数据回调方法
+     * @param readMode     {@link #READ_MODE_EVENT} 或 {@link #READ_MODE_POLLING}
+     */
+    public LFUtil(IDataReceive iDataReceive, int readMode) {
+        this(iDataReceive, new SerialPortTransport(PATH, BAUTRATE), readMode);
+    }
+
+    /**
+     * 1.创建低频帮助对象
+     *
+     * @param iDataReceive 数据回调方法
+     * @param transport    串口数据来源
+     */
+    public LFUtil(IDataReceive iDataReceive, SerialTransport transport) {
+        this(iDataReceive, transport, FdPoller.isSupported() ? READ_MODE_EVENT : READ_MODE_POLLING);
+    }
+
+    /**
+     * 1.创建低频帮助对象
+     *
+     * @param iDataReceive 数据回调方法
+     * @param transport    串口数据来源
+     * @param readMode     {@link #READ_MODE_EVENT} 或 {@link #READ_MODE_POLLING}
+     */
+    public LFUtil(IDataReceive iDataReceive, SerialTransport transport, int readMode) {
+        this(iDataReceive, transport, readMode, FrameAssembler.PROFILE_LF, FrameAssembler.DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * 1.按配置创建低频帮助对象
+     *
+     * @param iDataReceive 数据回调方法
+     * @param config       串口路径、波特率与分帧方式
+     */
+    public LFUtil(IDataReceive iDataReceive, ReaderConfig config) {
+        this(iDataReceive, config.createTransport(),
+                FdPoller.isSupported() ? READ_MODE_EVENT : READ_MODE_POLLING,
+                config.getProfile(), config.getMaxFrameLength());
+    }
+
+    private LFUtil(IDataReceive iDataReceive, SerialTransport transport, int readMode,
+                   int profile, int maxFrameLength) {
+        this.iDataReceive = iDataReceive;
+        this.mTransport = transport;
+        this.mProfile = profile;
+        this.mMaxFrameLength = maxFrameLength;
+        // poll 管道在 open() 时才创建
+        this.mReadMode = readMode == READ_MODE_EVENT && FdPoller.isSupported() ? READ_MODE_EVENT : READ_MODE_POLLING;
+    }
+
+    public SerialTransport getTransport() {
+        return mTransport;
+    }
+
+    /**
+     * 切换读模式，设备不支持 poll 时退回 {@link #READ_MODE_POLLING}
+     */
+    public synchronized void setReadMode(int readMode) {
+        if (readMode == READ_MODE_EVENT && FdPoller.isSupported()) {
+            if (mPoller == null) {
+                try {
+                    mPoller = new FdPoller();
+                } catch (IOException e) {
+                    Log.e(TAG, "poll unavailable, fallback to polling: " + e.getMessage());
+                    mReadMode = READ_MODE_POLLING;
+                    return;
+                }
+            }
+            mReadMode = READ_MODE_EVENT;
+        } else {
+            mReadMode = READ_MODE_POLLING;
+            if (mPoller != null) {
+                mPoller.wakeup();
             }
         }
-        this.iDataReceive = iDataReceive;
+    }
+
+    public int getReadMode() {
+        return mReadMode;
+    }
+
+    /**
+     * 暂停/恢复回调，串口与模块电源保持不变，暂停期间的数据被丢弃
+     */
+    public void setPaused(boolean paused) {
+        mPaused = paused;
+    }
+
+    public boolean isPaused() {
+        return mPaused;
+    }
+
+    /**
+     * 记录每次串口读取的原始字节，null 关闭
+     */
+    public void setCapture(RawCapture capture) {
+        mCapture = capture;
+    }
+
+    public RawCapture getCapture() {
+        return mCapture;
     }
 
     /**
@@ -104,47 +329,102 @@ public class LFUtil {
     public synchronized boolean open() throws Exception {
         boolean bRet = false;
 
-        if (serialPortTool == null) {
-            synchronized (lockObj) {
-                if (serialPortTool == null)
-                    serialPortTool = new SerialPortTool();
-            }
-        }
         if (!mIsOpen) {
-            mSerialPort = serialPortTool.getSerialPort(PATH, BAUTRATE);
-            mInputStream = mSerialPort.getInputStream();
+            mTransport.open();
+            mInputStream = mTransport.getInputStream();
             bRet = mIsOpen = true;
+            notifyAll();
+        }
+        if (mReadThread == null) {
+            if (mReadMode == READ_MODE_EVENT && mPoller == null) {
+                setReadMode(READ_MODE_EVENT);
+            }
+            /* Create a receiving thread */
+            mReadThread = new ReadThread();
+            mReadThread.start();
         }
         return bRet;
     }
 
     /**
-     * 5.关闭模块
+     * 5.关闭模块，读线程退出
      */
-    public synchronized void close() throws IOException {
-        if (mInputStream != null) {// 关闭输出流
-            mInputStream.close();
-            mInputStream = null;
-        }
-        if (serialPortTool != null) {
-            serialPortTool.closeSerialPort();
+    public void close() throws IOException {
+        ReadThread readThread;
+        synchronized (this) {
+            readThread = stopReadThreadLocked();
+            // 先唤醒阻塞在 poll 中的读线程，再关闭流
+            if (mPoller != null) {
+                mPoller.wakeup();
+            }
+            try {
+                mTransport.close();
+            } finally {
+                mIsOpen = false;
+            }
         }
-        mIsOpen = false;
+        join(readThread);
     }
 
     /**
      * 6.关闭模块&释放资源
      */
     public void dispose() {
-        if (mReadThread != null) {
-            mIsRunning = false;
-            mReadThread.interrupt();
-            mReadThread = null;
+        ReadThread readThread;
+        synchronized (this) {
+            readThread = stopReadThreadLocked();
+            if (mPoller != null) {
+                mPoller.wakeup();
+            }
+        }
+        join(readThread);
+        synchronized (this) {
+            if (mIsOpen) {
+                try {
+                    mTransport.close();
+                } catch (IOException e) {
+                    Log.w(TAG, "close " + mTransport + " failed: " + e.getMessage());
+                }
+            }
+            mIsOpen = false;
+            if (mPoller != null) {
+                mPoller.close();
+                mPoller = null;
+            }
+        }
+    }
+
+    /**
+     * @return 读线程是否在运行
+     */
+    public synchronized boolean isReading() {
+        return mReadThread != null;
+    }
+
+    private ReadThread stopReadThreadLocked() {
+        ReadThread readThread = mReadThread;
+        mReadThread = null;
+        mInputStream = null;
+        if (readThread != null) {
+            readThread.running = false;
+        }
+        notifyAll();
+        return readThread;
+    }
+
+    /**
+     * 在锁外等待读线程退出，读线程可能正等待本对象的锁
+     */
+    private static void join(ReadThread readThread) {
+        if (readThread == null || readThread == Thread.currentThread()) {
+            return;
         }
-        if (mIsOpen && serialPortTool != null) {
-            serialPortTool.closeSerialPort();
+        readThread.interrupt();
+        try {
+            readThread.join(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        serialPortTool = null;
     }
 
     /**
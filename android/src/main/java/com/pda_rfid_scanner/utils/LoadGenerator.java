@@ -0,0 +1,218 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Random;
+
+/**
+ * 合成 FDX/HDX 帧的压测数据源
+ * <p>
+ * 按设定帧率产生 30 字节帧，并随机切成 1..maxChunk 字节分多次 read() 返回，
+ * 以覆盖分帧逻辑。第 i 帧的国家识别码为 firstId + i，
+ * {@link #getScheduledNanos(long)} 返回该帧的计划到达时间(System.nanoTime)，
+ * 接收方据此计算端到端延迟；读线程跟不上时延迟随积压增长。
+ * <p>
+ * 命令行工具见 tools 模块的 LoadGeneratorTool。
+ */
+public class LoadGenerator implements SerialTransport {
+    public static final int FORMAT_FDX = 1;
+    /**
+     * HDX 读头帧结构相同，以 0x07 结尾
+     */
+    public static final int FORMAT_HDX = 2;
+    /**
+     * FDX 与 HDX 交替
+     */
+    public static final int FORMAT_MIXED = 3;
+
+    private static final int HISTORY = 1 << 16;
+
+    private final int framesPerSecond;
+    private final long frameCount;
+    private final int format;
+    private final long[] scheduledNanos = new long[HISTORY];
+    private int countryCode = 999;
+    private long firstId = 100000000000L;
+    private int maxChunk = 16;
+    private long seed = 1;
+    private volatile long sentCount;
+    private GeneratorInputStream inputStream;
+
+    /**
+     * @param framesPerSecond 帧率，&lt;= 0 表示不限速
+     * @param frameCount      总帧数，&lt;= 0 表示不限
+     * @param format          FORMAT_*
+     */
+    public LoadGenerator(int framesPerSecond, long frameCount, int format) {
+        this.framesPerSecond = framesPerSecond;
+        this.frameCount = frameCount;
+        this.format = format;
+    }
+
+    public void setCountryCode(int countryCode) {
+        this.countryCode = countryCode;
+    }
+
+    public void setFirstId(long firstId) {
+        this.firstId = firstId;
+    }
+
+    public long getFirstId() {
+        return firstId;
+    }
+
+    /**
+     * @param maxChunk 每次 read() 最多返回的字节数，1 即逐字节
+     */
+    public void setMaxChunk(int maxChunk) {
+        this.maxChunk = Math.max(1, maxChunk);
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @return 已完整发出的帧数
+     */
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    /**
+     * @param nationalId 解码得到的国家识别码
+     * @return 该帧的计划到达时间，超出最近 65536 帧的记录时结果无意义
+     */
+    public long getScheduledNanos(long nationalId) {
+        return scheduledNanos[(int) ((nationalId - firstId) & (HISTORY - 1))];
+    }
+
+    @Override
+    public synchronized void open() {
+        if (inputStream == null) {
+            sentCount = 0;
+            inputStream = new GeneratorInputStream();
+        }
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (inputStream != null) {
+            inputStream.close();
+            inputStream = null;
+        }
+    }
+
+    @Override
+    public boolean isReadInterruptible() {
+        return true;
+    }
+
+    /**
+     * 生成一帧 FDX/HDX 数据
+     *
+     * @param nationalId  国家识别码，10 位十六进制
+     * @param countryCode 国家代码，3 位十六进制
+     * @param etx         结束符 0x03(FDX) 或 0x07(HDX)
+     */
+    public static byte[] buildFrame(long nationalId, int countryCode, byte etx) {
+        byte[] frame = new byte[FrameAssembler.FDX_FRAME_LENGTH];
+        frame[0] = FrameAssembler.STX;
+        // 低位在前
+        for (int i = 0; i < 10; i++) {
+            frame[1 + i] = hexDigit((int) (nationalId >>> (4 * i)));
+        }
+        for (int i = 0; i < 4; i++) {
+            frame[11 + i] = hexDigit(countryCode >>> (4 * i));
+        }
+        // 数据块/动物标志及保留字段
+        frame[15] = '1';
+        for (int i = 16; i < FrameAssembler.FDX_CHECKSUM_OFFSET; i++) {
+            frame[i] = '0';
+        }
+        byte xor = ByteUtils.xorChecksum(frame, 1, FrameAssembler.FDX_CHECKSUM_OFFSET - 1);
+        frame[FrameAssembler.FDX_CHECKSUM_OFFSET] = xor;
+        frame[FrameAssembler.FDX_CHECKSUM_OFFSET + 1] = (byte) ~xor;
+        frame[FrameAssembler.FDX_FRAME_LENGTH - 1] = etx;
+        return frame;
+    }
+
+    private static byte hexDigit(int v) {
+        return (byte) "0123456789ABCDEF".charAt(v & 0xF);
+    }
+
+    private class GeneratorInputStream extends InputStream {
+        private final long intervalNanos = framesPerSecond > 0 ? 1000000000L / framesPerSecond : 0;
+        private final long startNanos = System.nanoTime();
+        private final Random random = new Random(seed);
+        private byte[] frame;
+        private int pos;
+        private long index;
+        private boolean closed;
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (!closed) {
+                if (frame != null && pos < frame.length) {
+                    int n = Math.min(Math.min(len, frame.length - pos), 1 + random.nextInt(maxChunk));
+                    System.arraycopy(frame, pos, b, off, n);
+                    pos += n;
+                    if (pos == frame.length) {
+                        sentCount++;
+                    }
+                    return n;
+                }
+                if (frameCount > 0 && index >= frameCount) {
+                    return -1;
+                }
+                long due = startNanos + index * intervalNanos;
+                long waitNanos = due - System.nanoTime();
+                if (waitNanos > 0) {
+                    try {
+                        wait(waitNanos / 1000000L, (int) (waitNanos % 1000000L));
+                    } catch (InterruptedException e) {
+                        throw new InterruptedIOException();
+                    }
+                    continue;
+                }
+                nextFrame(intervalNanos > 0 ? due : System.nanoTime());
+            }
+            return -1;
+        }
+
+        private void nextFrame(long scheduled) {
+            long id = firstId + index;
+            boolean hdx = format == FORMAT_HDX || (format == FORMAT_MIXED && (index & 1) == 1);
+            frame = buildFrame(id, countryCode, hdx ? FrameAssembler.ETX_ALT : FrameAssembler.ETX);
+            scheduledNanos[(int) (index & (HISTORY - 1))] = scheduled;
+            pos = 0;
+            index++;
+        }
+
+        @Override
+        public synchronized int available() {
+            return frame == null ? 0 : frame.length - pos;
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            notifyAll();
+        }
+    }
+}
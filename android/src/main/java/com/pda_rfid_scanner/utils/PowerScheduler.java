@@ -0,0 +1,241 @@
+package com.pda_rfid_scanner.utils;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RFID 模块占空比供电
+ * <p>
+ * RFID 模式下按 onMs/offMs 窗口交替上电、断电；连续 idleTimeoutMs 没有读到标签时断电，
+ * 直到 {@link #wake()}。断电期间串口保持打开，上电后读线程自动恢复。
+ * 两个参数均 &lt;= 0 时与原来一样持续上电。
+ * <p>
+ * 方法可在任意线程调用，{@link #onTag()} 只写一个 volatile 字段。
+ */
+public class PowerScheduler {
+
+    public interface PowerSwitch {
+        /**
+         * 在调度线程上、持有调度器锁时调用，实现不应阻塞等待其他线程
+         *
+         * @return true 操作成功(或已提交)
+         */
+        boolean setPower(boolean on);
+    }
+
+    /**
+     * 计时与延时调度，测试中可手动推进
+     */
+    interface Clock {
+        long nanoTime();
+
+        Future<?> schedule(Runnable task, long delay, TimeUnit unit);
+
+        void shutdown();
+    }
+
+    private final PowerSwitch powerSwitch;
+    private final Clock clock;
+    private final Runnable windowTask = new Runnable() {
+        @Override
+        public void run() {
+            onWindowElapsed();
+        }
+    };
+    private final Runnable idleTask = new Runnable() {
+        @Override
+        public void run() {
+            onIdleCheck();
+        }
+    };
+
+    private long onMs;
+    private long offMs;
+    private long idleTimeoutMs;
+    private boolean active;
+    private boolean powered;
+    private boolean idle;
+    private long idlePowerDowns;
+    private Future<?> windowFuture;
+    private Future<?> idleFuture;
+    private volatile long lastTagNanos;
+
+    public PowerScheduler(PowerSwitch powerSwitch) {
+        this(powerSwitch, new ExecutorClock());
+    }
+
+    PowerScheduler(PowerSwitch powerSwitch, Clock clock) {
+        this.powerSwitch = powerSwitch;
+        this.clock = clock;
+    }
+
+    /**
+     * @param onMs          每个上电窗口时长，&lt;= 0 不做占空比
+     * @param offMs         每个断电窗口时长
+     * @param idleTimeoutMs 无标签多久后断电，&lt;= 0 关闭
+     */
+    public synchronized void configure(long onMs, long offMs, long idleTimeoutMs) {
+        this.onMs = onMs;
+        this.offMs = Math.max(0, offMs);
+        this.idleTimeoutMs = idleTimeoutMs;
+        if (active) {
+            wakeLocked();
+        }
+    }
+
+    /**
+     * @return 处于 start() 与 stop() 之间
+     */
+    public synchronized boolean isActive() {
+        return active;
+    }
+
+    public synchronized boolean isDutyCycling() {
+        return onMs > 0 && offMs > 0;
+    }
+
+    /**
+     * RFID 模式开启后调用，模块应已上电
+     */
+    public synchronized void start() {
+        active = true;
+        powered = true;
+        wakeLocked();
+    }
+
+    /**
+     * RFID 模式关闭前调用，返回后不会再改变供电；
+     * 可能正处于断电窗口，需要保持上电的调用方应检查 {@link #isPowered()}
+     */
+    public synchronized void stop() {
+        active = false;
+        idle = false;
+        cancelLocked();
+    }
+
+    /**
+     * 立即上电并重新开始计时
+     */
+    public synchronized void wake() {
+        if (active) {
+            wakeLocked();
+        }
+    }
+
+    /**
+     * 读到标签时调用
+     */
+    public void onTag() {
+        lastTagNanos = clock.nanoTime();
+    }
+
+    public synchronized boolean isPowered() {
+        return powered;
+    }
+
+    /**
+     * @return 因无标签而断电的状态
+     */
+    public synchronized boolean isIdle() {
+        return idle;
+    }
+
+    public synchronized long getIdlePowerDowns() {
+        return idlePowerDowns;
+    }
+
+    /**
+     * 停止调度线程
+     */
+    public void shutdown() {
+        stop();
+        clock.shutdown();
+    }
+
+    private void wakeLocked() {
+        cancelLocked();
+        idle = false;
+        lastTagNanos = clock.nanoTime();
+        setPowerLocked(true);
+        if (isDutyCycling()) {
+            windowFuture = clock.schedule(windowTask, onMs, TimeUnit.MILLISECONDS);
+        }
+        if (idleTimeoutMs > 0) {
+            idleFuture = clock.schedule(idleTask, idleTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void onWindowElapsed() {
+        if (!active || idle || !isDutyCycling()) {
+            return;
+        }
+        setPowerLocked(!powered);
+        windowFuture = clock.schedule(windowTask, powered ? onMs : offMs, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void onIdleCheck() {
+        if (!active || idle || idleTimeoutMs <= 0) {
+            return;
+        }
+        long idleNanos = clock.nanoTime() - lastTagNanos;
+        long timeoutNanos = idleTimeoutMs * 1000000L;
+        if (idleNanos < timeoutNanos) {
+            // 期间读到过标签，从最后一次读取重新计时
+            idleFuture = clock.schedule(idleTask, timeoutNanos - idleNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+        idle = true;
+        idlePowerDowns++;
+        if (windowFuture != null) {
+            windowFuture.cancel(false);
+            windowFuture = null;
+        }
+        setPowerLocked(false);
+    }
+
+    private void setPowerLocked(boolean on) {
+        if (powered != on && powerSwitch.setPower(on)) {
+            powered = on;
+        }
+    }
+
+    private void cancelLocked() {
+        if (windowFuture != null) {
+            windowFuture.cancel(false);
+            windowFuture = null;
+        }
+        if (idleFuture != null) {
+            idleFuture.cancel(false);
+            idleFuture = null;
+        }
+    }
+
+    private static class ExecutorClock implements Clock {
+        private final ScheduledThreadPoolExecutor executor;
+
+        ExecutorClock() {
+            executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "PowerScheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.setRemoveOnCancelPolicy(true);
+        }
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public Future<?> schedule(Runnable task, long delay, TimeUnit unit) {
+            return executor.schedule(task, delay, unit);
+        }
+
+        @Override
+        public void shutdown() {
+            executor.shutdownNow();
+        }
+    }
+}
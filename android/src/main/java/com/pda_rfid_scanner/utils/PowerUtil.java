@@ -1,23 +1,123 @@
 package com.pda_rfid_scanner.utils;
 
-import java.io.FileWriter;
+import android.util.Log;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * 模块电源控制
+ * <p>
+ * GPIO 文件句柄打开后复用，写失败时重新打开重试一次。
+ * 同时统计上电次数与累计上电时间，用于估算耗电。
+ */
 public class PowerUtil {
 
     private static String TAG = "PowerUtil";
     private final static String UHF = "/proc/gpiocontrol/set_uhf";
 
-    public static boolean power(String id) {
+    private static String gpioPath = UHF;
+    private static FileOutputStream gpio;
+    private static boolean powered;
+    private static long poweredSinceNanos;
+    private static long poweredNanos;
+    private static long powerCycles;
+
+    public static synchronized boolean power(String id) {
+        byte[] value = id.getBytes();
         try {
-            FileWriter localFileWriterOn = new FileWriter(UHF);
-            localFileWriterOn.write(id);
-            localFileWriterOn.close();
-            // Thread.sleep(200);
-            return true;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return false;
+            write(value);
+        } catch (IOException e) {
+            // 句柄可能已失效，重新打开再试一次
+            closeGpio();
+            try {
+                write(value);
+            } catch (IOException retry) {
+                Log.e(TAG, "write " + gpioPath + " failed: " + retry.getMessage());
+                closeGpio();
+                return false;
+            }
+        }
+        onPowerChanged(!"0".equals(id));
+        // Thread.sleep(200);
+        return true;
+    }
+
+    private static void write(byte[] value) throws IOException {
+        if (gpio == null) {
+            gpio = new FileOutputStream(gpioPath);
+        }
+        gpio.write(value);
+        gpio.flush();
+    }
+
+    private static void onPowerChanged(boolean on) {
+        long now = System.nanoTime();
+        if (on && !powered) {
+            powerCycles++;
+            poweredSinceNanos = now;
+        } else if (!on && powered) {
+            poweredNanos += now - poweredSinceNanos;
+        }
+        powered = on;
+    }
+
+    private static void closeGpio() {
+        if (gpio != null) {
+            try {
+                gpio.close();
+            } catch (IOException e) {
+                Log.w(TAG, "close " + gpioPath + " failed: " + e.getMessage());
+            }
+            gpio = null;
+        }
+    }
+
+    /**
+     * 释放 GPIO 文件句柄，下次 power() 时重新打开
+     */
+    public static synchronized void close() {
+        closeGpio();
+    }
+
+    public static synchronized boolean isPowered() {
+        return powered;
+    }
+
+    /**
+     * @return 累计上电时间(含当前这次)，毫秒
+     */
+    public static synchronized long getPoweredMillis() {
+        long total = poweredNanos;
+        if (powered) {
+            total += System.nanoTime() - poweredSinceNanos;
         }
+        return total / 1000000L;
+    }
+
+    /**
+     * @return 断电到上电的次数
+     */
+    public static synchronized long getPowerCycles() {
+        return powerCycles;
+    }
+
+    public static synchronized void resetStats() {
+        poweredNanos = 0;
+        powerCycles = 0;
+        poweredSinceNanos = System.nanoTime();
+    }
+
+    static synchronized String getGpioPath() {
+        return gpioPath;
+    }
+
+    /**
+     * 测试用，改写 GPIO 文件路径
+     */
+    static synchronized void setGpioPath(String path) {
+        closeGpio();
+        gpioPath = path;
     }
 
 }
@@ -0,0 +1,54 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Linux 伪终端(或任意字符设备/命名管道)
+ * <p>
+ * 在普通 Linux 上可以用 socat 创建一对伪终端，一端给 LFUtil，另一端由
+ * {@link LoadGenerator} 或真实抓包写入：
+ * <pre>
+ * socat -d -d pty,raw,echo=0,link=/tmp/ttyLF pty,raw,echo=0,link=/tmp/ttyGEN
+ * </pre>
+ * 伪终端须处于 raw 模式，否则行规程会按行缓冲数据。
+ */
+public class PtyTransport implements SerialTransport {
+    private final String path;
+    private FileInputStream inputStream;
+
+    public PtyTransport(String path) {
+        this.path = path;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        if (inputStream == null) {
+            inputStream = new FileInputStream(path);
+        }
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (inputStream != null) {
+            inputStream.close();
+            inputStream = null;
+        }
+    }
+
+    @Override
+    public boolean isReadInterruptible() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
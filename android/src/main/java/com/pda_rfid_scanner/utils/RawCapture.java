@@ -0,0 +1,255 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 串口原始读取的环形抓包
+ * <p>
+ * 每次 read() 的字节与 {@link ScanEventCodec#monotonicNanos()} 时间戳写入预分配的定长槽位，写满后覆盖最旧的，
+ * 热路径上没有分配。{@link #dump(File)} 将当前内容写成紧凑文件，可用
+ * {@link CaptureReplay} 回放。
+ * <p>
+ * 文件格式(小端序)：
+ * <pre>
+ * "LFCP"  魔数
+ * u8      版本 {@link #VERSION}
+ * u8[3]   保留
+ * i64     第一条记录的时间，Unix 纪元微秒
+ * u32     记录数
+ * 每条记录：
+ *   varint 距上一条记录的纳秒数(第一条为 0)
+ *   u8     字节数 n
+ *   n      原始字节
+ * </pre>
+ */
+public class RawCapture {
+    public static final int VERSION = 1;
+    public static final int DEFAULT_RECORDS = 4096;
+    /**
+     * 单条记录最多保存的字节数，与 LFUtil 读缓冲一致
+     */
+    public static final int MAX_RECORD_LENGTH = 64;
+
+    private static final byte[] MAGIC = {'L', 'F', 'C', 'P'};
+    private static final int HEADER_LENGTH = 20;
+
+    private final byte[] data;
+    private final byte[] lengths;
+    private final long[] nanos;
+    private final int capacity;
+    private long written;
+
+    public RawCapture() {
+        this(DEFAULT_RECORDS);
+    }
+
+    /**
+     * @param records 最多保留的 read() 次数
+     */
+    public RawCapture(int records) {
+        capacity = Math.max(1, records);
+        data = new byte[capacity * MAX_RECORD_LENGTH];
+        lengths = new byte[capacity];
+        nanos = new long[capacity];
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * 记录一次读取，超过 {@link #MAX_RECORD_LENGTH} 的部分截断
+     */
+    public synchronized void record(byte[] buffer, int offset, int length, long timeNanos) {
+        int slot = (int) (written % capacity);
+        int n = Math.min(length, MAX_RECORD_LENGTH);
+        System.arraycopy(buffer, offset, data, slot * MAX_RECORD_LENGTH, n);
+        lengths[slot] = (byte) n;
+        nanos[slot] = timeNanos;
+        written++;
+    }
+
+    /**
+     * @return 当前保留的记录数
+     */
+    public synchronized int size() {
+        return (int) Math.min(written, capacity);
+    }
+
+    /**
+     * @return 自创建或 clear() 以来的记录总数(含已被覆盖的)
+     */
+    public synchronized long getRecordedCount() {
+        return written;
+    }
+
+    public synchronized void clear() {
+        written = 0;
+    }
+
+    /**
+     * 写入抓包文件
+     *
+     * @return 写入的记录数
+     */
+    public int dump(File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            return writeTo(out);
+        }
+    }
+
+    /**
+     * 复制当前内容后在锁外编码，不阻塞读线程
+     *
+     * @return 写入的记录数
+     */
+    public int writeTo(OutputStream out) throws IOException {
+        byte[] dataCopy;
+        byte[] lengthCopy;
+        long[] nanoCopy;
+        int count;
+        int first;
+        synchronized (this) {
+            count = size();
+            first = (int) ((written - count) % capacity);
+            dataCopy = data.clone();
+            lengthCopy = lengths.clone();
+            nanoCopy = nanos.clone();
+        }
+        byte[] header = new byte[HEADER_LENGTH];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[4] = VERSION;
+        long firstMicros = 0;
+        if (count > 0) {
+            // 由单调时钟换算到纪元时间
+            firstMicros = ScanEventCodec.nowMicros() - (ScanEventCodec.monotonicNanos() - nanoCopy[first]) / 1000L;
+        }
+        ScanEventCodec.putLong(header, 8, firstMicros);
+        ScanEventCodec.putInt(header, 16, count);
+        out.write(header);
+
+        byte[] varint = new byte[10];
+        long previous = count > 0 ? nanoCopy[first] : 0;
+        for (int i = 0; i < count; i++) {
+            int slot = (first + i) % capacity;
+            long delta = Math.max(0, nanoCopy[slot] - previous);
+            previous = nanoCopy[slot];
+            int v = 0;
+            do {
+                byte b = (byte) (delta & 0x7F);
+                delta >>>= 7;
+                varint[v++] = delta != 0 ? (byte) (b | 0x80) : b;
+            } while (delta != 0);
+            out.write(varint, 0, v);
+            out.write(lengthCopy[slot]);
+            out.write(dataCopy, slot * MAX_RECORD_LENGTH, lengthCopy[slot]);
+        }
+        out.flush();
+        return count;
+    }
+
+    /**
+     * 顺序读取抓包文件
+     */
+    public static class Reader implements java.io.Closeable {
+        private final DataInputStream in;
+        private final long startMicros;
+        private final int count;
+        private final byte[] record = new byte[MAX_RECORD_LENGTH];
+        private int index;
+        private int length;
+        private long offsetNanos;
+
+        public Reader(File file) throws IOException {
+            this(new FileInputStream(file));
+        }
+
+        public Reader(InputStream stream) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(stream));
+            byte[] header = new byte[HEADER_LENGTH];
+            try {
+                in.readFully(header);
+            } catch (EOFException e) {
+                in.close();
+                throw new IOException("Not a capture file");
+            }
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (header[i] != MAGIC[i]) {
+                    in.close();
+                    throw new IOException("Not a capture file");
+                }
+            }
+            if (header[4] != VERSION) {
+                in.close();
+                throw new IOException("Unsupported capture version " + header[4]);
+            }
+            startMicros = ScanEventCodec.getLong(header, 8);
+            count = ScanEventCodec.getInt(header, 16);
+        }
+
+        public long getStartMicros() {
+            return startMicros;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * @return false 已读完
+         */
+        public boolean next() throws IOException {
+            if (index >= count) {
+                return false;
+            }
+            long delta = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = in.readUnsignedByte();
+                delta |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0 && shift < 64);
+            offsetNanos += delta;
+            length = in.readUnsignedByte();
+            if (length > MAX_RECORD_LENGTH) {
+                throw new IOException("Corrupt capture record " + index);
+            }
+            in.readFully(record, 0, length);
+            index++;
+            return true;
+        }
+
+        /**
+         * @return 当前记录距第一条记录的纳秒数
+         */
+        public long getOffsetNanos() {
+            return offsetNanos;
+        }
+
+        /**
+         * @return 当前记录的字节，下次 next() 时被覆盖
+         */
+        public byte[] getData() {
+            return record;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.pda_rfid_scanner.utils;
+
+/**
+ * 读头配置：串口路径、波特率与分帧方式
+ */
+public class ReaderConfig {
+    public static final String DEFAULT_PATH = "/dev/ttyS3";
+    public static final int DEFAULT_BAUD_RATE = 9600;
+
+    private final String path;
+    private final int baudRate;
+    private final int profile;
+    private final int maxFrameLength;
+
+    public ReaderConfig(String path, int baudRate) {
+        this(path, baudRate, FrameAssembler.PROFILE_LF, FrameAssembler.DEFAULT_MAX_FRAME_LENGTH);
+    }
+
+    /**
+     * @param path           串口设备路径
+     * @param baudRate       波特率
+     * @param profile        FrameAssembler.PROFILE_*
+     * @param maxFrameLength 最大帧长，2..128
+     */
+    public ReaderConfig(String path, int baudRate, int profile, int maxFrameLength) {
+        if (path == null || path.isEmpty()) {
+            throw new IllegalArgumentException("path is required");
+        }
+        if (baudRate <= 0) {
+            throw new IllegalArgumentException("Invalid baud rate: " + baudRate);
+        }
+        if (profile != FrameAssembler.PROFILE_LF && profile != FrameAssembler.PROFILE_STX_ETX) {
+            throw new IllegalArgumentException("Unknown framing profile: " + profile);
+        }
+        if (maxFrameLength < 2 || maxFrameLength > 128) {
+            throw new IllegalArgumentException("maxFrameLength out of range: " + maxFrameLength);
+        }
+        this.path = path;
+        this.baudRate = baudRate;
+        this.profile = profile;
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getBaudRate() {
+        return baudRate;
+    }
+
+    public int getProfile() {
+        return profile;
+    }
+
+    public int getMaxFrameLength() {
+        return maxFrameLength;
+    }
+
+    public SerialTransport createTransport() {
+        return new SerialPortTransport(path, baudRate);
+    }
+
+    @Override
+    public String toString() {
+        return path + "@" + baudRate;
+    }
+}
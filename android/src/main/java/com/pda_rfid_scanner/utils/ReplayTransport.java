@@ -0,0 +1,133 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 回放录制的串口原始字节
+ * <p>
+ * 按给定速率(默认 9600 8N1，约 960 字节/秒)分块吐出文件内容，读完后返回 -1，
+ * 或在 {@link #setLoop(boolean)} 打开时从头循环。
+ */
+public class ReplayTransport implements SerialTransport {
+    /**
+     * 9600 波特 8N1 每字节 10 位
+     */
+    public static final int DEFAULT_BYTES_PER_SECOND = 960;
+    public static final int DEFAULT_CHUNK_SIZE = 32;
+
+    private final String path;
+    private final int bytesPerSecond;
+    private final int chunkSize;
+    private volatile boolean loop;
+    private ReplayInputStream inputStream;
+
+    public ReplayTransport(String path) {
+        this(path, DEFAULT_BYTES_PER_SECOND, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param path           录制文件
+     * @param bytesPerSecond 回放速率，&lt;= 0 表示不限速
+     * @param chunkSize      每次 read() 最多返回的字节数，模拟串口 FIFO
+     */
+    public ReplayTransport(String path, int bytesPerSecond, int chunkSize) {
+        this.path = path;
+        this.bytesPerSecond = bytesPerSecond;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    public void setLoop(boolean loop) {
+        this.loop = loop;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        if (inputStream == null) {
+            inputStream = new ReplayInputStream(new FileInputStream(path));
+        }
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (inputStream != null) {
+            inputStream.close();
+            inputStream = null;
+        }
+    }
+
+    @Override
+    public boolean isReadInterruptible() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "replay:" + path;
+    }
+
+    private class ReplayInputStream extends InputStream {
+        private final long startNanos = System.nanoTime();
+        private FileInputStream file;
+        private long delivered;
+        private boolean closed;
+
+        ReplayInputStream(FileInputStream file) {
+            this.file = file;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            int n = Math.min(len, chunkSize);
+            while (!closed) {
+                if (bytesPerSecond > 0) {
+                    long allowed = (System.nanoTime() - startNanos) * bytesPerSecond / 1000000000L - delivered;
+                    if (allowed < 1) {
+                        long waitNanos = (1000000000L / bytesPerSecond) * (1 - allowed);
+                        try {
+                            wait(waitNanos / 1000000L, (int) (waitNanos % 1000000L));
+                        } catch (InterruptedException e) {
+                            throw new java.io.InterruptedIOException();
+                        }
+                        continue;
+                    }
+                    n = (int) Math.min(n, allowed);
+                }
+                int size = file.read(b, off, n);
+                if (size < 0) {
+                    if (!loop) {
+                        return -1;
+                    }
+                    file.close();
+                    file = new FileInputStream(path);
+                    continue;
+                }
+                delivered += size;
+                return size;
+            }
+            return -1;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            closed = true;
+            notifyAll();
+            file.close();
+        }
+    }
+}
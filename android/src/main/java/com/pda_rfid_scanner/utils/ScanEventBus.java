@@ -0,0 +1,256 @@
+package com.pda_rfid_scanner.utils;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 扫描事件总线
+ * <p>
+ * 每个监听者一个 {@link Subscription}，各自持有有界队列，事件在监听者指定的线程
+ * (如 mainHandler::post) 上投递；取消监听时 dispose() 即从总线移除并清空队列。
+ * 队列满时按溢出策略丢弃事件并计数。
+ * publish() 可在任意线程调用。
+ */
+public class ScanEventBus {
+    /**
+     * 队列满时丢弃最旧的事件
+     */
+    public static final int POLICY_DROP_OLDEST = 0;
+    /**
+     * 队列满时丢弃新事件
+     */
+    public static final int POLICY_DROP_NEWEST = 1;
+    /**
+     * 只保留最新一个事件
+     */
+    public static final int POLICY_LATEST_ONLY = 2;
+
+    public static final int DEFAULT_CAPACITY = 256;
+    /**
+     * 每次 run() 最多投递的事件数，其余重新提交给 executor，不长时间占用主线程
+     */
+    public static final int MAX_EVENTS_PER_RUN = 32;
+
+    public interface Sink {
+        void onEvent(Object event);
+    }
+
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile int capacity = DEFAULT_CAPACITY;
+    private volatile int policy = POLICY_DROP_OLDEST;
+    private volatile ScannerMetrics.Histogram deliveryLatency;
+
+    /**
+     * 设置之后新建订阅的队列容量与溢出策略，已有订阅同时生效
+     */
+    public void configure(int capacity, int policy) {
+        this.capacity = Math.max(1, capacity);
+        this.policy = policy;
+        for (Subscription s : subscriptions) {
+            s.resize(this.capacity);
+        }
+    }
+
+    /**
+     * 记录每个事件从 publish() 到交给 Sink 的延迟，null 关闭
+     */
+    public void setDeliveryLatency(ScannerMetrics.Histogram histogram) {
+        this.deliveryLatency = histogram;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getPolicy() {
+        return policy;
+    }
+
+    /**
+     * @param executor 投递事件的线程，须按提交顺序串行执行
+     * @param sink     事件接收方
+     */
+    public Subscription subscribe(Executor executor, Sink sink) {
+        Subscription s = new Subscription(executor, sink, capacity);
+        subscriptions.add(s);
+        return s;
+    }
+
+    public void publish(Object event) {
+        published.incrementAndGet();
+        for (Subscription s : subscriptions) {
+            s.enqueue(event);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public long getPublishedCount() {
+        return published.get();
+    }
+
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public void resetCounters() {
+        published.set(0);
+        delivered.set(0);
+        dropped.set(0);
+    }
+
+    /**
+     * @return 所有订阅中等待投递的事件数
+     */
+    public int getQueuedCount() {
+        int queued = 0;
+        for (Subscription s : subscriptions) {
+            queued += s.size();
+        }
+        return queued;
+    }
+
+    public final class Subscription implements Runnable {
+        private final Executor executor;
+        private final Sink sink;
+        private Object[] queue;
+        private long[] enqueuedAt;
+        private int head;
+        private int size;
+        private boolean scheduled;
+        private volatile boolean disposed;
+
+        private Subscription(Executor executor, Sink sink, int capacity) {
+            this.executor = executor;
+            this.sink = sink;
+            this.queue = new Object[capacity];
+            this.enqueuedAt = new long[capacity];
+        }
+
+        private void enqueue(Object event) {
+            boolean schedule;
+            synchronized (this) {
+                if (disposed) {
+                    return;
+                }
+                if (policy == POLICY_LATEST_ONLY) {
+                    if (size > 0) {
+                        dropped.addAndGet(size);
+                        clearLocked();
+                    }
+                } else if (size == queue.length) {
+                    if (policy == POLICY_DROP_NEWEST) {
+                        dropped.incrementAndGet();
+                        return;
+                    }
+                    queue[head] = null;
+                    head = (head + 1) % queue.length;
+                    size--;
+                    dropped.incrementAndGet();
+                }
+                int tail = (head + size) % queue.length;
+                queue[tail] = event;
+                enqueuedAt[tail] = System.nanoTime();
+                size++;
+                schedule = !scheduled;
+                scheduled = true;
+            }
+            if (schedule) {
+                executor.execute(this);
+            }
+        }
+
+        /**
+         * 在 executor 线程上投递队列中的事件，每次最多 {@link #MAX_EVENTS_PER_RUN} 个
+         */
+        @Override
+        public void run() {
+            for (int count = 0; ; count++) {
+                Object event;
+                long publishedAt;
+                synchronized (this) {
+                    if (disposed || size == 0) {
+                        scheduled = false;
+                        return;
+                    }
+                    if (count == MAX_EVENTS_PER_RUN) {
+                        // scheduled 保持为 true，剩余事件排在 executor 中其他任务之后
+                        break;
+                    }
+                    event = queue[head];
+                    publishedAt = enqueuedAt[head];
+                    queue[head] = null;
+                    head = (head + 1) % queue.length;
+                    size--;
+                }
+                sink.onEvent(event);
+                delivered.incrementAndGet();
+                ScannerMetrics.Histogram latency = deliveryLatency;
+                if (latency != null) {
+                    latency.record((System.nanoTime() - publishedAt) / 1000L);
+                }
+            }
+            executor.execute(this);
+        }
+
+        private synchronized void resize(int capacity) {
+            if (capacity == queue.length) {
+                return;
+            }
+            Object[] resized = new Object[capacity];
+            long[] resizedAt = new long[capacity];
+            // 缩容时保留最新的事件
+            int keep = Math.min(size, capacity);
+            int skip = size - keep;
+            for (int i = 0; i < keep; i++) {
+                int from = (head + skip + i) % queue.length;
+                resized[i] = queue[from];
+                resizedAt[i] = enqueuedAt[from];
+            }
+            if (skip > 0) {
+                dropped.addAndGet(skip);
+            }
+            queue = resized;
+            enqueuedAt = resizedAt;
+            head = 0;
+            size = keep;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        private void clearLocked() {
+            for (int i = 0; i < size; i++) {
+                queue[(head + i) % queue.length] = null;
+            }
+            head = 0;
+            size = 0;
+        }
+
+        /**
+         * 取消订阅，丢弃未投递的事件
+         */
+        public void dispose() {
+            subscriptions.remove(this);
+            synchronized (this) {
+                disposed = true;
+                clearLocked();
+            }
+        }
+
+        public boolean isDisposed() {
+            return disposed;
+        }
+    }
+}
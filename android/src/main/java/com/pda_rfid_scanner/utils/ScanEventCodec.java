@@ -0,0 +1,200 @@
+package com.pda_rfid_scanner.utils;
+
+/**
+ * 二进制扫描事件编码
+ * <p>
+ * 每个事件编码为一个 byte[]，经 StandardMessageCodec 传到 Dart 端为 Uint8List，
+ * 省去字符串拼接与解析，并携带原生采集时间。小端序，布局：
+ * <pre>
+ *  0  u8   版本 {@link #VERSION}
+ *  1  u8   类型 TYPE_*
+ *  2  u8   标签格式 TagDecoder.FORMAT_* 或自定义 TagFormat 编号，条码为 0
+ *  3  u8   读头编号，0 为内置读头
+ *  4  u16  国家代码，未知为 0xFFFF
+ *  6  u16  卡号/条码字节数 n
+ *  8  u32  读取次数
+ * 12  u16  原始帧字节数 m
+ * 14  u8   已知标签索引查找结果 MATCH_*
+ * 15  u8   索引附加数据字节数 p
+ * 16  i64  国家识别码，未知为 -1
+ * 24  i64  采集时间，Unix 纪元微秒
+ * 32  n    卡号(ASCII)或条码字节
+ * 32+n m   原始帧
+ * 32+n+m p 索引附加数据
+ * </pre>
+ * 与 lib/pda_rfid_scanner.dart 中的解码保持一致。
+ */
+public class ScanEventCodec {
+    public static final int VERSION = 1;
+    public static final int HEADER_LENGTH = 32;
+
+    public static final int TYPE_BARCODE = 1;
+    public static final int TYPE_RFID = 2;
+    /**
+     * 去重窗口内的"仍在场"心跳
+     */
+    public static final int TYPE_RFID_PRESENT = 3;
+
+    /**
+     * 未加载已知标签索引
+     */
+    public static final int MATCH_NONE = 0;
+    public static final int MATCH_UNKNOWN = 1;
+    public static final int MATCH_KNOWN = 2;
+
+    /**
+     * 采集时间使用的单调时钟
+     */
+    public interface MonotonicClock {
+        long nanos();
+    }
+
+    /**
+     * 单调时钟及其到 Unix 纪元的偏移，使采集时间既有微秒精度又不受系统改时影响
+     */
+    private static final class Anchor {
+        final MonotonicClock clock;
+        final long epochOffsetMicros;
+
+        Anchor(MonotonicClock clock) {
+            this.clock = clock;
+            this.epochOffsetMicros = System.currentTimeMillis() * 1000L - clock.nanos() / 1000L;
+        }
+    }
+
+    private static volatile Anchor anchor = new Anchor(System::nanoTime);
+
+    private ScanEventCodec() {
+    }
+
+    /**
+     * 替换单调时钟并重新对齐纪元时间，应在第一次取时间之前调用
+     * <p>
+     * 默认的 System.nanoTime() 在 Android 上是 CLOCK_MONOTONIC，深睡眠期间停止计时，
+     * 换算出的纪元时间会在每次休眠后落后；设备上应传入
+     * SystemClock::elapsedRealtimeNanos，它在睡眠期间继续计时。
+     */
+    public static void setMonotonicClock(MonotonicClock clock) {
+        anchor = new Anchor(clock);
+    }
+
+    /**
+     * @return 单调时钟读数，纳秒；与 {@link #nowMicros()} 同源，用于记录之后换算的时间戳
+     */
+    public static long monotonicNanos() {
+        return anchor.clock.nanos();
+    }
+
+    /**
+     * @return 当前时间，Unix 纪元微秒
+     */
+    public static long nowMicros() {
+        Anchor a = anchor;
+        return a.epochOffsetMicros + a.clock.nanos() / 1000L;
+    }
+
+    /**
+     * 编码刚解码的 RFID 事件
+     *
+     * @param decoder      已成功 decode() 的解码器
+     * @param frame        原始帧
+     * @param frameLength  原始帧长度
+     * @param type         TYPE_RFID 或 TYPE_RFID_PRESENT
+     * @param readCount    读取次数
+     * @param captureMicros 采集时间，Unix 纪元微秒
+     */
+    public static byte[] encodeRfid(TagDecoder decoder, byte[] frame, int frameLength, int type,
+                                    int readCount, long captureMicros) {
+        return encodeRfid(decoder, frame, frameLength, type, readCount, captureMicros, 0);
+    }
+
+    /**
+     * 编码刚解码的 RFID 事件
+     *
+     * @param reader 读头编号
+     */
+    public static byte[] encodeRfid(TagDecoder decoder, byte[] frame, int frameLength, int type,
+                                    int readCount, long captureMicros, int reader) {
+        return encodeRfid(decoder, frame, frameLength, type, readCount, captureMicros, reader, null, -1);
+    }
+
+    /**
+     * 编码刚解码的 RFID 事件，附带已知标签索引的查找结果
+     *
+     * @param index  已知标签索引，未加载为 null
+     * @param record index.find() 的结果
+     */
+    public static byte[] encodeRfid(TagDecoder decoder, byte[] frame, int frameLength, int type,
+                                    int readCount, long captureMicros, int reader,
+                                    TagIndex index, int record) {
+        int idLength = decoder.getLength();
+        int payloadLength = index != null && record >= 0 ? index.getPayloadSize() : 0;
+        byte[] out = new byte[HEADER_LENGTH + idLength + frameLength + payloadLength];
+        writeHeader(out, type, decoder.getFormat(), decoder.getCountryCode(), idLength, readCount,
+                frameLength, decoder.getNationalId(), captureMicros);
+        out[3] = (byte) reader;
+        out[14] = (byte) (index == null ? MATCH_NONE : record >= 0 ? MATCH_KNOWN : MATCH_UNKNOWN);
+        out[15] = (byte) payloadLength;
+        char[] chars = decoder.getChars();
+        for (int i = 0; i < idLength; i++) {
+            out[HEADER_LENGTH + i] = (byte) chars[i];
+        }
+        System.arraycopy(frame, 0, out, HEADER_LENGTH + idLength, frameLength);
+        if (payloadLength > 0) {
+            index.copyPayload(record, out, HEADER_LENGTH + idLength + frameLength);
+        }
+        return out;
+    }
+
+    /**
+     * 编码条码事件
+     */
+    public static byte[] encodeBarcode(byte[] barcode, int length, long captureMicros) {
+        byte[] out = new byte[HEADER_LENGTH + length];
+        writeHeader(out, TYPE_BARCODE, 0, -1, length, 1, 0, -1, captureMicros);
+        System.arraycopy(barcode, 0, out, HEADER_LENGTH, length);
+        return out;
+    }
+
+    private static void writeHeader(byte[] out, int type, int format, int countryCode, int idLength,
+                                    int readCount, int rawLength, long nationalId, long captureMicros) {
+        out[0] = VERSION;
+        out[1] = (byte) type;
+        out[2] = (byte) format;
+        putShort(out, 4, countryCode < 0 ? 0xFFFF : countryCode);
+        putShort(out, 6, idLength);
+        putInt(out, 8, readCount);
+        putShort(out, 12, rawLength);
+        putLong(out, 16, nationalId);
+        putLong(out, 24, captureMicros);
+    }
+
+    static void putShort(byte[] b, int off, int v) {
+        b[off] = (byte) v;
+        b[off + 1] = (byte) (v >>> 8);
+    }
+
+    static void putInt(byte[] b, int off, int v) {
+        b[off] = (byte) v;
+        b[off + 1] = (byte) (v >>> 8);
+        b[off + 2] = (byte) (v >>> 16);
+        b[off + 3] = (byte) (v >>> 24);
+    }
+
+    static void putLong(byte[] b, int off, long v) {
+        putInt(b, off, (int) v);
+        putInt(b, off + 4, (int) (v >>> 32));
+    }
+
+    static int getShort(byte[] b, int off) {
+        return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8;
+    }
+
+    static int getInt(byte[] b, int off) {
+        return getShort(b, off) | getShort(b, off + 2) << 16;
+    }
+
+    static long getLong(byte[] b, int off) {
+        return (getInt(b, off) & 0xFFFFFFFFL) | (long) getInt(b, off + 4) << 32;
+    }
+}
@@ -0,0 +1,474 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.CRC32;
+
+/**
+ * 只追加的扫描日志
+ * <p>
+ * 日志由若干预分配、内存映射的段文件组成，记录为定长 {@link #RECORD_LENGTH} 字节。
+ * 写入映射区后即使进程崩溃也不会丢失；达到 commitRecords 条或距第一条未同步记录
+ * commitMillis 后才 force() 一次(组提交)，以覆盖断电。段写满后新建下一段，
+ * 超过 maxSegments 时删除最旧的段。
+ * <p>
+ * 打开时逐条校验 CRC 与序号，恢复到最后一条完整记录之后继续写入。
+ * 头部损坏的段改名为 *.seg.bad 隔离，不影响之后序号能衔接的段。
+ * <p>
+ * 段文件(小端序)，文件名为第一条记录序号：
+ * <pre>
+ * 头部 128 字节：
+ *   "SJNL"  魔数
+ *   u8      版本 {@link #VERSION}
+ *   u8[3]   保留
+ *   u32     记录长度
+ *   u32     记录数上限
+ *   i64     第一条记录序号
+ * 每条记录：
+ *   0   i64  序号，从 1 开始连续递增
+ *   8   i64  采集时间，Unix 纪元微秒
+ *  16   u8   类型 ScanEventCodec.TYPE_*
+ *  17   u8   读头编号
+ *  18   u8   数据字节数 n
+ *  19   u8   标志 {@link #FLAG_TRUNCATED}
+ *  20   u32  读取次数
+ *  24   n    卡号或条码字节，最多 {@link #MAX_DATA_LENGTH}
+ * 124   u32  前 124 字节的 CRC32
+ * </pre>
+ * {@link #query} 的结果为紧凑编码，与 lib/pda_rfid_scanner.dart 中的解码保持一致：
+ * <pre>
+ *  0  u8   版本
+ *  1  u8[3] 保留
+ *  4  u32  条目数
+ *  8  i64  下一页的 afterSequence，已到末尾为 -1
+ * 每个条目为记录的前 24 字节加 n 字节数据
+ * </pre>
+ * 非线程安全，只应在解码线程中调用。
+ */
+public class ScanJournal {
+    public static final int VERSION = 1;
+    public static final int RECORD_LENGTH = 128;
+    public static final int MAX_DATA_LENGTH = 100;
+    public static final int FLAG_TRUNCATED = 1;
+    public static final int ENTRY_HEADER_LENGTH = 24;
+    public static final int PAGE_HEADER_LENGTH = 16;
+
+    public static final int DEFAULT_SEGMENT_RECORDS = 32768;
+    public static final int DEFAULT_MAX_SEGMENTS = 8;
+    public static final int DEFAULT_COMMIT_RECORDS = 64;
+    public static final long DEFAULT_COMMIT_MILLIS = 200;
+    /**
+     * 单次查询最多检查的记录数，限制按时间过滤时占用解码线程的时间
+     */
+    public static final int MAX_SCAN_RECORDS = 65536;
+
+    private static final byte[] MAGIC = {'S', 'J', 'N', 'L'};
+    private static final int HEADER_LENGTH = RECORD_LENGTH;
+    private static final int CRC_OFFSET = RECORD_LENGTH - 4;
+    private static final String SUFFIX = ".seg";
+    private static final String QUARANTINE_SUFFIX = ".bad";
+
+    private static final class Segment {
+        final File file;
+        final MappedByteBuffer buffer;
+        final long firstSequence;
+        final int capacity;
+        int count;
+
+        Segment(File file, MappedByteBuffer buffer, long firstSequence, int capacity) {
+            this.file = file;
+            this.buffer = buffer;
+            this.firstSequence = firstSequence;
+            this.capacity = capacity;
+        }
+    }
+
+    private final File directory;
+    private final int segmentRecords;
+    private final int maxSegments;
+    private final List<Segment> segments = new ArrayList<>();
+    private final byte[] record = new byte[RECORD_LENGTH];
+    private final CRC32 crc = new CRC32();
+    private int commitRecords = DEFAULT_COMMIT_RECORDS;
+    private long commitNanos = DEFAULT_COMMIT_MILLIS * 1000000L;
+    private long nextSequence = 1;
+    private int pending;
+    private long firstPendingNanos;
+    private long syncCount;
+    private long recoveredRecords;
+
+    public ScanJournal(File directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_RECORDS, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * 打开或新建日志，并恢复已有的段
+     *
+     * @param segmentRecords 每段记录数，仅对新建的段生效
+     * @param maxSegments    最多保留的段数
+     */
+    public ScanJournal(File directory, int segmentRecords, int maxSegments) throws IOException {
+        this.directory = directory;
+        this.segmentRecords = Math.max(1, segmentRecords);
+        this.maxSegments = Math.max(1, maxSegments);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        recover();
+    }
+
+    /**
+     * @param records 未同步记录达到该条数时立即 force()
+     * @param millis  第一条未同步记录写入后最多等待的毫秒数
+     */
+    public void setCommitPolicy(int records, long millis) {
+        commitRecords = Math.max(1, records);
+        commitNanos = Math.max(0, millis) * 1000000L;
+    }
+
+    /**
+     * 追加一条记录，数据超过 {@link #MAX_DATA_LENGTH} 时截断
+     *
+     * @return 记录序号
+     */
+    public long append(int type, int reader, byte[] data, int length, int readCount, long captureMicros)
+            throws IOException {
+        int n = Math.min(length, MAX_DATA_LENGTH);
+        Arrays.fill(record, ENTRY_HEADER_LENGTH + n, RECORD_LENGTH, (byte) 0);
+        System.arraycopy(data, 0, record, ENTRY_HEADER_LENGTH, n);
+        return write(type, reader, n, length > n, readCount, captureMicros);
+    }
+
+    /**
+     * 追加一条记录，字符按 ASCII 写入
+     */
+    public long append(int type, int reader, char[] data, int length, int readCount, long captureMicros)
+            throws IOException {
+        int n = Math.min(length, MAX_DATA_LENGTH);
+        for (int i = 0; i < n; i++) {
+            record[ENTRY_HEADER_LENGTH + i] = (byte) data[i];
+        }
+        Arrays.fill(record, ENTRY_HEADER_LENGTH + n, RECORD_LENGTH, (byte) 0);
+        return write(type, reader, n, length > n, readCount, captureMicros);
+    }
+
+    /**
+     * 到期时同步未写盘的记录
+     *
+     * @return 距下次到期的纳秒数，没有未同步记录时为 -1
+     */
+    public long syncIfDue(long nowNanos) {
+        if (pending == 0) {
+            return -1;
+        }
+        long wait = firstPendingNanos + commitNanos - nowNanos;
+        if (wait <= 0) {
+            sync();
+            return -1;
+        }
+        return wait;
+    }
+
+    /**
+     * 立即同步未写盘的记录
+     */
+    public void sync() {
+        if (pending > 0 && !segments.isEmpty()) {
+            segments.get(segments.size() - 1).buffer.force();
+            syncCount++;
+        }
+        pending = 0;
+    }
+
+    /**
+     * 分页查询
+     *
+     * @param afterSequence 只返回序号大于它的记录，从头开始为 0
+     * @param fromMicros    采集时间下限(含)
+     * @param toMicros      采集时间上限(含)
+     * @param limit         本页最多条目数
+     */
+    public byte[] query(long afterSequence, long fromMicros, long toMicros, int limit) {
+        limit = Math.max(1, limit);
+        List<int[]> hits = new ArrayList<>();
+        int length = PAGE_HEADER_LENGTH;
+        long next = -1;
+        long sequence = Math.max(afterSequence + 1, getFirstSequence());
+        int scanned = 0;
+        scan:
+        for (int s = findSegment(sequence); s < segments.size(); s++) {
+            Segment segment = segments.get(s);
+            for (int i = (int) Math.max(0, sequence - segment.firstSequence); i < segment.count; i++) {
+                int pos = HEADER_LENGTH + i * RECORD_LENGTH;
+                long micros = segment.buffer.getLong(pos + 8);
+                if (micros >= fromMicros && micros <= toMicros) {
+                    hits.add(new int[]{s, pos});
+                    length += ENTRY_HEADER_LENGTH + (segment.buffer.get(pos + 18) & 0xFF);
+                }
+                scanned++;
+                if (hits.size() == limit || scanned == MAX_SCAN_RECORDS) {
+                    long last = segment.firstSequence + i;
+                    if (last < nextSequence - 1) {
+                        next = last;
+                    }
+                    break scan;
+                }
+            }
+        }
+
+        byte[] out = new byte[length];
+        out[0] = VERSION;
+        ScanEventCodec.putInt(out, 4, hits.size());
+        ScanEventCodec.putLong(out, 8, next);
+        int offset = PAGE_HEADER_LENGTH;
+        for (int[] hit : hits) {
+            MappedByteBuffer buffer = segments.get(hit[0]).buffer;
+            int n = ENTRY_HEADER_LENGTH + (buffer.get(hit[1] + 18) & 0xFF);
+            for (int i = 0; i < n; i++) {
+                out[offset + i] = buffer.get(hit[1] + i);
+            }
+            offset += n;
+        }
+        return out;
+    }
+
+    /**
+     * @return 最旧的保留记录序号；日志为空时为下一条记录的序号
+     */
+    public long getFirstSequence() {
+        return segments.isEmpty() ? nextSequence : segments.get(0).firstSequence;
+    }
+
+    /**
+     * @return 最后一条记录的序号，没有记录为 0
+     */
+    public long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    /**
+     * @return 打开时恢复的记录数
+     */
+    public long getRecoveredRecords() {
+        return recoveredRecords;
+    }
+
+    public long getSyncCount() {
+        return syncCount;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 同步后关闭，映射区随对象回收
+     */
+    public void close() {
+        sync();
+        segments.clear();
+    }
+
+    private long write(int type, int reader, int n, boolean truncated, int readCount, long captureMicros)
+            throws IOException {
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.count == segment.capacity) {
+            segment = roll();
+        }
+        long sequence = nextSequence;
+        ScanEventCodec.putLong(record, 0, sequence);
+        ScanEventCodec.putLong(record, 8, captureMicros);
+        record[16] = (byte) type;
+        record[17] = (byte) reader;
+        record[18] = (byte) n;
+        record[19] = (byte) (truncated ? FLAG_TRUNCATED : 0);
+        ScanEventCodec.putInt(record, 20, readCount);
+        crc.reset();
+        crc.update(record, 0, CRC_OFFSET);
+        ScanEventCodec.putInt(record, CRC_OFFSET, (int) crc.getValue());
+        segment.buffer.position(HEADER_LENGTH + segment.count * RECORD_LENGTH);
+        segment.buffer.put(record);
+        segment.count++;
+        nextSequence++;
+
+        if (pending++ == 0) {
+            firstPendingNanos = System.nanoTime();
+        }
+        if (pending >= commitRecords) {
+            sync();
+        }
+        return sequence;
+    }
+
+    private Segment roll() throws IOException {
+        // 先让上一段落盘，新段从下一个序号开始
+        sync();
+        while (segments.size() >= maxSegments) {
+            Segment oldest = segments.remove(0);
+            if (!oldest.file.delete()) {
+                throw new IOException("Cannot delete " + oldest.file);
+            }
+        }
+        // 文件名须为 ASCII 数字，不随默认语言环境变化
+        File file = new File(directory, String.format(Locale.ROOT, "%020d", nextSequence) + SUFFIX);
+        MappedByteBuffer buffer = map(file, segmentRecords, true);
+        byte[] header = new byte[HEADER_LENGTH];
+        System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+        header[4] = VERSION;
+        ScanEventCodec.putInt(header, 8, RECORD_LENGTH);
+        ScanEventCodec.putInt(header, 12, segmentRecords);
+        ScanEventCodec.putLong(header, 16, nextSequence);
+        buffer.put(header);
+        buffer.force();
+        Segment segment = new Segment(file, buffer, nextSequence, segmentRecords);
+        segments.add(segment);
+        return segment;
+    }
+
+    private void recover() throws IOException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) {
+            return;
+        }
+        // 按文件名中的序号排序，不依赖字符串顺序
+        Arrays.sort(files, (a, b) -> Long.compare(sequenceOf(a), sequenceOf(b)));
+        boolean skipped = false;
+        int i = 0;
+        for (; i < files.length; i++) {
+            File file = files[i];
+            long[] header = readHeader(file);
+            if (header == null || header[0] != sequenceOf(file)) {
+                // 头部损坏：隔离这一段，之后的段仍可恢复
+                quarantine(file);
+                skipped = true;
+                continue;
+            }
+            long firstSequence = header[0];
+            int capacity = (int) header[1];
+            if (!segments.isEmpty() && (skipped ? firstSequence < nextSequence : firstSequence != nextSequence)) {
+                // 不是由隔离段造成的序号断档，之后的段无法信任
+                break;
+            }
+            if (segments.isEmpty() || skipped) {
+                nextSequence = firstSequence;
+            }
+            skipped = false;
+            Segment segment = new Segment(file, map(file, capacity, false), firstSequence, capacity);
+            while (segment.count < segment.capacity && isValid(segment, segment.count, nextSequence)) {
+                segment.count++;
+                nextSequence++;
+            }
+            segments.add(segment);
+            recoveredRecords += segment.count;
+            if (segment.count < segment.capacity) {
+                // 写到一半的段只可能是最后一段
+                i++;
+                break;
+            }
+        }
+        // 断档或写到一半的段之后是上次崩溃前未能衔接的残留
+        for (; i < files.length; i++) {
+            files[i].delete();
+        }
+        // 最后一段中损坏记录之后的内容清零，避免之后与新记录混淆
+        if (!segments.isEmpty()) {
+            Segment last = segments.get(segments.size() - 1);
+            byte[] zero = new byte[RECORD_LENGTH];
+            for (int r = last.count; r < last.capacity && last.buffer.getLong(HEADER_LENGTH + r * RECORD_LENGTH) != 0; r++) {
+                last.buffer.position(HEADER_LENGTH + r * RECORD_LENGTH);
+                last.buffer.put(zero);
+            }
+            last.buffer.force();
+        }
+    }
+
+    /**
+     * 只读取并校验头部，通过后才映射整个段，被拒绝的段不会留下映射
+     *
+     * @return {第一条记录序号, 记录数上限}，头部损坏为 null
+     */
+    private static long[] readHeader(File file) throws IOException {
+        byte[] header = new byte[HEADER_LENGTH];
+        long size;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            size = raf.length();
+            if (size < HEADER_LENGTH) {
+                return null;
+            }
+            raf.readFully(header);
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return null;
+            }
+        }
+        long capacity = (size - HEADER_LENGTH) / RECORD_LENGTH;
+        if (header[4] != VERSION || ScanEventCodec.getInt(header, 8) != RECORD_LENGTH
+                || capacity > Integer.MAX_VALUE || ScanEventCodec.getInt(header, 12) != capacity) {
+            return null;
+        }
+        return new long[]{ScanEventCodec.getLong(header, 16), capacity};
+    }
+
+    /**
+     * @return 文件名中的第一条记录序号，无法解析为 -1
+     */
+    private static long sequenceOf(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 保留损坏的段以便排查；改名失败时原样保留，下次打开再试
+     */
+    private static void quarantine(File file) {
+        file.renameTo(new File(file.getPath() + QUARANTINE_SUFFIX));
+    }
+
+    private boolean isValid(Segment segment, int index, long sequence) {
+        int pos = HEADER_LENGTH + index * RECORD_LENGTH;
+        MappedByteBuffer buffer = segment.buffer;
+        if (buffer.getLong(pos) != sequence) {
+            return false;
+        }
+        buffer.position(pos);
+        buffer.get(record);
+        crc.reset();
+        crc.update(record, 0, CRC_OFFSET);
+        return ScanEventCodec.getInt(record, CRC_OFFSET) == (int) crc.getValue()
+                && (record[18] & 0xFF) <= MAX_DATA_LENGTH;
+    }
+
+    private static MappedByteBuffer map(File file, int capacity, boolean create) throws IOException {
+        long size = HEADER_LENGTH + (long) capacity * RECORD_LENGTH;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            if (create) {
+                raf.setLength(size);
+            }
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        }
+    }
+
+    private int findSegment(long sequence) {
+        for (int s = segments.size() - 1; s >= 0; s--) {
+            if (segments.get(s).firstSequence <= sequence) {
+                return s;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,295 @@
+package com.pda_rfid_scanner.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 扫描流水线运行指标
+ * <p>
+ * 计数器按线程分段累加(minSdk 19 无 LongAdder)，延迟用按 2 的幂分桶的直方图，
+ * 热路径上只有无锁原子操作。{@link #snapshot()} 供 getStats 方法通道读取。
+ */
+public final class ScannerMetrics {
+
+    /**
+     * LFUtil 读线程从串口读到的字节数
+     */
+    public static final Counter bytesRead = new Counter();
+    /**
+     * 分帧得到的完整帧数
+     */
+    public static final Counter framesAssembled = new Counter();
+    /**
+     * 分帧时丢弃的干扰/截断字节数
+     */
+    public static final Counter framingDiscardedBytes = new Counter();
+    /**
+     * 成功解码的标签数
+     */
+    public static final Counter tagsDecoded = new Counter();
+    /**
+     * 无法解码的帧数
+     */
+    public static final Counter decodeFailures = new Counter();
+    /**
+     * 去重窗口内被抑制的重复读取数
+     */
+    public static final Counter duplicatesSuppressed = new Counter();
+    /**
+     * 在已知标签索引中找到的读取数
+     */
+    public static final Counter knownTags = new Counter();
+    /**
+     * 已加载索引但未找到的读取数
+     */
+    public static final Counter unknownTags = new Counter();
+    /**
+     * 收到的条码广播数
+     */
+    public static final Counter barcodesReceived = new Counter();
+    /**
+     * 重复条码窗口内被抑制的条码数
+     */
+    public static final Counter barcodeDuplicatesSuppressed = new Counter();
+    /**
+     * 条码扫描速率
+     */
+    public static final RateMeter barcodeRate = new RateMeter();
+    /**
+     * 串口读到帧 -> 解码完成
+     */
+    public static final Histogram readToDecode = new Histogram();
+    /**
+     * 事件发布 -> 投递给 EventSink(不含批量等待时间)
+     */
+    public static final Histogram decodeToSink = new Histogram();
+    /**
+     * 条码/RFID 模式切换耗时
+     */
+    public static final Histogram modeSwitch = new Histogram();
+
+    private ScannerMetrics() {
+    }
+
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("bytesRead", bytesRead.sum());
+        stats.put("framesAssembled", framesAssembled.sum());
+        stats.put("framingDiscardedBytes", framingDiscardedBytes.sum());
+        stats.put("tagsDecoded", tagsDecoded.sum());
+        stats.put("decodeFailures", decodeFailures.sum());
+        stats.put("duplicatesSuppressed", duplicatesSuppressed.sum());
+        stats.put("knownTags", knownTags.sum());
+        stats.put("unknownTags", unknownTags.sum());
+        stats.put("barcodesReceived", barcodesReceived.sum());
+        stats.put("barcodeDuplicatesSuppressed", barcodeDuplicatesSuppressed.sum());
+        stats.put("barcodeScansPerSecond", barcodeRate.perSecond());
+        stats.put("barcodeScansPerSecondPeak", barcodeRate.peakPerSecond());
+        stats.put("readToDecodeUs", readToDecode.snapshot());
+        stats.put("decodeToSinkUs", decodeToSink.snapshot());
+        stats.put("modeSwitchUs", modeSwitch.snapshot());
+        return stats;
+    }
+
+    public static void reset() {
+        bytesRead.reset();
+        framesAssembled.reset();
+        framingDiscardedBytes.reset();
+        tagsDecoded.reset();
+        decodeFailures.reset();
+        duplicatesSuppressed.reset();
+        knownTags.reset();
+        unknownTags.reset();
+        barcodesReceived.reset();
+        barcodeDuplicatesSuppressed.reset();
+        barcodeRate.reset();
+        readToDecode.reset();
+        decodeToSink.reset();
+        modeSwitch.reset();
+    }
+
+    /**
+     * 分段计数器，各线程写不同的缓存行
+     */
+    public static final class Counter {
+        private static final int STRIPES = 8;
+        // 每段间隔 8 个 long(64 字节)避免伪共享
+        private static final int PAD = 8;
+
+        private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PAD);
+
+        public void increment() {
+            add(1);
+        }
+
+        public void add(long x) {
+            cells.addAndGet(((int) Thread.currentThread().getId() & (STRIPES - 1)) * PAD, x);
+        }
+
+        public long sum() {
+            long sum = 0;
+            for (int i = 0; i < STRIPES; i++) {
+                sum += cells.get(i * PAD);
+            }
+            return sum;
+        }
+
+        public void reset() {
+            for (int i = 0; i < STRIPES; i++) {
+                cells.set(i * PAD, 0);
+            }
+        }
+    }
+
+    /**
+     * 微秒延迟直方图，第 i 个桶为 [2^i, 2^(i+1)) 微秒，0 计入第 0 个桶
+     */
+    public static final class Histogram {
+        public static final int BUCKETS = 32;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final AtomicLongArray totals = new AtomicLongArray(2);
+
+        public void record(long micros) {
+            if (micros < 0) {
+                micros = 0;
+            }
+            int bucket = Math.min(BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros | 1));
+            buckets.incrementAndGet(bucket);
+            totals.addAndGet(0, micros);
+            long max;
+            while (micros > (max = totals.get(1))) {
+                if (totals.compareAndSet(1, max, micros)) {
+                    break;
+                }
+            }
+        }
+
+        public long count() {
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += buckets.get(i);
+            }
+            return count;
+        }
+
+        /**
+         * @return 百分位的估计值(所在桶的上界，不超过最大值)，微秒
+         */
+        public long percentile(double p) {
+            long[] counts = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                count += counts[i];
+            }
+            return percentile(counts, count, totals.get(1), p);
+        }
+
+        private static long percentile(long[] counts, long count, long max, double p) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(count * p);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min((1L << (i + 1)) - 1, max);
+                }
+            }
+            return max;
+        }
+
+        public Map<String, Object> snapshot() {
+            long[] counts = new long[BUCKETS];
+            long count = 0;
+            List<Long> bucketList = new ArrayList<>(BUCKETS);
+            for (int i = 0; i < BUCKETS; i++) {
+                counts[i] = buckets.get(i);
+                count += counts[i];
+                bucketList.add(counts[i]);
+            }
+            long max = totals.get(1);
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("count", count);
+            snapshot.put("mean", count == 0 ? 0 : totals.get(0) / count);
+            snapshot.put("p50", percentile(counts, count, max, 0.50));
+            snapshot.put("p90", percentile(counts, count, max, 0.90));
+            snapshot.put("p99", percentile(counts, count, max, 0.99));
+            snapshot.put("max", max);
+            snapshot.put("buckets", bucketList);
+            return snapshot;
+        }
+
+        public void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            totals.set(0, 0);
+            totals.set(1, 0);
+        }
+    }
+
+    /**
+     * 最近事件的速率：取最近 64 个事件中位于 10 秒窗口内的部分计算
+     */
+    public static final class RateMeter {
+        private static final int HISTORY = 64;
+        private static final long WINDOW_NANOS = 10000000000L;
+
+        private final long[] times = new long[HISTORY];
+        private long count;
+        private double peak;
+
+        public synchronized void mark(long nanos) {
+            times[(int) (count % HISTORY)] = nanos;
+            count++;
+            // 至少 8 个事件再计入峰值，避免两次连扫得到虚高的速率
+            if (count >= 8) {
+                peak = Math.max(peak, rateLocked(nanos, 8));
+            }
+        }
+
+        /**
+         * @return 每秒事件数，窗口内不足 2 个事件时为 0
+         */
+        public synchronized double perSecond() {
+            return rateLocked(System.nanoTime(), HISTORY);
+        }
+
+        public synchronized double peakPerSecond() {
+            return peak;
+        }
+
+        private double rateLocked(long now, int maxEvents) {
+            if (count < 2) {
+                return 0;
+            }
+            int n = (int) Math.min(count, maxEvents);
+            long newest = times[(int) ((count - 1) % HISTORY)];
+            int used = 0;
+            long oldest = newest;
+            for (int i = 0; i < n; i++) {
+                long t = times[(int) ((count - 1 - i) % HISTORY)];
+                if (now - t > WINDOW_NANOS) {
+                    break;
+                }
+                oldest = t;
+                used++;
+            }
+            if (used < 2 || newest == oldest) {
+                return 0;
+            }
+            return (used - 1) * 1e9 / (newest - oldest);
+        }
+
+        public synchronized void reset() {
+            count = 0;
+            peak = 0;
+        }
+    }
+}
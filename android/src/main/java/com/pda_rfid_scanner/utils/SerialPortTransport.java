@@ -0,0 +1,95 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import android_serialport_api.SerialPort;
+import android_serialport_api.SerialPortTool;
+
+/**
+ * 设备串口，基于 android_serialport_api
+ */
+public class SerialPortTransport implements SerialTransport {
+    private final String path;
+    private final int baudRate;
+    private SerialPortTool serialPortTool;
+    private InputStream inputStream;
+
+    public SerialPortTransport(String path, int baudRate) {
+        this.path = path;
+        this.baudRate = baudRate;
+    }
+
+    /**
+     * 提前加载 serial_port 本地库，首次打开串口时不再等待
+     *
+     * @return false 本地库不可用
+     */
+    public static boolean preload() {
+        try {
+            Class.forName(SerialPort.class.getName());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getBaudRate() {
+        return baudRate;
+    }
+
+    @Override
+    public synchronized void open() throws IOException {
+        if (inputStream != null) {
+            return;
+        }
+        if (serialPortTool == null) {
+            serialPortTool = new SerialPortTool();
+        }
+        try {
+            SerialPort serialPort = serialPortTool.getSerialPort(path, baudRate);
+            inputStream = serialPort.getInputStream();
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to open " + path + ": " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized InputStream getInputStream() {
+        return inputStream;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        InputStream in = inputStream;
+        inputStream = null;
+        try {
+            if (in != null) {
+                in.close();
+            }
+        } finally {
+            if (serialPortTool != null) {
+                serialPortTool.closeSerialPort();
+            }
+        }
+    }
+
+    /**
+     * 串口 FileInputStream 的 read() 无法被 close() 打断，需要 poll 或轮询
+     */
+    @Override
+    public boolean isReadInterruptible() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return path + "@" + baudRate;
+    }
+}
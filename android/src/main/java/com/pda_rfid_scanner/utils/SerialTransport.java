@@ -0,0 +1,35 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * LFUtil 的串口数据来源
+ * <p>
+ * 默认实现为设备串口 {@link SerialPortTransport}；{@link PtyTransport}、
+ * {@link ReplayTransport} 与 {@link LoadGenerator} 用于在普通 JVM 上运行和压测
+ * 读取/分帧/解码流水线。
+ */
+public interface SerialTransport {
+
+    /**
+     * 打开数据源，重复调用应无副作用
+     */
+    void open() throws IOException;
+
+    /**
+     * @return 已打开的输入流，未打开时为 null
+     */
+    InputStream getInputStream();
+
+    /**
+     * 关闭数据源，阻塞中的 read() 应随之返回或抛出异常
+     */
+    void close() throws IOException;
+
+    /**
+     * @return true 表示 read() 在无数据时阻塞、且 close() 能使其返回，
+     * 读线程可直接阻塞读取而无需 poll 或轮询
+     */
+    boolean isReadInterruptible();
+}
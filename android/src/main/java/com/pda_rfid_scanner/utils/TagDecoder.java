@@ -0,0 +1,270 @@
+package com.pda_rfid_scanner.utils;
+
+/**
+ * 低频标签解码器
+ * <p>
+ * 支持两种帧格式：
+ * 1. 第 19 字节为 '#'，第 2~16 字节为 15 位 ASCII 卡号
+ * 2. FDX/HDX 帧，STX 后 10 位十六进制国家识别码 + 3 位国家代码，均为低位在前
+ * <p>
+ * 直接按半字节计算，结果写入复用的 char 缓冲区，解码过程不分配对象。
+ * 输出格式与原 BigInteger 实现一致：国家代码(十进制) + 左补零到 12 位的识别码。
+ * 非线程安全，每个解码线程使用独立实例。
+ * <p>
+ * {@link TagDecoderRegistry} 按格式表分发并校验帧，解码结果同样写入本类，
+ * 自定义的 {@link TagFormat} 通过 {@link #setResult} / {@link #setNumericId} 写入。
+ */
+public class TagDecoder {
+    public static final int FORMAT_NONE = 0;
+    /**
+     * 第 19 字节为 '#' 的 ASCII 格式
+     */
+    public static final int FORMAT_ASCII = 1;
+    /**
+     * FDX/HDX 十六进制格式
+     */
+    public static final int FORMAT_FDX = 2;
+    /**
+     * HDX 十六进制格式，仅 {@link TagDecoderRegistry} 区分，{@link #decode} 仍报告为 FORMAT_FDX。
+     * 插件改用注册表后，二进制事件中 HDX 标签的格式字节由 2 变为 3
+     */
+    public static final int FORMAT_HDX = 3;
+
+    /**
+     * 国家代码最多 4 位(0xFFF) + 识别码最多 13 位(0xFFFFFFFFFF)
+     */
+    public static final int MAX_ID_LENGTH = 17;
+
+    private static final int MAX_FRAME_LENGTH = 64;
+    private static final int ASCII_ID_OFFSET = 2;
+    private static final int ASCII_ID_LENGTH = 15;
+    private static final int ASCII_COUNTRY_DIGITS = 3;
+    private static final int FDX_PAYLOAD_LENGTH = 14;
+    private static final int NATIONAL_ID_NIBBLES = 10;
+    private static final int COUNTRY_NIBBLES = 3;
+    private static final int NATIONAL_ID_MIN_DIGITS = 12;
+    private static final long NATIONAL_ID_MASK = (1L << 40) - 1;
+    private static final int COUNTRY_CODE_MASK = (1 << 10) - 1;
+
+    private final char[] chars = new char[MAX_ID_LENGTH];
+    private int length;
+    private int format;
+    private long nationalId;
+    private int countryCode;
+
+    /**
+     * 解码一帧数据
+     *
+     * @param data   帧数据
+     * @param length 有效长度
+     * @return FORMAT_ASCII / FORMAT_FDX，无法识别返回 FORMAT_NONE
+     */
+    public int decode(byte[] data, int length) {
+        clear();
+
+        // 原实现先拷贝到 64 字节缓冲区，超长帧直接失败
+        if (length > MAX_FRAME_LENGTH) {
+            return FORMAT_NONE;
+        }
+        if (length >= 20 && data[19] == '#') {
+            return decodeAscii(data);
+        }
+        if (length >= 30) {
+            return decodeFdx(data, length);
+        }
+        return FORMAT_NONE;
+    }
+
+    /**
+     * 清除上一次的解码结果
+     */
+    public void clear() {
+        length = 0;
+        format = FORMAT_NONE;
+        nationalId = -1;
+        countryCode = -1;
+    }
+
+    int decodeAscii(byte[] data) {
+        long country = 0;
+        long id = 0;
+        boolean numeric = true;
+        for (int i = 0; i < ASCII_ID_LENGTH; i++) {
+            int b = data[ASCII_ID_OFFSET + i] & 0xFF;
+            // 与 new String(bytes, "ascii") 一致，非 ASCII 字节替换为 U+FFFD
+            chars[i] = b < 0x80 ? (char) b : '\uFFFD';
+            if (b < '0' || b > '9') {
+                numeric = false;
+            } else if (i < ASCII_COUNTRY_DIGITS) {
+                country = country * 10 + (b - '0');
+            } else {
+                id = id * 10 + (b - '0');
+            }
+        }
+        if (numeric) {
+            countryCode = (int) country;
+            nationalId = id;
+        }
+        length = ASCII_ID_LENGTH;
+        format = FORMAT_ASCII;
+        return format;
+    }
+
+    private int decodeFdx(byte[] data, int length) {
+        int start = -1;
+        int end = -1;
+        for (int i = 0; i < length; i++) {
+            if (data[i] == 0x02) {
+                start = i;
+            } else if (data[i] == 0x03 || data[i] == 0x07) {
+                end = i;
+                break;
+            }
+        }
+        if (start == -1 || end == -1) {
+            return FORMAT_NONE;
+        }
+        int payload = start + 1;
+        if (payload + FDX_PAYLOAD_LENGTH > length) {
+            return FORMAT_NONE;
+        }
+
+        // 低位在前：payload[0] 为最低半字节
+        long id = 0;
+        for (int i = NATIONAL_ID_NIBBLES - 1; i >= 0; i--) {
+            int v = ByteUtils.hexValue(data[payload + i]);
+            if (v < 0) {
+                return FORMAT_NONE;
+            }
+            id = (id << 4) | v;
+        }
+        int country = 0;
+        for (int i = NATIONAL_ID_NIBBLES + COUNTRY_NIBBLES - 1; i >= NATIONAL_ID_NIBBLES; i--) {
+            int v = ByteUtils.hexValue(data[payload + i]);
+            if (v < 0) {
+                return FORMAT_NONE;
+            }
+            country = (country << 4) | v;
+        }
+
+        return setNumericId(FORMAT_FDX, country, id);
+    }
+
+    /**
+     * 写入数字卡号：国家代码(十进制) + 左补零到 12 位的识别码
+     *
+     * @return format
+     */
+    public int setNumericId(int format, int countryCode, long nationalId) {
+        this.nationalId = nationalId;
+        this.countryCode = countryCode;
+        int pos = writeDecimal(countryCode, 1, chars, 0);
+        this.length = writeDecimal(nationalId, NATIONAL_ID_MIN_DIGITS, chars, pos);
+        this.format = format;
+        return format;
+    }
+
+    /**
+     * 写入已放入 {@link #getChars()} 的卡号
+     *
+     * @param length      卡号长度，不超过 {@link #MAX_ID_LENGTH}
+     * @param countryCode 国家代码，没有时为 -1
+     * @param nationalId  数字识别码，没有时为 -1
+     * @return format
+     */
+    public int setResult(int format, int length, int countryCode, long nationalId) {
+        if (length < 0 || length > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("Tag id length " + length);
+        }
+        this.length = length;
+        this.countryCode = countryCode;
+        this.nationalId = nationalId;
+        this.format = format;
+        return format;
+    }
+
+    /**
+     * 写入十进制数字，不足 minDigits 位左补零
+     *
+     * @return 写入后的位置
+     */
+    static int writeDecimal(long value, int minDigits, char[] dst, int offset) {
+        int digits = 1;
+        for (long v = value / 10; v != 0; v /= 10) {
+            digits++;
+        }
+        if (digits < minDigits) {
+            digits = minDigits;
+        }
+        int pos = offset + digits;
+        for (int i = pos - 1; i >= offset; i--) {
+            dst[i] = (char) ('0' + (value % 10));
+            value /= 10;
+        }
+        return pos;
+    }
+
+    /**
+     * @return 最近一次解码的格式
+     */
+    public int getFormat() {
+        return format;
+    }
+
+    /**
+     * @return 国家识别码；ASCII 格式中含非数字字符时为 -1
+     */
+    public long getNationalId() {
+        return nationalId;
+    }
+
+    /**
+     * @return 国家代码；ASCII 格式中含非数字字符时为 -1
+     */
+    public int getCountryCode() {
+        return countryCode;
+    }
+
+    /**
+     * 标签的 long 键，用于去重/统计等不装箱的数据结构
+     * <p>
+     * 数字卡号为 国家代码(10 位) &lt;&lt; 40 | 识别码(40 位)，只占用第 0-49 位；
+     * 国家代码或识别码超出位宽（如 FDX 的 3 位十六进制国家代码）时为卡号字符的 FNV-1a 散列
+     */
+    public long getTagKey() {
+        if (nationalId >= 0 && nationalId <= NATIONAL_ID_MASK
+                && countryCode >= 0 && countryCode <= COUNTRY_CODE_MASK) {
+            return ((long) countryCode << 40) | nationalId;
+        }
+        // 最高位置 1，与数字卡号区分
+        return ByteUtils.fnv1a(chars, 0, length) | Long.MIN_VALUE;
+    }
+
+    /**
+     * @return 卡号字符缓冲区，下一次 decode() 时被覆盖
+     */
+    public char[] getChars() {
+        return chars;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * 将卡号拷贝到 dst
+     *
+     * @return 拷贝的字符数
+     */
+    public int writeTo(char[] dst, int offset) {
+        System.arraycopy(chars, 0, dst, offset, length);
+        return length;
+    }
+
+    /**
+     * @return 卡号字符串，解码失败时为 null
+     */
+    public String getIdString() {
+        return format == FORMAT_NONE ? null : new String(chars, 0, length);
+    }
+}
@@ -0,0 +1,241 @@
+package com.pda_rfid_scanner.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 标签格式注册表
+ * <p>
+ * 按 起始字节 x 帧长 建一张查找表，每格存放可能匹配的格式，解码时一次查表得到候选，
+ * 依注册顺序逐个尝试。格式校验失败(校验和错误或内容无效)的帧直接丢弃并计数，
+ * 不再交给后面的格式，也不会作为标签上报。
+ * <p>
+ * 内置 '#' ASCII 格式({@link HashTerminatedFormat})与 ISO 11784/11785 FDX-B、HDX
+ * ({@link Iso11784Format})。应用可在启动时向 {@link #getDefault()} 注册自己的格式，
+ * 插件类无需修改：
+ * <pre>
+ * TagDecoderRegistry.getDefault().register(new MyTagFormat());
+ * </pre>
+ * 注册/注销时整表重建后替换，{@link #decode} 只读一次 volatile 引用，可与注册并发。
+ * decode 本身须在同一个解码线程中调用(与传入的 TagDecoder 一样)。
+ */
+public class TagDecoderRegistry {
+    public static final int MAX_FRAME_LENGTH = 64;
+
+    private static final Entry[] NONE = new Entry[0];
+    private static final TagDecoderRegistry DEFAULT = withBuiltInFormats();
+
+    /**
+     * 单个格式及其计数
+     */
+    private static final class Entry {
+        final TagFormat format;
+        final ScannerMetrics.Counter accepted = new ScannerMetrics.Counter();
+        final ScannerMetrics.Counter badChecksum = new ScannerMetrics.Counter();
+        final ScannerMetrics.Counter malformed = new ScannerMetrics.Counter();
+
+        Entry(TagFormat format) {
+            this.format = format;
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+    // 下标 起始字节 * (MAX_FRAME_LENGTH + 1) + 帧长
+    private volatile Entry[][] table = emptyTable();
+    private volatile boolean verifyChecksums = true;
+    private final ScannerMetrics.Counter unmatched = new ScannerMetrics.Counter();
+
+    /**
+     * 插件使用的进程级注册表，已包含内置格式
+     */
+    public static TagDecoderRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    public static TagDecoderRegistry withBuiltInFormats() {
+        TagDecoderRegistry registry = new TagDecoderRegistry();
+        registry.register(HashTerminatedFormat.INSTANCE);
+        registry.register(Iso11784Format.FDX_B);
+        registry.register(Iso11784Format.HDX);
+        return registry;
+    }
+
+    /**
+     * 注册格式，排在已注册格式之后
+     *
+     * @throws IllegalArgumentException 格式编号不在 1..255、已被占用或帧长范围无效
+     */
+    public synchronized void register(TagFormat format) {
+        int id = format.getFormat();
+        if (id <= TagDecoder.FORMAT_NONE || id > 255) {
+            throw new IllegalArgumentException("Format id must be 1..255");
+        }
+        if (find(id) != null) {
+            throw new IllegalArgumentException("Format " + id + " is already registered");
+        }
+        int start = format.getStartByte();
+        if (start != TagFormat.ANY_START_BYTE && (start < 0 || start > 255)) {
+            throw new IllegalArgumentException("Start byte must be 0..255 or ANY_START_BYTE");
+        }
+        if (format.getMinLength() < 1 || format.getMaxLength() > MAX_FRAME_LENGTH
+                || format.getMinLength() > format.getMaxLength()) {
+            throw new IllegalArgumentException("Frame length must be within 1.." + MAX_FRAME_LENGTH);
+        }
+        entries.add(new Entry(format));
+        rebuild();
+    }
+
+    /**
+     * 注销格式，可用于以自定义实现替换内置格式
+     *
+     * @return false 未注册该编号
+     */
+    public synchronized boolean unregister(int formatId) {
+        Entry entry = find(formatId);
+        if (entry == null) {
+            return false;
+        }
+        entries.remove(entry);
+        rebuild();
+        return true;
+    }
+
+    /**
+     * 是否检查校验和，默认检查
+     */
+    public void setVerifyChecksums(boolean verify) {
+        verifyChecksums = verify;
+    }
+
+    public boolean isVerifyingChecksums() {
+        return verifyChecksums;
+    }
+
+    /**
+     * 解码一帧
+     *
+     * @param out 结果写入的解码器
+     * @return 格式编号，未识别或被拒绝返回 {@link TagDecoder#FORMAT_NONE}
+     */
+    public int decode(byte[] frame, int length, TagDecoder out) {
+        out.clear();
+        if (length < 1 || length > MAX_FRAME_LENGTH) {
+            unmatched.increment();
+            return TagDecoder.FORMAT_NONE;
+        }
+        Entry[] candidates = table[(frame[0] & 0xFF) * (MAX_FRAME_LENGTH + 1) + length];
+        boolean verify = verifyChecksums;
+        for (Entry entry : candidates) {
+            switch (entry.format.decode(frame, length, verify, out)) {
+                case TagFormat.ACCEPT:
+                    entry.accepted.increment();
+                    return out.getFormat();
+                case TagFormat.BAD_CHECKSUM:
+                    entry.badChecksum.increment();
+                    out.clear();
+                    return TagDecoder.FORMAT_NONE;
+                case TagFormat.MALFORMED:
+                    entry.malformed.increment();
+                    out.clear();
+                    return TagDecoder.FORMAT_NONE;
+                default:
+                    break;
+            }
+        }
+        out.clear();
+        unmatched.increment();
+        return TagDecoder.FORMAT_NONE;
+    }
+
+    /**
+     * @return 校验和错误与内容无效的帧数之和
+     */
+    public synchronized long getRejectedCount() {
+        long rejected = 0;
+        for (Entry entry : entries) {
+            rejected += entry.badChecksum.sum() + entry.malformed.sum();
+        }
+        return rejected;
+    }
+
+    public long getUnmatchedCount() {
+        return unmatched.sum();
+    }
+
+    /**
+     * @return {unmatched, formats: {名称: {format, accepted, badChecksum, malformed}}}
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> formats = new LinkedHashMap<>();
+        for (Entry entry : entries) {
+            Map<String, Object> counts = new HashMap<>();
+            counts.put("format", entry.format.getFormat());
+            counts.put("accepted", entry.accepted.sum());
+            counts.put("badChecksum", entry.badChecksum.sum());
+            counts.put("malformed", entry.malformed.sum());
+            formats.put(entry.format.getName(), counts);
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("unmatched", unmatched.sum());
+        stats.put("verifyChecksums", verifyChecksums);
+        stats.put("formats", formats);
+        return stats;
+    }
+
+    public synchronized void resetCounters() {
+        unmatched.reset();
+        for (Entry entry : entries) {
+            entry.accepted.reset();
+            entry.badChecksum.reset();
+            entry.malformed.reset();
+        }
+    }
+
+    private Entry find(int formatId) {
+        for (Entry entry : entries) {
+            if (entry.format.getFormat() == formatId) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private void rebuild() {
+        Entry[][] rebuilt = emptyTable();
+        // 相同候选列表的格子共用一个数组
+        Map<List<Entry>, Entry[]> shared = new HashMap<>();
+        List<Entry> cell = new ArrayList<>();
+        for (int start = 0; start < 256; start++) {
+            for (int length = 1; length <= MAX_FRAME_LENGTH; length++) {
+                cell.clear();
+                for (Entry entry : entries) {
+                    TagFormat format = entry.format;
+                    int formatStart = format.getStartByte();
+                    if ((formatStart == TagFormat.ANY_START_BYTE || formatStart == start)
+                            && length >= format.getMinLength() && length <= format.getMaxLength()) {
+                        cell.add(entry);
+                    }
+                }
+                if (!cell.isEmpty()) {
+                    Entry[] candidates = shared.get(cell);
+                    if (candidates == null) {
+                        candidates = cell.toArray(NONE);
+                        shared.put(new ArrayList<>(cell), candidates);
+                    }
+                    rebuilt[start * (MAX_FRAME_LENGTH + 1) + length] = candidates;
+                }
+            }
+        }
+        table = rebuilt;
+    }
+
+    private static Entry[][] emptyTable() {
+        Entry[][] table = new Entry[256 * (MAX_FRAME_LENGTH + 1)][];
+        Arrays.fill(table, NONE);
+        return table;
+    }
+}
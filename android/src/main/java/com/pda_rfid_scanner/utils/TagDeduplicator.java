@@ -0,0 +1,176 @@
+package com.pda_rfid_scanner.utils;
+
+/**
+ * 标签去重
+ * <p>
+ * 标签停留在读头附近时模块会连续重复上报同一帧。窗口时间内再次读到的标签被抑制，
+ * 可选每隔 heartbeat 时间上报一次"仍在场"及累计读取次数。
+ * <p>
+ * 以 long 为键的开放寻址表，容量固定，每个键最多探测 {@link #MAX_PROBE} 个槽位；
+ * 过期条目原地复用，探测范围内全部在场时淘汰最久未读到的条目。
+ * 非线程安全，只应在解码线程中调用。
+ */
+public class TagDeduplicator {
+    /**
+     * 新标签或窗口外再次读到，应上报
+     */
+    public static final int RESULT_NEW = 0;
+    /**
+     * 窗口内重复，应丢弃
+     */
+    public static final int RESULT_DUPLICATE = 1;
+    /**
+     * 窗口内重复，但到了心跳时间，应上报"仍在场"
+     */
+    public static final int RESULT_HEARTBEAT = 2;
+
+    public static final int DEFAULT_CAPACITY = 256;
+    private static final int MAX_PROBE = 8;
+
+    private final long[] keys;
+    private final long[] lastSeen;
+    private final long[] lastReported;
+    private final int[] counts;
+    private final boolean[] used;
+    private final int mask;
+
+    private volatile long windowMs;
+    private volatile long heartbeatMs;
+    private int lastCount;
+    private long suppressed;
+
+    public TagDeduplicator() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 槽位数，向上取整为 2 的幂
+     */
+    public TagDeduplicator(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, MAX_PROBE) - 1) << 1;
+        keys = new long[size];
+        lastSeen = new long[size];
+        lastReported = new long[size];
+        counts = new int[size];
+        used = new boolean[size];
+        mask = size - 1;
+    }
+
+    /**
+     * @param windowMs    去重窗口，0 关闭去重
+     * @param heartbeatMs 心跳间隔，0 不上报心跳
+     */
+    public void configure(long windowMs, long heartbeatMs) {
+        this.windowMs = Math.max(0, windowMs);
+        this.heartbeatMs = Math.max(0, heartbeatMs);
+    }
+
+    public boolean isEnabled() {
+        return windowMs > 0;
+    }
+
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    public long getHeartbeatMs() {
+        return heartbeatMs;
+    }
+
+    /**
+     * 记录一次读取
+     *
+     * @param key   标签键，见 {@link TagDecoder#getTagKey()}
+     * @param nowMs 单调时钟毫秒数
+     * @return RESULT_NEW / RESULT_DUPLICATE / RESULT_HEARTBEAT
+     */
+    public int check(long key, long nowMs) {
+        long window = windowMs;
+        if (window <= 0) {
+            lastCount = 1;
+            return RESULT_NEW;
+        }
+
+        int home = mix(key) & mask;
+        // 优先复用空槽或过期槽位，其次淘汰最久未读到的槽位
+        int victim = -1;
+        int oldest = -1;
+        for (int i = 0; i < MAX_PROBE; i++) {
+            int slot = (home + i) & mask;
+            if (!used[slot]) {
+                if (victim < 0) {
+                    victim = slot;
+                }
+                break;
+            }
+            if (keys[slot] == key) {
+                return hit(slot, nowMs, window);
+            }
+            if (victim < 0 && nowMs - lastSeen[slot] >= window) {
+                victim = slot;
+            }
+            if (oldest < 0 || lastSeen[slot] < lastSeen[oldest]) {
+                oldest = slot;
+            }
+        }
+        if (victim < 0) {
+            victim = oldest;
+        }
+
+        used[victim] = true;
+        keys[victim] = key;
+        lastSeen[victim] = nowMs;
+        lastReported[victim] = nowMs;
+        counts[victim] = 1;
+        lastCount = 1;
+        return RESULT_NEW;
+    }
+
+    private int hit(int slot, long nowMs, long window) {
+        if (nowMs - lastSeen[slot] >= window) {
+            // 离开后重新出现
+            lastSeen[slot] = nowMs;
+            lastReported[slot] = nowMs;
+            counts[slot] = 1;
+            lastCount = 1;
+            return RESULT_NEW;
+        }
+        lastSeen[slot] = nowMs;
+        if (counts[slot] < Integer.MAX_VALUE) {
+            counts[slot]++;
+        }
+        lastCount = counts[slot];
+        long heartbeat = heartbeatMs;
+        if (heartbeat > 0 && nowMs - lastReported[slot] >= heartbeat) {
+            lastReported[slot] = nowMs;
+            return RESULT_HEARTBEAT;
+        }
+        suppressed++;
+        return RESULT_DUPLICATE;
+    }
+
+    /**
+     * @return 最近一次 check() 对应标签在本次在场期间的累计读取次数
+     */
+    public int getLastCount() {
+        return lastCount;
+    }
+
+    /**
+     * @return 被抑制的重复读取总数
+     */
+    public long getSuppressedCount() {
+        return suppressed;
+    }
+
+    public void clear() {
+        for (int i = 0; i < used.length; i++) {
+            used[i] = false;
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,60 @@
+package com.pda_rfid_scanner.utils;
+
+/**
+ * 一种标签帧格式，注册到 {@link TagDecoderRegistry} 后参与解码
+ * <p>
+ * 注册表按帧的起始字节和长度查表，只把 {@link #getStartByte()} 与
+ * [{@link #getMinLength()}, {@link #getMaxLength()}] 都匹配的帧交给 {@link #decode}。
+ * decode 在解码线程上调用，不应分配对象或阻塞。
+ */
+public interface TagFormat {
+    /**
+     * 解码成功，结果已写入 TagDecoder
+     */
+    int ACCEPT = 0;
+    /**
+     * 不是本格式，交给下一个候选格式
+     */
+    int NO_MATCH = 1;
+    /**
+     * 属于本格式但校验失败，丢弃该帧
+     */
+    int BAD_CHECKSUM = 2;
+    /**
+     * 属于本格式但内容无效(非法字符、取值超出范围)，丢弃该帧
+     */
+    int MALFORMED = 3;
+
+    /**
+     * 任意起始字节
+     */
+    int ANY_START_BYTE = -1;
+
+    /**
+     * @return 格式编号 1..255，写入事件的格式字段；内置格式见 TagDecoder.FORMAT_*
+     */
+    int getFormat();
+
+    String getName();
+
+    /**
+     * @return 帧的第一个字节，或 {@link #ANY_START_BYTE}
+     */
+    int getStartByte();
+
+    int getMinLength();
+
+    /**
+     * @return 最大帧长，不超过 {@link TagDecoderRegistry#MAX_FRAME_LENGTH}
+     */
+    int getMaxLength();
+
+    /**
+     * 校验并解码一帧
+     *
+     * @param verifyChecksum false 时跳过校验和检查
+     * @param out            成功时通过 {@link TagDecoder#setResult} / {@link TagDecoder#setNumericId} 写入结果
+     * @return {@link #ACCEPT} / {@link #NO_MATCH} / {@link #BAD_CHECKSUM} / {@link #MALFORMED}
+     */
+    int decode(byte[] frame, int length, boolean verifyChecksum, TagDecoder out);
+}
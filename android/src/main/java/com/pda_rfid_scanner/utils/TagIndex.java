@@ -0,0 +1,274 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * 已知标签索引
+ * <p>
+ * 索引文件按 64 位键升序存放定长记录，打开时整体内存映射，查找为映射区上的二分查找，
+ * 不把表复制到 Java 堆。键由卡号字符串计算({@link #keyOf(char[], int)})，
+ * 与解码器输出的卡号一一对应。
+ * <p>
+ * 文件格式(小端序)：
+ * <pre>
+ * "TIDX"  魔数
+ * u8      版本 {@link #VERSION}
+ * u8      每条记录的附加数据字节数 p
+ * u16     保留
+ * u32     记录数
+ * u32     保留
+ * 每条记录：
+ *   i64   键，按有符号数升序
+ *   p     附加数据
+ * </pre>
+ * 打开后只读，查找只做绝对位置读取，可在任意线程调用。
+ */
+public class TagIndex {
+    public static final int VERSION = 1;
+    public static final int HEADER_LENGTH = 16;
+    public static final int MAX_PAYLOAD_SIZE = 255;
+
+    private static final byte[] MAGIC = {'T', 'I', 'D', 'X'};
+    private static final int MAX_DIGITS = 17;
+
+    private final File file;
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int payloadSize;
+    private final int recordSize;
+
+    private TagIndex(File file, ByteBuffer buffer, int count, int payloadSize) {
+        this.file = file;
+        this.buffer = buffer;
+        this.count = count;
+        this.payloadSize = payloadSize;
+        this.recordSize = 8 + payloadSize;
+    }
+
+    /**
+     * 映射索引文件
+     */
+    public static TagIndex open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            FileChannel channel = raf.getChannel();
+            long size = channel.size();
+            if (size < HEADER_LENGTH) {
+                throw new IOException("Not a tag index");
+            }
+            // 映射在通道关闭后仍然有效
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (buffer.get(i) != MAGIC[i]) {
+                    throw new IOException("Not a tag index");
+                }
+            }
+            if (buffer.get(4) != VERSION) {
+                throw new IOException("Unsupported tag index version " + buffer.get(4));
+            }
+            int payloadSize = buffer.get(5) & 0xFF;
+            int count = buffer.getInt(8);
+            if (count < 0 || size != HEADER_LENGTH + (long) count * (8 + payloadSize)) {
+                throw new IOException("Corrupt tag index");
+            }
+            return new TagIndex(file, buffer, count, payloadSize);
+        }
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int getPayloadSize() {
+        return payloadSize;
+    }
+
+    /**
+     * @return 记录序号，未找到返回 -1
+     */
+    public int find(long key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long k = buffer.getLong(HEADER_LENGTH + mid * recordSize);
+            if (k < key) {
+                low = mid + 1;
+            } else if (k > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return 卡号对应的记录序号，未找到返回 -1
+     */
+    public int find(char[] id, int length) {
+        return find(keyOf(id, length));
+    }
+
+    /**
+     * 拷贝记录的附加数据
+     *
+     * @return 拷贝的字节数，即 {@link #getPayloadSize()}
+     */
+    public int copyPayload(int record, byte[] dst, int offset) {
+        int pos = HEADER_LENGTH + record * recordSize + 8;
+        for (int i = 0; i < payloadSize; i++) {
+            dst[offset + i] = buffer.get(pos + i);
+        }
+        return payloadSize;
+    }
+
+    /**
+     * 卡号的索引键
+     * <p>
+     * 不超过 17 位的纯数字卡号为 位数 &lt;&lt; 57 | 数值，保留前导零的区别；
+     * 其余为字符的 FNV-1a 散列并置最高位
+     */
+    public static long keyOf(char[] id, int length) {
+        if (length > 0 && length <= MAX_DIGITS) {
+            long value = 0;
+            int i = 0;
+            while (i < length && id[i] >= '0' && id[i] <= '9') {
+                value = value * 10 + (id[i] - '0');
+                i++;
+            }
+            if (i == length) {
+                return ((long) length << 57) | value;
+            }
+        }
+        return ByteUtils.fnv1a(id, 0, length) | Long.MIN_VALUE;
+    }
+
+    public static long keyOf(String id) {
+        return keyOf(id.toCharArray(), id.length());
+    }
+
+    /**
+     * 生成索引文件，先写临时文件并落盘再改名，已打开的旧索引不受影响
+     *
+     * @param ids         卡号
+     * @param payloads    附加数据，第 i 个卡号对应 [i * payloadSize, (i + 1) * payloadSize)；payloadSize 为 0 时可为 null
+     * @param payloadSize 每条附加数据字节数，0..{@link #MAX_PAYLOAD_SIZE}
+     * @return 记录数
+     * @throws IllegalArgumentException 参数不匹配或卡号重复
+     */
+    public static int build(File file, List<String> ids, byte[] payloads, int payloadSize) throws IOException {
+        int count = ids.size();
+        if (payloadSize < 0 || payloadSize > MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("payloadSize must be 0.." + MAX_PAYLOAD_SIZE);
+        }
+        if (payloadSize > 0 && (payloads == null || payloads.length != count * payloadSize)) {
+            throw new IllegalArgumentException("payloads must hold " + count + " x " + payloadSize + " bytes");
+        }
+        long[] keys = new long[count];
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = keyOf(ids.get(i));
+            order[i] = i;
+        }
+        sort(keys, order, 0, count - 1);
+        for (int i = 1; i < count; i++) {
+            if (keys[i] == keys[i - 1]) {
+                throw new IllegalArgumentException("Duplicate tag " + ids.get(order[i]));
+            }
+        }
+
+        File tmp = new File(file.getPath() + ".tmp");
+        FileOutputStream fileOut = new FileOutputStream(tmp);
+        try (OutputStream out = new BufferedOutputStream(fileOut, 64 * 1024)) {
+            byte[] header = new byte[HEADER_LENGTH];
+            System.arraycopy(MAGIC, 0, header, 0, MAGIC.length);
+            header[4] = VERSION;
+            header[5] = (byte) payloadSize;
+            ScanEventCodec.putInt(header, 8, count);
+            out.write(header);
+            byte[] key = new byte[8];
+            for (int i = 0; i < count; i++) {
+                ScanEventCodec.putLong(key, 0, keys[i]);
+                out.write(key);
+                if (payloadSize > 0) {
+                    out.write(payloads, order[i] * payloadSize, payloadSize);
+                }
+            }
+            out.flush();
+            // 改名前落盘，断电后不会留下指向未写完数据的索引
+            fileOut.getFD().sync();
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Failed to rename " + tmp + " to " + file);
+        }
+        return count;
+    }
+
+    /**
+     * 按键升序同时排列 keys 与 order，先处理较小的一半以限制递归深度
+     */
+    private static void sort(long[] keys, int[] order, int low, int high) {
+        while (high - low > 16) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < keys[low]) swap(keys, order, mid, low);
+            if (keys[high] < keys[low]) swap(keys, order, high, low);
+            if (keys[high] < keys[mid]) swap(keys, order, high, mid);
+            long pivot = keys[mid];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (keys[i] < pivot) i++;
+                while (keys[j] > pivot) j--;
+                if (i <= j) {
+                    swap(keys, order, i++, j--);
+                }
+            }
+            if (j - low < high - i) {
+                sort(keys, order, low, j);
+                low = i;
+            } else {
+                sort(keys, order, i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            long key = keys[i];
+            int index = order[i];
+            int j = i - 1;
+            while (j >= low && keys[j] > key) {
+                keys[j + 1] = keys[j];
+                order[j + 1] = order[j];
+                j--;
+            }
+            keys[j + 1] = key;
+            order[j + 1] = index;
+        }
+    }
+
+    private static void swap(long[] keys, int[] order, int a, int b) {
+        long k = keys[a];
+        keys[a] = keys[b];
+        keys[b] = k;
+        int o = order[a];
+        order[a] = order[b];
+        order[b] = o;
+    }
+}
@@ -0,0 +1,211 @@
+package com.pda_rfid_scanner.utils;
+
+import java.util.Arrays;
+
+/**
+ * 盘点会话中的标签汇总
+ * <p>
+ * 以 long 标签键({@link TagDecoder#getTagKey()})为键的开放寻址表(线性探测，装载因子 1/2)，
+ * 条目按首次读到的顺序存于并列的基本类型数组中，卡号字符统一存放在一个 char 池里，
+ * 每次读取只更新数组元素，不产生对象。自上次快照以来变化过的条目记录在脏列表中，
+ * {@link #snapshot(boolean)} 可只导出增量。
+ * <p>
+ * 快照编码(小端序)，与 lib/pda_rfid_scanner.dart 中的解码保持一致：
+ * <pre>
+ *  0  u8   版本 {@link #VERSION}
+ *  1  u8   0 全量 / 1 增量
+ *  2  u16  保留
+ *  4  u32  本快照条目数
+ *  8  u32  会话累计标签数
+ * 12  u32  保留
+ * 16  i64  会话累计读取次数
+ * 24  i64  会话开始时间，Unix 纪元微秒
+ * 每个条目：
+ *  0  i64  首次读到，Unix 纪元微秒
+ *  8  i64  最后读到，Unix 纪元微秒
+ * 16  u32  读取次数
+ * 20  u8   卡号长度 n
+ * 21  n    卡号(ASCII)
+ * </pre>
+ * 非线程安全，只应在解码线程中调用。
+ */
+public class TagInventory {
+    public static final int VERSION = 1;
+    public static final int HEADER_LENGTH = 32;
+    public static final int ENTRY_HEADER_LENGTH = 21;
+
+    private static final int INITIAL_ENTRIES = 256;
+
+    // 哈希表存条目下标 + 1，0 为空槽
+    private int[] table = new int[INITIAL_ENTRIES * 2];
+    private long[] keys = new long[INITIAL_ENTRIES];
+    private int[] counts = new int[INITIAL_ENTRIES];
+    private long[] firstSeen = new long[INITIAL_ENTRIES];
+    private long[] lastSeen = new long[INITIAL_ENTRIES];
+    private int[] idOffsets = new int[INITIAL_ENTRIES];
+    private byte[] idLengths = new byte[INITIAL_ENTRIES];
+    private boolean[] dirty = new boolean[INITIAL_ENTRIES];
+    private int[] dirtyList = new int[INITIAL_ENTRIES];
+    private char[] idChars = new char[INITIAL_ENTRIES * 16];
+    private int idCharsUsed;
+    private int size;
+    private int dirtyCount;
+    private long reads;
+    private long startMicros;
+
+    /**
+     * 清空并开始新的会话
+     */
+    public void clear(long startMicros) {
+        Arrays.fill(table, 0);
+        Arrays.fill(dirty, 0, size, false);
+        size = 0;
+        dirtyCount = 0;
+        idCharsUsed = 0;
+        reads = 0;
+        this.startMicros = startMicros;
+    }
+
+    /**
+     * 记录一次读取
+     *
+     * @param key     标签键
+     * @param id      卡号字符
+     * @param idLength 卡号长度
+     * @param nowMicros 读取时间，Unix 纪元微秒
+     */
+    public void record(long key, char[] id, int idLength, long nowMicros) {
+        reads++;
+        int mask = table.length - 1;
+        int slot = mix(key) & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            int index = entry - 1;
+            if (keys[index] == key) {
+                if (counts[index] < Integer.MAX_VALUE) {
+                    counts[index]++;
+                }
+                lastSeen[index] = nowMicros;
+                markDirty(index);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int index = add(key, id, idLength, nowMicros);
+        table[slot] = index + 1;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getReadCount() {
+        return reads;
+    }
+
+    /**
+     * @return 自上次快照以来有变化的条目数
+     */
+    public int getDirtyCount() {
+        return dirtyCount;
+    }
+
+    /**
+     * 导出快照并清空脏列表
+     *
+     * @param changesOnly true 只导出自上次快照以来新增或再次读到的条目
+     */
+    public byte[] snapshot(boolean changesOnly) {
+        int count = changesOnly ? dirtyCount : size;
+        int length = HEADER_LENGTH;
+        for (int i = 0; i < count; i++) {
+            length += ENTRY_HEADER_LENGTH + idLengths[changesOnly ? dirtyList[i] : i];
+        }
+        byte[] out = new byte[length];
+        out[0] = VERSION;
+        out[1] = (byte) (changesOnly ? 1 : 0);
+        ScanEventCodec.putInt(out, 4, count);
+        ScanEventCodec.putInt(out, 8, size);
+        ScanEventCodec.putLong(out, 16, reads);
+        ScanEventCodec.putLong(out, 24, startMicros);
+        int pos = HEADER_LENGTH;
+        for (int i = 0; i < count; i++) {
+            int index = changesOnly ? dirtyList[i] : i;
+            ScanEventCodec.putLong(out, pos, firstSeen[index]);
+            ScanEventCodec.putLong(out, pos + 8, lastSeen[index]);
+            ScanEventCodec.putInt(out, pos + 16, counts[index]);
+            int n = idLengths[index];
+            out[pos + 20] = (byte) n;
+            int offset = idOffsets[index];
+            for (int c = 0; c < n; c++) {
+                out[pos + ENTRY_HEADER_LENGTH + c] = (byte) idChars[offset + c];
+            }
+            pos += ENTRY_HEADER_LENGTH + n;
+        }
+        for (int i = 0; i < dirtyCount; i++) {
+            dirty[dirtyList[i]] = false;
+        }
+        dirtyCount = 0;
+        return out;
+    }
+
+    private int add(long key, char[] id, int idLength, long nowMicros) {
+        if (size == keys.length) {
+            grow(size * 2);
+        }
+        int n = Math.min(idLength, 127);
+        if (idCharsUsed + n > idChars.length) {
+            idChars = Arrays.copyOf(idChars, Math.max(idChars.length * 2, idCharsUsed + n));
+        }
+        System.arraycopy(id, 0, idChars, idCharsUsed, n);
+        int index = size++;
+        keys[index] = key;
+        counts[index] = 1;
+        firstSeen[index] = nowMicros;
+        lastSeen[index] = nowMicros;
+        idOffsets[index] = idCharsUsed;
+        idLengths[index] = (byte) n;
+        idCharsUsed += n;
+        markDirty(index);
+        return index;
+    }
+
+    private void markDirty(int index) {
+        if (!dirty[index]) {
+            dirty[index] = true;
+            dirtyList[dirtyCount++] = index;
+        }
+    }
+
+    private void grow(int capacity) {
+        keys = Arrays.copyOf(keys, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+        firstSeen = Arrays.copyOf(firstSeen, capacity);
+        lastSeen = Arrays.copyOf(lastSeen, capacity);
+        idOffsets = Arrays.copyOf(idOffsets, capacity);
+        idLengths = Arrays.copyOf(idLengths, capacity);
+        dirty = Arrays.copyOf(dirty, capacity);
+        dirtyList = Arrays.copyOf(dirtyList, capacity);
+    }
+
+    private void rehash(int capacity) {
+        int[] resized = new int[capacity];
+        int mask = capacity - 1;
+        for (int index = 0; index < size; index++) {
+            int slot = mix(keys[index]) & mask;
+            while (resized[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            resized[slot] = index + 1;
+        }
+        table = resized;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
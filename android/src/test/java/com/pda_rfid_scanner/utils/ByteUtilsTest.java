@@ -0,0 +1,110 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+public class ByteUtilsTest {
+
+    @Test
+    public void bytesToHexString() {
+        byte[] data = {0x00, 0x0f, 0x10, (byte) 0xab, (byte) 0xff};
+        assertEquals("000F10ABFF", ByteUtils.bytesToHexString(data));
+        assertEquals("0F10", ByteUtils.bytesToHexString(data, 1, 2));
+        assertEquals("000F10ABFF", ByteUtils.parseByte2HexStr(data));
+        assertEquals("", ByteUtils.bytesToHexString(new byte[0]));
+    }
+
+    @Test
+    public void hexRoundTripMatchesLegacy() {
+        Random random = new Random(7);
+        for (int n = 0; n < 1000; n++) {
+            byte[] data = new byte[random.nextInt(40)];
+            random.nextBytes(data);
+            String hex = ByteUtils.bytesToHexString(data);
+            assertEquals(legacyBytesToHexString(data), hex);
+            if (data.length > 0) {
+                assertArrayEquals(data, ByteUtils.parseHexStr2Byte(hex));
+                assertArrayEquals(data, ByteUtils.parseHexStr2Byte(hex.toLowerCase()));
+            }
+        }
+    }
+
+    @Test
+    public void parseHexStr2Byte() {
+        assertNull(ByteUtils.parseHexStr2Byte(""));
+        assertArrayEquals(new byte[]{0x12, (byte) 0xab}, ByteUtils.parseHexStr2Byte("12aB"));
+        // 奇数长度忽略最后一个字符
+        assertArrayEquals(new byte[]{0x12}, ByteUtils.parseHexStr2Byte("123"));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseHexStr2ByteRejectsNonHex() {
+        ByteUtils.parseHexStr2Byte("1G");
+    }
+
+    @Test
+    public void parseHexBytes() {
+        byte[] ascii = {'x', '4', '1', 'a', '9', 'x'};
+        byte[] out = new byte[2];
+        assertEquals(2, ByteUtils.parseHexBytes(ascii, 1, 4, out, 0));
+        assertArrayEquals(new byte[]{0x41, (byte) 0xa9}, out);
+    }
+
+    @Test
+    public void checkcode0007() {
+        assertEquals("00", ByteUtils.checkcode_0007(""));
+        assertEquals("0f", ByteUtils.checkcode_0007("0F"));
+        assertEquals("0e", ByteUtils.checkcode_0007("0F01"));
+        assertEquals("ff", ByteUtils.checkcode_0007("F00F"));
+        assertEquals("70", ByteUtils.checkcode_0007(
+                ByteUtils.convertStringToHex("41A199EBC17E30010000000000")));
+    }
+
+    @Test
+    public void xorChecksum() {
+        byte[] data = {0x55, 0x0f, (byte) 0xf0, 0x01};
+        assertEquals((byte) 0xab, ByteUtils.xorChecksum(data, 0, 4));
+        assertEquals((byte) 0xff, ByteUtils.xorChecksum(data, 1, 2));
+        assertEquals((byte) 0xab, ByteUtils.getXor(data, 4));
+        assertEquals(0, ByteUtils.xorChecksum(data, 2, 0));
+    }
+
+    @Test
+    public void parseHex2Opposite() {
+        assertEquals("FF00A5", ByteUtils.parseHex2Opposite("00ff5a"));
+        assertEquals("0", ByteUtils.parseHex2Opposite("A"));
+    }
+
+    @Test
+    public void convertHexToString() {
+        assertEquals("I Love Java", ByteUtils.convertHexToString("49204c6f7665204a617661"));
+        assertEquals("I", ByteUtils.convertHexToString("492"));
+    }
+
+    private static String legacyBytesToHexString(byte[] bArr) {
+        StringBuffer sb = new StringBuffer(bArr.length);
+        String sTmp;
+
+        for (int i = 0; i < bArr.length; i++) {
+            sTmp = Integer.toHexString(0xFF & bArr[i]);
+            if (sTmp.length() < 2)
+                sb.append(0);
+            sb.append(sTmp.toUpperCase());
+        }
+
+        return sb.toString();
+    }
+
+    @Test
+    public void fnv1aMatchesReferenceVectors() {
+        assertEquals(0xcbf29ce484222325L, ByteUtils.fnv1a(new byte[0], 0, 0));
+        byte[] a = "xa".getBytes();
+        assertEquals(0xaf63dc4c8601ec8cL, ByteUtils.fnv1a(a, 1, 1));
+        assertEquals(0xaf63dc4c8601ec8cL, ByteUtils.fnv1a("xa".toCharArray(), 1, 1));
+    }
+}
@@ -0,0 +1,47 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CaptureOrderBufferTest {
+    private final List<Object> sent = new ArrayList<>();
+    private final CaptureOrderBuffer buffer = new CaptureOrderBuffer(sent::add);
+
+    @Test
+    public void releasesInCaptureOrderAfterHold() {
+        buffer.setHoldMicros(1000);
+        buffer.add("rfid", 1500);
+        buffer.add("barcode", 1200);
+        buffer.add("rfid2", 1500);
+        // 未到保留时间
+        assertEquals(100, buffer.release(2100));
+        assertEquals(0, sent.size());
+
+        assertEquals(-1, buffer.release(2500));
+        assertEquals(Arrays.<Object>asList("barcode", "rfid", "rfid2"), sent);
+    }
+
+    @Test
+    public void lateEventIsSentImmediately() {
+        buffer.setHoldMicros(100);
+        buffer.add("a", 1000);
+        buffer.release(1200);
+        buffer.add("late", 900);
+        assertEquals(Arrays.<Object>asList("a", "late"), sent);
+        assertEquals(1, buffer.getLateEvents());
+    }
+
+    @Test
+    public void flushSendsEverything() {
+        buffer.add("b", 20);
+        buffer.add("a", 10);
+        buffer.flush();
+        assertEquals(Arrays.<Object>asList("a", "b"), sent);
+        assertEquals(0, buffer.size());
+    }
+}
@@ -0,0 +1,104 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class DeviceCommandQueueTest {
+    private static final int RFID = 1;
+    private static final int BARCODE = 2;
+
+    private interface Reply {
+        void done(String value);
+    }
+
+    private final List<String> executed = new ArrayList<>();
+    private final DeviceCommandQueue<Reply> queue = new DeviceCommandQueue<>("test", results -> value -> {
+        for (Reply reply : results) {
+            if (reply != null) {
+                reply.done(value);
+            }
+        }
+    });
+
+    private DeviceCommandQueue.Command<Reply> command(final String name) {
+        return result -> {
+            executed.add(name);
+            result.done(name + " done");
+        };
+    }
+
+    /**
+     * 阻塞命令线程，让后续命令留在队列中
+     */
+    private CountDownLatch blockQueue() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        queue.submit(DeviceCommandQueue.KEY_NONE, result -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, null);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        return release;
+    }
+
+    @Test
+    public void runsInSubmitOrderOffCallerThread() throws InterruptedException {
+        final Thread caller = Thread.currentThread();
+        final Thread[] worker = new Thread[1];
+        queue.submit(DeviceCommandQueue.KEY_NONE, result -> worker[0] = Thread.currentThread(), null);
+        queue.submit(RFID, command("rfid on"), null);
+        queue.submit(BARCODE, command("barcode on"), null);
+        queue.submit(RFID, command("rfid off"), null);
+        assertTrue(queue.awaitIdle(1000));
+        assertTrue(worker[0] != caller);
+        assertEquals(Arrays.asList("rfid on", "barcode on", "rfid off"), executed);
+        assertEquals(0, queue.getCoalescedCount());
+    }
+
+    @Test
+    public void coalescesTogglesQueuedBehindBusyCommand() throws InterruptedException {
+        CountDownLatch release = blockQueue();
+        List<String> first = new ArrayList<>();
+        List<String> second = new ArrayList<>();
+        List<String> third = new ArrayList<>();
+        queue.submit(RFID, command("rfid on"), first::add);
+        queue.submit(RFID, command("rfid off"), second::add);
+        queue.submit(RFID, command("rfid on"), third::add);
+        assertEquals(1, queue.getPendingCount());
+        release.countDown();
+        assertTrue(queue.awaitIdle(1000));
+
+        // 只执行最后一条，三个调用方都得到它的结果
+        assertEquals(Arrays.asList("rfid on"), executed);
+        assertEquals(Arrays.asList("rfid on done"), first);
+        assertEquals(Arrays.asList("rfid on done"), second);
+        assertEquals(Arrays.asList("rfid on done"), third);
+        assertEquals(2, queue.getCoalescedCount());
+    }
+
+    @Test
+    public void onlyCoalescesTail() throws InterruptedException {
+        CountDownLatch release = blockQueue();
+        queue.submit(RFID, command("rfid on"), null);
+        queue.submit(BARCODE, command("barcode on"), null);
+        queue.submit(RFID, command("rfid off"), null);
+        queue.submit(DeviceCommandQueue.KEY_NONE, command("standby"), null);
+        queue.submit(DeviceCommandQueue.KEY_NONE, command("standby"), null);
+        release.countDown();
+        assertTrue(queue.awaitIdle(1000));
+        assertEquals(Arrays.asList("rfid on", "barcode on", "rfid off", "standby", "standby"), executed);
+        assertEquals(0, queue.getCoalescedCount());
+    }
+}
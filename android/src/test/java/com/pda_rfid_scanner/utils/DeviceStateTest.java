@@ -0,0 +1,55 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DeviceStateTest {
+
+    @Test
+    public void transitions() {
+        DeviceState state = new DeviceState();
+        assertEquals("unknown", state.modeName());
+        state.start(DeviceState.RFID);
+        assertEquals("rfid", state.modeName());
+        state.start(DeviceState.BARCODE);
+        assertEquals("dual", state.modeName());
+
+        state.standby(DeviceState.RFID);
+        assertEquals("barcode", state.modeName());
+        assertTrue(state.is(DeviceState.RFID_STANDBY));
+        assertFalse(state.is(DeviceState.RFID));
+
+        // 从待机恢复清除待机位
+        assertEquals(DeviceState.BARCODE | DeviceState.RFID_STANDBY, state.start(DeviceState.RFID));
+        assertEquals(DeviceState.BARCODE | DeviceState.RFID, state.get());
+
+        state.standby(DeviceState.BARCODE);
+        state.stop(DeviceState.BARCODE);
+        state.stop(DeviceState.RFID);
+        assertEquals(0, state.get());
+    }
+
+    @Test
+    public void concurrentUpdatesAreNotLost() throws InterruptedException {
+        final DeviceState state = new DeviceState();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int bit = 1 << (4 + t);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) {
+                    state.update(0, bit);
+                    state.update(bit, 0);
+                }
+                state.update(0, bit);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0xF0, state.get());
+    }
+}
@@ -0,0 +1,169 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FrameAssemblerTest {
+    /**
+     * 999 123456789012
+     */
+    private static final byte[] FDX_FRAME = fdxFrame("41A199EBC17E30010000000000");
+    /**
+     * 校验字节恰好为 0x02
+     */
+    private static final byte[] FDX_FRAME_STX_CHECKSUM = fdxFrame("B0000000007E30010000000000");
+    private static final byte[] HASH_FRAME = frame("\u0002A985000012345678  #");
+
+    private final List<byte[]> frames = new ArrayList<>();
+    private FrameAssembler assembler;
+
+    @Before
+    public void setUp() {
+        frames.clear();
+        assembler = new FrameAssembler((frame, length) -> frames.add(Arrays.copyOf(frame, length)));
+    }
+
+    @Test
+    public void wholeFrameInOneRead() {
+        feed(FDX_FRAME);
+        assertEquals(1, frames.size());
+        assertArrayEquals(FDX_FRAME, frames.get(0));
+    }
+
+    @Test
+    public void frameSplitAcrossReads() {
+        assembler.feed(FDX_FRAME, 0, 7);
+        assembler.feed(FDX_FRAME, 7, 20);
+        assertEquals(0, frames.size());
+        assembler.feed(FDX_FRAME, 27, FDX_FRAME.length - 27);
+        assertEquals(1, frames.size());
+        assertArrayEquals(FDX_FRAME, frames.get(0));
+    }
+
+    @Test
+    public void byteByByte() {
+        for (int i = 0; i < FDX_FRAME.length; i++) {
+            assembler.feed(FDX_FRAME, i, 1);
+        }
+        assertEquals(1, frames.size());
+        assertArrayEquals(FDX_FRAME, frames.get(0));
+    }
+
+    @Test
+    public void checksumBytesAreNotFrameDelimiters() {
+        assertEquals(FrameAssembler.STX, FDX_FRAME_STX_CHECKSUM[FrameAssembler.FDX_CHECKSUM_OFFSET]);
+        feed(concat(FDX_FRAME_STX_CHECKSUM, FDX_FRAME));
+        assertEquals(2, frames.size());
+        assertArrayEquals(FDX_FRAME_STX_CHECKSUM, frames.get(0));
+        assertArrayEquals(FDX_FRAME, frames.get(1));
+    }
+
+    @Test
+    public void mergedFramesAndJunkPrefix() {
+        byte[] junk = {0x7f, 0x00, 0x41};
+        feed(concat(junk, FDX_FRAME, HASH_FRAME, FDX_FRAME));
+        assertEquals(3, frames.size());
+        assertArrayEquals(FDX_FRAME, frames.get(0));
+        assertArrayEquals(HASH_FRAME, frames.get(1));
+        assertArrayEquals(FDX_FRAME, frames.get(2));
+        assertEquals(junk.length, assembler.getDiscardedBytes());
+    }
+
+    @Test
+    public void truncatedFrameIsDroppedOnNextStx() {
+        feed(concat(Arrays.copyOf(FDX_FRAME, 12), FDX_FRAME));
+        assertEquals(1, frames.size());
+        assertArrayEquals(FDX_FRAME, frames.get(0));
+        assertEquals(12, assembler.getDiscardedBytes());
+    }
+
+    @Test
+    public void overlongFrameIsDiscarded() {
+        byte[] noise = new byte[FrameAssembler.DEFAULT_MAX_FRAME_LENGTH + 10];
+        Arrays.fill(noise, (byte) 'A');
+        noise[0] = FrameAssembler.STX;
+        feed(concat(noise, FDX_FRAME));
+        assertEquals(1, frames.size());
+        assertArrayEquals(FDX_FRAME, frames.get(0));
+    }
+
+    @Test
+    public void manyFramesWrapTheRing() {
+        byte[] stream = new byte[0];
+        for (int i = 0; i < 40; i++) {
+            stream = concat(stream, FDX_FRAME);
+        }
+        for (int off = 0; off < stream.length; off += 64) {
+            assembler.feed(stream, off, Math.min(64, stream.length - off));
+        }
+        assertEquals(40, frames.size());
+        assertEquals(40, assembler.getFrameCount());
+        for (byte[] f : frames) {
+            assertArrayEquals(FDX_FRAME, f);
+        }
+    }
+
+    @Test
+    public void stxEtxProfileEndsAtAnyEtx() {
+        assembler = new FrameAssembler((frame, length) -> frames.add(Arrays.copyOf(frame, length)),
+                FrameAssembler.DEFAULT_MAX_FRAME_LENGTH, FrameAssembler.PROFILE_STX_ETX);
+        // '#' 在第 19 字节也不结束帧
+        byte[] data = frame("\u0002A985000012345678  #1\u0003");
+        feed(data);
+        assertEquals(1, frames.size());
+        assertArrayEquals(data, frames.get(0));
+    }
+
+    @Test
+    public void resetDropsPartialFrame() {
+        assembler.feed(FDX_FRAME, 0, 10);
+        assembler.reset();
+        assembler.feed(FDX_FRAME, 10, FDX_FRAME.length - 10);
+        assertEquals(0, frames.size());
+    }
+
+    private void feed(byte[] data) {
+        assembler.feed(data, 0, data.length);
+    }
+
+    static byte[] fdxFrame(String payload) {
+        byte[] ascii = frame(payload);
+        byte[] out = new byte[FrameAssembler.FDX_FRAME_LENGTH];
+        out[0] = FrameAssembler.STX;
+        System.arraycopy(ascii, 0, out, 1, ascii.length);
+        byte xor = 0;
+        for (byte b : ascii) {
+            xor ^= b;
+        }
+        out[27] = xor;
+        out[28] = (byte) ~xor;
+        out[29] = FrameAssembler.ETX;
+        return out;
+    }
+
+    private static byte[] frame(String s) {
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        int length = 0;
+        for (byte[] p : parts) {
+            length += p.length;
+        }
+        byte[] out = new byte[length];
+        int pos = 0;
+        for (byte[] p : parts) {
+            System.arraycopy(p, 0, out, pos, p.length);
+            pos += p.length;
+        }
+        return out;
+    }
+}
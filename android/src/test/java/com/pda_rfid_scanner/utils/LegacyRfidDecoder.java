@@ -0,0 +1,79 @@
+package com.pda_rfid_scanner.utils;
+
+import java.math.BigInteger;
+
+/**
+ * 原 PdaRfidScannerPlugin.processRfidData 的 BigInteger/String 实现，
+ * 作为 {@link TagDecoder} 的对照基准，仅去掉了日志。
+ */
+final class LegacyRfidDecoder {
+
+    private LegacyRfidDecoder() {
+    }
+
+    static String processRfidData(final byte[] data) {
+        try {
+            byte[] id = new byte[64];
+            System.arraycopy(data, 0, id, 0, data.length);
+
+            if ((data.length >= 20) & (id[19] == 35)) {
+                // First RFID format
+                byte[] temp = new byte[15];
+                System.arraycopy(id, 2, temp, 0, 15);
+                return new String(temp, "ascii");
+            } else if (data.length >= 30) {
+                // Second RFID format (FDX/HDX)
+                int start = -1, end = -1;
+                for (int i = 0; i < data.length; i++) {
+                    if (data[i] == 0x02) {
+                        start = i;
+                    } else if (data[i] == 0x03 || data[i] == 0x07) {
+                        end = i;
+                        break;
+                    }
+                }
+
+                if (start != -1 && end != -1) {
+                    byte[] tempBuffer = new byte[14];
+                    System.arraycopy(data, start + 1, tempBuffer, 0, tempBuffer.length);
+
+                    String rawString = new String(tempBuffer, "ascii");
+                    String idStr = new BigInteger(rev(rawString.substring(0, 10)), 16).toString(10);
+                    idStr = paddingLeft(idStr, 12, "0");
+                    String countCodeStr = new BigInteger(rev(rawString.substring(10, 13)), 16).toString(10);
+
+                    return countCodeStr + idStr;
+                }
+            }
+        } catch (Exception e) {
+            // 原实现仅记录日志
+        }
+
+        return null;
+    }
+
+    static String rev(String ox) {
+        byte[] b = ox.getBytes();
+        int j = 0;
+        byte[] result = new byte[b.length];
+        int i = b.length - 1;
+        while (i >= 0) {
+            result[j] = b[i];
+            i--;
+            j++;
+        }
+        return new String(result);
+    }
+
+    static String paddingLeft(String rawString, int len, String fillChar) {
+        StringBuilder stringBuilder = new StringBuilder();
+        int fillLen = len - rawString.length();
+        if (fillLen <= 0)
+            return rawString;
+        while (fillLen-- > 0) {
+            stringBuilder.append(fillChar);
+        }
+        stringBuilder.append(rawString);
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在 JVM 上用合成数据跑 LFUtil -> FrameAssembler -> TagDecoder，检查帧率与尾延迟
+ */
+public class PipelineLoadTest {
+    private static final int FRAMES = 2000;
+
+    @Test
+    public void loadGeneratorThroughLfUtil() throws Exception {
+        final LoadGenerator generator = new LoadGenerator(4000, FRAMES, LoadGenerator.FORMAT_MIXED);
+        final TagDecoder decoder = new TagDecoder();
+        final ScannerMetrics.Histogram latency = new ScannerMetrics.Histogram();
+        final CountDownLatch done = new CountDownLatch(FRAMES);
+        final int[] decoded = new int[1];
+
+        LFUtil lfUtil = new LFUtil(data -> {
+            if (decoder.decode(data, data.length) == TagDecoder.FORMAT_FDX) {
+                decoded[0]++;
+                latency.record((System.nanoTime() - generator.getScheduledNanos(decoder.getNationalId())) / 1000L);
+            }
+            done.countDown();
+        }, generator);
+        long start = System.nanoTime();
+        lfUtil.open();
+        try {
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+        } finally {
+            lfUtil.dispose();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        assertEquals(FRAMES, generator.getSentCount());
+        // 校验字节恰为 0x02 的帧按原有规则无法解码
+        assertTrue(decoded[0] > FRAMES * 0.95);
+        // 发送端限速 4000 帧/秒，读线程至少应跟上一半
+        assertTrue("frames/s " + FRAMES / seconds, FRAMES / seconds > 2000);
+        // 不积压时 p99 远低于 100ms
+        assertTrue("p99 us " + latency.percentile(0.99), latency.percentile(0.99) < 100000);
+        assertTrue(latency.percentile(0.5) <= latency.percentile(0.99));
+    }
+
+    @Test
+    public void replayTransportEndsAtEndOfFile() throws Exception {
+        File file = File.createTempFile("lf-replay", ".bin");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < 10; i++) {
+                out.write(LoadGenerator.buildFrame(123456789012L + i, 999, FrameAssembler.ETX));
+            }
+        }
+        final CountDownLatch done = new CountDownLatch(10);
+        final CountDownLatch again = new CountDownLatch(20);
+        LFUtil lfUtil = new LFUtil(data -> {
+            done.countDown();
+            again.countDown();
+        }, new ReplayTransport(file.getPath(), 0, 7));
+        lfUtil.open();
+        try {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (lfUtil.isOpened() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            // 读完即关闭，重新 open() 从头回放
+            assertFalse(lfUtil.isOpened());
+            assertTrue(lfUtil.open());
+            assertTrue(again.await(5, TimeUnit.SECONDS));
+        } finally {
+            lfUtil.dispose();
+        }
+    }
+
+    @Test
+    public void pausedReaderDropsFrames() throws Exception {
+        LoadGenerator generator = new LoadGenerator(0, 200, LoadGenerator.FORMAT_FDX);
+        final int[] received = new int[1];
+        LFUtil lfUtil = new LFUtil(data -> received[0]++, generator);
+        lfUtil.setPaused(true);
+        lfUtil.open();
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (generator.getSentCount() < 200 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            lfUtil.dispose();
+        }
+        assertEquals(200, generator.getSentCount());
+        assertEquals(0, received[0]);
+    }
+
+    @Test
+    public void readThreadRunsOnlyWhileOpen() throws Exception {
+        LoadGenerator generator = new LoadGenerator(0, 0, LoadGenerator.FORMAT_FDX);
+        final CountDownLatch first = new CountDownLatch(10);
+        final CountDownLatch second = new CountDownLatch(20);
+        LFUtil lfUtil = new LFUtil(data -> {
+            first.countDown();
+            second.countDown();
+        }, generator);
+        assertFalse(lfUtil.isReading());
+        assertFalse(hasReadThread());
+        try {
+            lfUtil.open();
+            assertTrue(lfUtil.isReading());
+            assertTrue(first.await(5, TimeUnit.SECONDS));
+            lfUtil.close();
+            assertFalse(lfUtil.isReading());
+            assertFalse(hasReadThread());
+
+            lfUtil.open();
+            assertTrue(second.await(5, TimeUnit.SECONDS));
+        } finally {
+            lfUtil.dispose();
+        }
+        assertFalse(hasReadThread());
+    }
+
+    private static boolean hasReadThread() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if ("LFUtil-ReadThread".equals(thread.getName()) && thread.isAlive()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void generatedFrameDecodes() {
+        TagDecoder decoder = new TagDecoder();
+        byte[] frame = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX_ALT);
+        assertEquals(TagDecoder.FORMAT_FDX, decoder.decode(frame, frame.length));
+        assertEquals("999123456789012", decoder.getIdString());
+    }
+}
@@ -0,0 +1,153 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+public class PowerSchedulerTest {
+    private final List<Boolean> switches = new ArrayList<>();
+    private final ManualClock clock = new ManualClock();
+    private final PowerScheduler scheduler = new PowerScheduler(on -> {
+        switches.add(on);
+        return true;
+    }, clock);
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void alwaysOnWithoutSchedule() {
+        scheduler.start();
+        clock.advance(50);
+        assertTrue(scheduler.isPowered());
+        assertEquals(0, switches.size());
+        assertEquals(0, clock.pending());
+    }
+
+    @Test
+    public void dutyCycleAlternatesWindows() {
+        scheduler.configure(30, 20, 0);
+        scheduler.start();
+        clock.advance(29);
+        assertTrue(scheduler.isPowered());
+        clock.advance(1);
+        assertFalse(scheduler.isPowered());
+        clock.advance(20);
+        assertTrue(scheduler.isPowered());
+        clock.advance(150);
+        // 从上电开始，第一次切换为断电；每 50ms 两次切换
+        assertEquals(8, switches.size());
+        for (int i = 0; i < switches.size(); i++) {
+            assertEquals(i % 2 == 1, switches.get(i));
+        }
+        assertTrue(scheduler.isActive());
+        scheduler.stop();
+        assertFalse(scheduler.isActive());
+        // stop() 之后不再切换
+        clock.advance(100);
+        assertEquals(8, switches.size());
+        assertEquals(0, clock.pending());
+    }
+
+    @Test
+    public void idleTimeoutPowersDownUntilWake() {
+        scheduler.configure(0, 0, 60);
+        scheduler.start();
+        clock.advance(30);
+        scheduler.onTag();
+        clock.advance(40);
+        // 读到标签后从最后一次读取重新计时
+        assertTrue(scheduler.isPowered());
+        clock.advance(19);
+        assertTrue(scheduler.isPowered());
+        clock.advance(1);
+        assertFalse(scheduler.isPowered());
+        assertTrue(scheduler.isIdle());
+        assertEquals(1, scheduler.getIdlePowerDowns());
+
+        scheduler.wake();
+        assertTrue(scheduler.isPowered());
+        assertFalse(scheduler.isIdle());
+    }
+
+    @Test
+    public void idleTimeoutStopsDutyCycle() {
+        scheduler.configure(30, 30, 100);
+        scheduler.start();
+        clock.advance(100);
+        assertTrue(scheduler.isIdle());
+        assertFalse(scheduler.isPowered());
+        int count = switches.size();
+        clock.advance(200);
+        assertEquals(count, switches.size());
+    }
+
+    /**
+     * 只在 advance() 中按到期顺序执行任务
+     */
+    private static class ManualClock implements PowerScheduler.Clock {
+        private final List<long[]> due = new ArrayList<>();
+        private final List<FutureTask<?>> tasks = new ArrayList<>();
+        private long now;
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public Future<?> schedule(Runnable task, long delay, TimeUnit unit) {
+            FutureTask<?> future = new FutureTask<Void>(task, null);
+            due.add(new long[]{now + unit.toNanos(delay)});
+            tasks.add(future);
+            return future;
+        }
+
+        @Override
+        public void shutdown() {
+            for (FutureTask<?> task : tasks) {
+                task.cancel(false);
+            }
+        }
+
+        void advance(long ms) {
+            long target = now + TimeUnit.MILLISECONDS.toNanos(ms);
+            while (true) {
+                int next = -1;
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (due.get(i)[0] <= target && (next < 0 || due.get(i)[0] < due.get(next)[0])) {
+                        next = i;
+                    }
+                }
+                if (next < 0) {
+                    break;
+                }
+                now = due.remove(next)[0];
+                // 已取消的任务 run() 不执行
+                tasks.remove(next).run();
+            }
+            now = target;
+        }
+
+        int pending() {
+            int count = 0;
+            for (FutureTask<?> task : tasks) {
+                if (!task.isCancelled()) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+public class PowerUtilTest {
+    private String gpioPath;
+
+    @Before
+    public void setUp() {
+        gpioPath = PowerUtil.getGpioPath();
+    }
+
+    @After
+    public void tearDown() {
+        PowerUtil.power("0");
+        PowerUtil.close();
+        // GPIO 路径是静态的，恢复默认值以免影响其他测试
+        PowerUtil.setGpioPath(gpioPath);
+    }
+
+    @Test
+    public void reusesHandleAndCountsCycles() throws Exception {
+        File gpio = File.createTempFile("set_uhf", null);
+        gpio.deleteOnExit();
+        PowerUtil.setGpioPath(gpio.getPath());
+        PowerUtil.resetStats();
+
+        assertTrue(PowerUtil.power("1"));
+        Thread.sleep(20);
+        assertTrue(PowerUtil.power("0"));
+        assertTrue(PowerUtil.power("1"));
+        assertTrue(PowerUtil.isPowered());
+        // 同一个句柄顺序写入
+        assertEquals("101", new String(Files.readAllBytes(gpio.toPath())));
+        assertEquals(2, PowerUtil.getPowerCycles());
+        assertTrue(PowerUtil.getPoweredMillis() >= 20);
+    }
+
+    @Test
+    public void failsWithoutGpio() {
+        PowerUtil.setGpioPath("/nonexistent/set_uhf");
+        assertFalse(PowerUtil.power("1"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class RawCaptureTest {
+
+    @Test
+    public void keepsNewestRecordsWhenFull() throws IOException {
+        RawCapture capture = new RawCapture(3);
+        for (int i = 0; i < 5; i++) {
+            capture.record(new byte[]{(byte) i, (byte) i}, 0, 2, 1000L * i);
+        }
+        assertEquals(3, capture.size());
+        assertEquals(5, capture.getRecordedCount());
+
+        RawCapture.Reader reader = read(capture);
+        assertEquals(3, reader.getCount());
+        for (int i = 2; i < 5; i++) {
+            assertTrue(reader.next());
+            assertEquals(1000L * (i - 2), reader.getOffsetNanos());
+            assertArrayEquals(new byte[]{(byte) i, (byte) i}, Arrays.copyOf(reader.getData(), reader.getLength()));
+        }
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void truncatesLongReads() throws IOException {
+        RawCapture capture = new RawCapture(2);
+        capture.record(new byte[100], 0, 100, 0);
+        RawCapture.Reader reader = read(capture);
+        assertTrue(reader.next());
+        assertEquals(RawCapture.MAX_RECORD_LENGTH, reader.getLength());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException {
+        new RawCapture.Reader(new ByteArrayInputStream(new byte[32]));
+    }
+
+    @Test
+    public void dumpReplaysThroughLfUtil() throws Exception {
+        byte[] frame = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX);
+        RawCapture capture = new RawCapture();
+        // 一帧分两次读到
+        capture.record(frame, 0, 11, 0);
+        capture.record(frame, 11, frame.length - 11, 3000000L);
+        File file = File.createTempFile("lf-capture", ".bin");
+        file.deleteOnExit();
+        assertEquals(2, capture.dump(file));
+
+        final CountDownLatch done = new CountDownLatch(1);
+        final byte[][] received = new byte[1][];
+        LFUtil lfUtil = new LFUtil(data -> {
+            received[0] = data;
+            done.countDown();
+        }, new CaptureReplay(file, 10));
+        lfUtil.open();
+        try {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            lfUtil.dispose();
+        }
+        assertArrayEquals(frame, received[0]);
+    }
+
+    private static RawCapture.Reader read(RawCapture capture) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        capture.writeTo(out);
+        return new RawCapture.Reader(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
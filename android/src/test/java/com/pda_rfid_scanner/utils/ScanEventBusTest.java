@@ -0,0 +1,148 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+public class ScanEventBusTest {
+    /**
+     * 手动执行的 Executor，模拟被阻塞的主线程
+     */
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private final Executor executor = tasks::add;
+
+    private void runTasks() {
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+    }
+
+    @Test
+    public void deliversInOrderToEachSubscriber() {
+        ScanEventBus bus = new ScanEventBus();
+        List<Object> a = new ArrayList<>();
+        List<Object> b = new ArrayList<>();
+        bus.subscribe(executor, a::add);
+        bus.subscribe(executor, b::add);
+        bus.publish("1");
+        bus.publish("2");
+        runTasks();
+        assertEquals(Arrays.asList("1", "2"), a);
+        assertEquals(Arrays.asList("1", "2"), b);
+        assertEquals(4, bus.getDeliveredCount());
+    }
+
+    @Test
+    public void disposeStopsDelivery() {
+        ScanEventBus bus = new ScanEventBus();
+        List<Object> received = new ArrayList<>();
+        ScanEventBus.Subscription s = bus.subscribe(executor, received::add);
+        bus.publish("1");
+        s.dispose();
+        bus.publish("2");
+        runTasks();
+        assertTrue(received.isEmpty());
+        assertEquals(0, bus.getSubscriberCount());
+        assertTrue(s.isDisposed());
+    }
+
+    @Test
+    public void dropOldest() {
+        ScanEventBus bus = new ScanEventBus();
+        bus.configure(2, ScanEventBus.POLICY_DROP_OLDEST);
+        List<Object> received = new ArrayList<>();
+        bus.subscribe(executor, received::add);
+        for (int i = 1; i <= 5; i++) {
+            bus.publish(i);
+        }
+        runTasks();
+        assertEquals(Arrays.<Object>asList(4, 5), received);
+        assertEquals(3, bus.getDroppedCount());
+    }
+
+    @Test
+    public void dropNewest() {
+        ScanEventBus bus = new ScanEventBus();
+        bus.configure(2, ScanEventBus.POLICY_DROP_NEWEST);
+        List<Object> received = new ArrayList<>();
+        bus.subscribe(executor, received::add);
+        for (int i = 1; i <= 5; i++) {
+            bus.publish(i);
+        }
+        runTasks();
+        assertEquals(Arrays.<Object>asList(1, 2), received);
+        assertEquals(3, bus.getDroppedCount());
+    }
+
+    @Test
+    public void latestOnly() {
+        ScanEventBus bus = new ScanEventBus();
+        bus.configure(16, ScanEventBus.POLICY_LATEST_ONLY);
+        List<Object> received = new ArrayList<>();
+        bus.subscribe(executor, received::add);
+        for (int i = 1; i <= 5; i++) {
+            bus.publish(i);
+        }
+        assertEquals(1, bus.getQueuedCount());
+        runTasks();
+        assertEquals(Arrays.<Object>asList(5), received);
+        assertEquals(4, bus.getDroppedCount());
+    }
+
+    @Test
+    public void singleDrainTaskPerBurst() {
+        ScanEventBus bus = new ScanEventBus();
+        bus.subscribe(executor, event -> { });
+        for (int i = 0; i < 100; i++) {
+            bus.publish(i);
+        }
+        assertEquals(1, tasks.size());
+        runTasks();
+        bus.publish(0);
+        assertEquals(1, tasks.size());
+    }
+
+    @Test
+    public void longBacklogYieldsBetweenRuns() {
+        ScanEventBus bus = new ScanEventBus();
+        List<Object> received = new ArrayList<>();
+        bus.subscribe(executor, received::add);
+        int events = ScanEventBus.MAX_EVENTS_PER_RUN * 2 + 5;
+        for (int i = 0; i < events; i++) {
+            bus.publish(i);
+        }
+        tasks.poll().run();
+        assertEquals(ScanEventBus.MAX_EVENTS_PER_RUN, received.size());
+        // 剩余事件重新排队，期间主线程可以处理其他任务
+        assertEquals(1, tasks.size());
+        bus.publish(events);
+        assertEquals(1, tasks.size());
+        runTasks();
+        assertEquals(events + 1, received.size());
+        for (int i = 0; i <= events; i++) {
+            assertEquals(i, received.get(i));
+        }
+        assertEquals(events + 1, bus.getDeliveredCount());
+    }
+
+    @Test
+    public void shrinkingKeepsNewest() {
+        ScanEventBus bus = new ScanEventBus();
+        List<Object> received = new ArrayList<>();
+        bus.subscribe(executor, received::add);
+        for (int i = 1; i <= 4; i++) {
+            bus.publish(i);
+        }
+        bus.configure(2, ScanEventBus.POLICY_DROP_OLDEST);
+        runTasks();
+        assertEquals(Arrays.<Object>asList(3, 4), received);
+        assertEquals(2, bus.getDroppedCount());
+    }
+}
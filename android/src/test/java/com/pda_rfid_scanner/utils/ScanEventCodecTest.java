@@ -0,0 +1,114 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ScanEventCodecTest {
+
+    @Test
+    public void rfidLayout() {
+        byte[] frame = FrameAssemblerTest.fdxFrame("41A199EBC17E30010000000000");
+        TagDecoder decoder = new TagDecoder();
+        decoder.decode(frame, frame.length);
+
+        byte[] event = ScanEventCodec.encodeRfid(decoder, frame, frame.length,
+                ScanEventCodec.TYPE_RFID_PRESENT, 17, 1700000000123456L);
+
+        ByteBuffer b = ByteBuffer.wrap(event).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(ScanEventCodec.VERSION, b.get(0));
+        assertEquals(ScanEventCodec.TYPE_RFID_PRESENT, b.get(1));
+        assertEquals(TagDecoder.FORMAT_FDX, b.get(2));
+        assertEquals(0, b.get(3));
+        assertEquals(999, b.getShort(4) & 0xFFFF);
+        assertEquals(15, b.getShort(6));
+        assertEquals(17, b.getInt(8));
+        assertEquals(frame.length, b.getShort(12));
+        assertEquals(123456789012L, b.getLong(16));
+        assertEquals(1700000000123456L, b.getLong(24));
+        int idEnd = ScanEventCodec.HEADER_LENGTH + 15;
+        assertEquals("999123456789012", new String(event, ScanEventCodec.HEADER_LENGTH, 15, StandardCharsets.US_ASCII));
+        assertArrayEquals(frame, Arrays.copyOfRange(event, idEnd, event.length));
+    }
+
+    @Test
+    public void rfidCarriesReaderNumber() {
+        byte[] frame = FrameAssemblerTest.fdxFrame("41A199EBC17E30010000000000");
+        TagDecoder decoder = new TagDecoder();
+        decoder.decode(frame, frame.length);
+        byte[] event = ScanEventCodec.encodeRfid(decoder, frame, frame.length,
+                ScanEventCodec.TYPE_RFID, 1, 0, 2);
+        assertEquals(2, event[3]);
+    }
+
+    @Test
+    public void rfidCarriesIndexMatch() throws Exception {
+        byte[] frame = FrameAssemblerTest.fdxFrame("41A199EBC17E30010000000000");
+        TagDecoder decoder = new TagDecoder();
+        decoder.decode(frame, frame.length);
+        assertEquals(ScanEventCodec.MATCH_NONE, ScanEventCodec.encodeRfid(decoder, frame, frame.length,
+                ScanEventCodec.TYPE_RFID, 1, 0, 0)[14]);
+
+        File file = File.createTempFile("tag-index", ".bin");
+        file.deleteOnExit();
+        TagIndex.build(file, Collections.singletonList("999123456789012"), new byte[]{0x0A, 0x0B}, 2);
+        TagIndex index = TagIndex.open(file);
+        int record = index.find(decoder.getChars(), decoder.getLength());
+        byte[] event = ScanEventCodec.encodeRfid(decoder, frame, frame.length,
+                ScanEventCodec.TYPE_RFID, 1, 0, 0, index, record);
+        assertEquals(ScanEventCodec.MATCH_KNOWN, event[14]);
+        assertEquals(2, event[15]);
+        assertEquals(ScanEventCodec.HEADER_LENGTH + 15 + frame.length + 2, event.length);
+        assertArrayEquals(new byte[]{0x0A, 0x0B}, Arrays.copyOfRange(event, event.length - 2, event.length));
+
+        event = ScanEventCodec.encodeRfid(decoder, frame, frame.length,
+                ScanEventCodec.TYPE_RFID, 1, 0, 0, index, -1);
+        assertEquals(ScanEventCodec.MATCH_UNKNOWN, event[14]);
+        assertEquals(0, event[15]);
+        assertEquals(ScanEventCodec.HEADER_LENGTH + 15 + frame.length, event.length);
+    }
+
+    @Test
+    public void barcodeLayout() {
+        byte[] barcode = "4870001234567xx".getBytes(StandardCharsets.US_ASCII);
+        byte[] event = ScanEventCodec.encodeBarcode(barcode, 13, 42L);
+        assertEquals(ScanEventCodec.HEADER_LENGTH + 13, event.length);
+        assertEquals(ScanEventCodec.TYPE_BARCODE, event[1]);
+        assertEquals(0xFFFF, ScanEventCodec.getShort(event, 4));
+        assertEquals(13, ScanEventCodec.getShort(event, 6));
+        assertEquals(0, ScanEventCodec.getShort(event, 12));
+        assertEquals(-1L, ScanEventCodec.getLong(event, 16));
+        assertEquals(42L, ScanEventCodec.getLong(event, 24));
+    }
+
+    @Test
+    public void nowMicrosTracksWallClock() {
+        long drift = Math.abs(ScanEventCodec.nowMicros() / 1000L - System.currentTimeMillis());
+        assertTrue(drift < 1000);
+    }
+
+    @Test
+    public void nowMicrosFollowsInstalledClock() {
+        final long[] nanos = {5000000000L};
+        ScanEventCodec.setMonotonicClock(() -> nanos[0]);
+        try {
+            long start = ScanEventCodec.nowMicros();
+            assertTrue(Math.abs(start - System.currentTimeMillis() * 1000L) < 1000000L);
+            // 时钟在深睡眠期间继续走，纪元时间随之前进
+            nanos[0] += 3600L * 1000000000L;
+            assertEquals(start + 3600L * 1000000L, ScanEventCodec.nowMicros());
+            assertEquals(nanos[0], ScanEventCodec.monotonicNanos());
+        } finally {
+            ScanEventCodec.setMonotonicClock(System::nanoTime);
+        }
+    }
+}
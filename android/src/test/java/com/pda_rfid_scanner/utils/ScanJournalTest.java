@@ -0,0 +1,239 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class ScanJournalTest {
+    private File directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("scan-journal").toFile();
+    }
+
+    @After
+    public void deleteDirectory() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private static long append(ScanJournal journal, String id, long micros) throws IOException {
+        char[] chars = id.toCharArray();
+        return journal.append(ScanEventCodec.TYPE_RFID, 0, chars, chars.length, 1, micros);
+    }
+
+    private static int count(byte[] page) {
+        return ScanEventCodec.getInt(page, 4);
+    }
+
+    private static long next(byte[] page) {
+        return ScanEventCodec.getLong(page, 8);
+    }
+
+    @Test
+    public void pagesBySequence() throws IOException {
+        ScanJournal journal = new ScanJournal(directory, 16, 8);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i + 1, append(journal, "99912345678" + String.format("%04d", i), 1000 + i));
+        }
+        byte[] page = journal.query(0, Long.MIN_VALUE, Long.MAX_VALUE, 20);
+        assertEquals(20, count(page));
+        assertEquals(20, next(page));
+        int pos = ScanJournal.PAGE_HEADER_LENGTH;
+        assertEquals(1, ScanEventCodec.getLong(page, pos));
+        assertEquals(1000, ScanEventCodec.getLong(page, pos + 8));
+        assertEquals(ScanEventCodec.TYPE_RFID, page[pos + 16]);
+        assertEquals(15, page[pos + 18]);
+        assertEquals("999123456780000",
+                new String(page, pos + ScanJournal.ENTRY_HEADER_LENGTH, 15, StandardCharsets.US_ASCII));
+
+        long after = 0;
+        int total = 0;
+        do {
+            page = journal.query(after, Long.MIN_VALUE, Long.MAX_VALUE, 20);
+            total += count(page);
+            after = next(page);
+        } while (after != -1);
+        assertEquals(50, total);
+        journal.close();
+    }
+
+    @Test
+    public void filtersByTimeRange() throws IOException {
+        ScanJournal journal = new ScanJournal(directory, 8, 8);
+        for (int i = 0; i < 40; i++) {
+            append(journal, "1", i * 10);
+        }
+        byte[] page = journal.query(0, 100, 190, 100);
+        assertEquals(10, count(page));
+        assertEquals(-1, next(page));
+        assertEquals(11, ScanEventCodec.getLong(page, ScanJournal.PAGE_HEADER_LENGTH));
+        journal.close();
+    }
+
+    @Test
+    public void recoversAfterReopen() throws IOException {
+        ScanJournal journal = new ScanJournal(directory, 16, 8);
+        for (int i = 0; i < 20; i++) {
+            append(journal, "1", i);
+        }
+        // 没有 close()，模拟进程崩溃
+        journal = new ScanJournal(directory, 16, 8);
+        assertEquals(20, journal.getRecoveredRecords());
+        assertEquals(20, journal.getLastSequence());
+        assertEquals(21, append(journal, "2", 20));
+        assertEquals(21, count(journal.query(0, Long.MIN_VALUE, Long.MAX_VALUE, 100)));
+        journal.close();
+    }
+
+    @Test
+    public void recoveryStopsAtTornRecord() throws IOException {
+        ScanJournal journal = new ScanJournal(directory, 16, 8);
+        for (int i = 0; i < 5; i++) {
+            append(journal, "1", i);
+        }
+        journal.close();
+        File segment = directory.listFiles()[0];
+        try (RandomAccessFile raf = new RandomAccessFile(segment, "rw")) {
+            // 第 4 条记录写到一半
+            raf.seek(ScanJournal.RECORD_LENGTH * 4 + 30);
+            raf.write(0x55);
+        }
+        journal = new ScanJournal(directory, 16, 8);
+        assertEquals(3, journal.getLastSequence());
+        assertEquals(4, append(journal, "2", 10));
+        journal.close();
+        journal = new ScanJournal(directory, 16, 8);
+        assertEquals(4, journal.getLastSequence());
+        journal.close();
+    }
+
+    @Test
+    public void corruptHeaderKeepsLaterSegments() throws IOException {
+        ScanJournal journal = new ScanJournal(directory, 10, 8);
+        for (int i = 0; i < 35; i++) {
+            append(journal, "1", i);
+        }
+        journal.close();
+        File[] files = directory.listFiles();
+        Arrays.sort(files);
+        assertEquals(4, files.length);
+        try (RandomAccessFile raf = new RandomAccessFile(files[0], "rw")) {
+            // 第一段的魔数损坏
+            raf.write('X');
+        }
+        journal = new ScanJournal(directory, 10, 8);
+        assertEquals(11, journal.getFirstSequence());
+        assertEquals(35, journal.getLastSequence());
+        assertEquals(25, journal.getRecoveredRecords());
+        byte[] page = journal.query(0, Long.MIN_VALUE, Long.MAX_VALUE, 100);
+        assertEquals(25, count(page));
+        assertEquals(11, ScanEventCodec.getLong(page, ScanJournal.PAGE_HEADER_LENGTH));
+        assertTrue(new File(files[0].getPath() + ".bad").exists());
+        assertEquals(36, append(journal, "2", 35));
+        journal.close();
+    }
+
+    @Test
+    public void corruptMiddleHeaderLeavesGap() throws IOException {
+        ScanJournal journal = new ScanJournal(directory, 10, 8);
+        for (int i = 0; i < 35; i++) {
+            append(journal, "1", i);
+        }
+        journal.close();
+        File[] files = directory.listFiles();
+        Arrays.sort(files);
+        try (RandomAccessFile raf = new RandomAccessFile(files[1], "rw")) {
+            raf.write('X');
+        }
+        journal = new ScanJournal(directory, 10, 8);
+        // 第二段(11-20)丢失，其余段照常恢复
+        assertEquals(1, journal.getFirstSequence());
+        assertEquals(35, journal.getLastSequence());
+        assertEquals(25, journal.getRecoveredRecords());
+        assertEquals(25, count(journal.query(0, Long.MIN_VALUE, Long.MAX_VALUE, 100)));
+        journal.close();
+    }
+
+    @Test
+    public void sequenceGapDropsLaterSegments() throws IOException {
+        ScanJournal journal = new ScanJournal(directory, 10, 8);
+        for (int i = 0; i < 25; i++) {
+            append(journal, "1", i);
+        }
+        journal.close();
+        File[] files = directory.listFiles();
+        Arrays.sort(files);
+        // 中间一段消失，之后的段无法衔接
+        assertTrue(files[1].delete());
+        journal = new ScanJournal(directory, 10, 8);
+        assertEquals(10, journal.getLastSequence());
+        assertEquals(1, directory.listFiles().length);
+        journal.close();
+    }
+
+    @Test
+    public void rollsAndDropsOldestSegments() throws IOException {
+        ScanJournal journal = new ScanJournal(directory, 10, 3);
+        for (int i = 0; i < 45; i++) {
+            append(journal, "1", i);
+        }
+        assertEquals(3, directory.listFiles().length);
+        assertEquals(21, journal.getFirstSequence());
+        byte[] page = journal.query(0, Long.MIN_VALUE, Long.MAX_VALUE, 100);
+        assertEquals(25, count(page));
+        assertEquals(21, ScanEventCodec.getLong(page, ScanJournal.PAGE_HEADER_LENGTH));
+        journal.close();
+
+        journal = new ScanJournal(directory, 10, 3);
+        assertEquals(21, journal.getFirstSequence());
+        assertEquals(45, journal.getLastSequence());
+        journal.close();
+    }
+
+    @Test
+    public void groupCommit() throws IOException {
+        ScanJournal journal = new ScanJournal(directory, 100, 1);
+        journal.setCommitPolicy(10, 50);
+        for (int i = 0; i < 25; i++) {
+            append(journal, "1", i);
+        }
+        assertEquals(2, journal.getSyncCount());
+        long now = System.nanoTime();
+        long wait = journal.syncIfDue(now);
+        assertTrue(wait > 0 && wait <= 50000000L);
+        assertEquals(-1, journal.syncIfDue(now + 50000000L));
+        assertEquals(3, journal.getSyncCount());
+        assertEquals(-1, journal.syncIfDue(now + 100000000L));
+        journal.close();
+    }
+
+    @Test
+    public void truncatesLongData() throws IOException {
+        ScanJournal journal = new ScanJournal(directory, 4, 1);
+        byte[] barcode = new byte[150];
+        journal.append(ScanEventCodec.TYPE_BARCODE, 0, barcode, barcode.length, 1, 0);
+        byte[] page = journal.query(0, Long.MIN_VALUE, Long.MAX_VALUE, 1);
+        int pos = ScanJournal.PAGE_HEADER_LENGTH;
+        assertEquals(ScanJournal.MAX_DATA_LENGTH, page[pos + 18]);
+        assertEquals(ScanJournal.FLAG_TRUNCATED, page[pos + 19]);
+        assertEquals(pos + ScanJournal.ENTRY_HEADER_LENGTH + ScanJournal.MAX_DATA_LENGTH, page.length);
+        journal.close();
+    }
+}
@@ -0,0 +1,92 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class ScannerMetricsTest {
+
+    @Test
+    public void counterSumsAcrossThreads() throws InterruptedException {
+        final ScannerMetrics.Counter counter = new ScannerMetrics.Counter();
+        Thread[] threads = new Thread[6];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    counter.increment();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(60000, counter.sum());
+        counter.reset();
+        assertEquals(0, counter.sum());
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        ScannerMetrics.Histogram histogram = new ScannerMetrics.Histogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5000);
+        }
+        assertEquals(100, histogram.count());
+        // 100us 落在 [64, 128) 桶
+        assertEquals(127, histogram.percentile(0.5));
+        assertEquals(127, histogram.percentile(0.9));
+        // 5000us 落在 [4096, 8192) 桶，桶上界超过最大值时取最大值
+        assertEquals(5000, histogram.percentile(0.99));
+
+        Map<String, Object> snapshot = histogram.snapshot();
+        assertEquals(5000L, snapshot.get("max"));
+        assertEquals(590L, snapshot.get("mean"));
+        assertEquals(90L, ((List<?>) snapshot.get("buckets")).get(6));
+    }
+
+    @Test
+    public void percentilesNeverExceedMax() {
+        ScannerMetrics.Histogram histogram = new ScannerMetrics.Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 6512L / 1000);
+        }
+        Map<String, Object> snapshot = histogram.snapshot();
+        long max = (Long) snapshot.get("max");
+        assertEquals(6512L, max);
+        assertTrue((Long) snapshot.get("p50") <= max);
+        assertTrue((Long) snapshot.get("p99") <= max);
+        assertTrue(histogram.percentile(1.0) <= max);
+    }
+
+    @Test
+    public void histogramClampsNegativeAndHugeValues() {
+        ScannerMetrics.Histogram histogram = new ScannerMetrics.Histogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE / 2);
+        assertEquals(2, histogram.count());
+        assertEquals(1, histogram.percentile(0.5));
+    }
+
+    @Test
+    public void rateMeterMeasuresRecentEvents() {
+        ScannerMetrics.RateMeter rate = new ScannerMetrics.RateMeter();
+        assertEquals(0, rate.perSecond(), 0);
+        long now = System.nanoTime();
+        // 20 次扫描，间隔 100ms
+        for (int i = 19; i >= 0; i--) {
+            rate.mark(now - i * 100000000L);
+        }
+        assertEquals(10, rate.perSecond(), 0.01);
+        assertEquals(10, rate.peakPerSecond(), 0.01);
+        rate.reset();
+        assertEquals(0, rate.perSecond(), 0);
+    }
+}
@@ -0,0 +1,211 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+public class TagDecoderRegistryTest {
+    private final TagDecoderRegistry registry = TagDecoderRegistry.withBuiltInFormats();
+    private final TagDecoder decoder = new TagDecoder();
+
+    private int decode(byte[] frame) {
+        return registry.decode(frame, frame.length, decoder);
+    }
+
+    @SuppressWarnings("unchecked")
+    private long count(String format, String counter) {
+        Map<String, Object> formats = (Map<String, Object>) registry.snapshot().get("formats");
+        return (Long) ((Map<String, Object>) formats.get(format)).get(counter);
+    }
+
+    @Test
+    public void decodesBuiltInFormats() {
+        byte[] fdx = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX);
+        assertEquals(TagDecoder.FORMAT_FDX, decode(fdx));
+        assertEquals("999123456789012", decoder.getIdString());
+
+        byte[] hdx = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX_ALT);
+        assertEquals(TagDecoder.FORMAT_HDX, decode(hdx));
+        assertEquals("999123456789012", decoder.getIdString());
+        assertEquals(123456789012L, decoder.getNationalId());
+
+        byte[] ascii = "\u0002A985000012345678  #\r\n".getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals(TagDecoder.FORMAT_ASCII, decode(ascii));
+        assertEquals("985000012345678", decoder.getIdString());
+
+        assertEquals(1, count("FDX-B", "accepted"));
+        assertEquals(1, count("HDX", "accepted"));
+        assertEquals(1, count("ASCII", "accepted"));
+        assertEquals(0, registry.getRejectedCount());
+    }
+
+    @Test
+    public void rejectsCorruptedFrames() {
+        byte[] frame = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX);
+        // 识别码中一个字符出错
+        frame[3] ^= 0x01;
+        assertEquals(TagDecoder.FORMAT_NONE, decode(frame));
+        assertNull(decoder.getIdString());
+        assertEquals(1, count("FDX-B", "badChecksum"));
+
+        // 校验字节与取反不一致
+        frame = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX_ALT);
+        frame[FrameAssembler.FDX_CHECKSUM_OFFSET + 1] ^= 0x10;
+        assertEquals(TagDecoder.FORMAT_NONE, decode(frame));
+        assertEquals(1, count("HDX", "badChecksum"));
+        assertEquals(2, registry.getRejectedCount());
+
+        registry.setVerifyChecksums(false);
+        assertEquals(TagDecoder.FORMAT_HDX, decode(frame));
+    }
+
+    @Test
+    public void rejectsOutOfRangeIsoFields() {
+        // 国家代码超过 10 位
+        byte[] frame = LoadGenerator.buildFrame(13, 0x47B, FrameAssembler.ETX);
+        assertEquals(TagDecoder.FORMAT_NONE, decode(frame));
+        assertEquals(1, count("FDX-B", "malformed"));
+        // 识别码超过 38 位
+        frame = LoadGenerator.buildFrame(Iso11784Format.MAX_NATIONAL_ID + 1, 999, FrameAssembler.ETX);
+        assertEquals(TagDecoder.FORMAT_NONE, decode(frame));
+        assertEquals(2, count("FDX-B", "malformed"));
+    }
+
+    @Test
+    public void decodesChecksumThatLooksLikeStx() {
+        // 校验字节恰为 0x02 的帧原实现无法解码
+        byte[] frame = FrameAssemblerTest.fdxFrame("B0000000007E30010000000000");
+        assertEquals(FrameAssembler.STX, frame[FrameAssembler.FDX_CHECKSUM_OFFSET]);
+        assertEquals(TagDecoder.FORMAT_FDX, decode(frame));
+    }
+
+    @Test
+    public void toleratesNoiseAroundFrames() {
+        // 与原实现一致：帧前有干扰字节、帧后有回车换行
+        byte[] fdx = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX);
+        byte[] framed = new byte[3 + fdx.length + 2];
+        framed[0] = 0x55;
+        framed[1] = FrameAssembler.STX;
+        framed[2] = '7';
+        System.arraycopy(fdx, 0, framed, 3, fdx.length);
+        framed[framed.length - 2] = '\r';
+        framed[framed.length - 1] = '\n';
+        assertEquals(TagDecoder.FORMAT_FDX, decode(framed));
+        assertEquals("999123456789012", decoder.getIdString());
+
+        byte[] hdx = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX_ALT);
+        byte[] crlf = new byte[hdx.length + 2];
+        System.arraycopy(hdx, 0, crlf, 0, hdx.length);
+        crlf[hdx.length] = '\r';
+        crlf[hdx.length + 1] = '\n';
+        assertEquals(TagDecoder.FORMAT_HDX, decode(crlf));
+
+        // '#' 格式只检查第 19 字节
+        byte[] ascii = "?A985000012345678  #\r\n".getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals(TagDecoder.FORMAT_ASCII, decode(ascii));
+        assertEquals("985000012345678", decoder.getIdString());
+        assertEquals(0, registry.getRejectedCount());
+    }
+
+    @Test
+    public void badChecksumWithNoiseIsStillRejected() {
+        byte[] fdx = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX);
+        fdx[5] ^= 0x01;
+        byte[] framed = new byte[fdx.length + 2];
+        framed[0] = 0x11;
+        System.arraycopy(fdx, 0, framed, 1, fdx.length);
+        framed[framed.length - 1] = '\n';
+        assertEquals(TagDecoder.FORMAT_NONE, decode(framed));
+        assertEquals(1, count("FDX-B", "badChecksum"));
+    }
+
+    @Test
+    public void unknownFramesAreCountedSeparately() {
+        assertEquals(TagDecoder.FORMAT_NONE, decode(new byte[]{FrameAssembler.STX, '1', '2', FrameAssembler.ETX}));
+        assertEquals(TagDecoder.FORMAT_NONE, decode(new byte[TagDecoderRegistry.MAX_FRAME_LENGTH + 1]));
+        assertEquals(2, registry.getUnmatchedCount());
+        assertEquals(0, registry.getRejectedCount());
+    }
+
+    @Test
+    public void customFormat() {
+        // "K" + 8 位十六进制 + 异或校验(十六进制) + "\n"
+        TagFormat custom = new TagFormat() {
+            @Override
+            public int getFormat() {
+                return 16;
+            }
+
+            @Override
+            public String getName() {
+                return "K-hex";
+            }
+
+            @Override
+            public int getStartByte() {
+                return 'K';
+            }
+
+            @Override
+            public int getMinLength() {
+                return 12;
+            }
+
+            @Override
+            public int getMaxLength() {
+                return 12;
+            }
+
+            @Override
+            public int decode(byte[] frame, int length, boolean verifyChecksum, TagDecoder out) {
+                if (frame[11] != '\n') {
+                    return NO_MATCH;
+                }
+                int xor = 0;
+                long id = 0;
+                for (int i = 1; i <= 8; i++) {
+                    int v = ByteUtils.hexValue(frame[i]);
+                    if (v < 0) {
+                        return MALFORMED;
+                    }
+                    id = (id << 4) | v;
+                    xor ^= v;
+                }
+                if (verifyChecksum && ByteUtils.hexValue(frame[9]) != xor) {
+                    return BAD_CHECKSUM;
+                }
+                char[] chars = out.getChars();
+                for (int i = 0; i < 8; i++) {
+                    chars[i] = (char) frame[1 + i];
+                }
+                out.setResult(getFormat(), 8, -1, id);
+                return ACCEPT;
+            }
+        };
+        registry.register(custom);
+        byte[] frame = "K1234ABCD4?\n".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(16, decode(frame));
+        assertEquals("1234ABCD", decoder.getIdString());
+        assertEquals(0x1234ABCDL, decoder.getNationalId());
+        frame[9] = '5';
+        assertEquals(TagDecoder.FORMAT_NONE, decode(frame));
+        assertEquals(1, count("K-hex", "badChecksum"));
+
+        // 内置格式不受影响
+        assertEquals(TagDecoder.FORMAT_FDX, decode(LoadGenerator.buildFrame(1, 999, FrameAssembler.ETX)));
+
+        assertTrue(registry.unregister(16));
+        frame[9] = '4';
+        assertEquals(TagDecoder.FORMAT_NONE, decode(frame));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateFormatIdIsRejected() {
+        registry.register(Iso11784Format.FDX_B);
+    }
+}
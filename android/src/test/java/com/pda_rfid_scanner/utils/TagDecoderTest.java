@@ -0,0 +1,151 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+public class TagDecoderTest {
+    private final TagDecoder decoder = new TagDecoder();
+
+    @Test
+    public void fdxFrame() {
+        byte[] frame = FrameAssemblerTest.fdxFrame("41A199EBC17E30010000000000");
+        assertEquals(TagDecoder.FORMAT_FDX, decoder.decode(frame, frame.length));
+        assertEquals("999123456789012", decoder.getIdString());
+        assertEquals(123456789012L, decoder.getNationalId());
+        assertEquals(999, decoder.getCountryCode());
+        assertSameAsLegacy(frame);
+    }
+
+    @Test
+    public void fdxFramePadsNationalId() {
+        byte[] frame = FrameAssemblerTest.fdxFrame("D000000000B740010000000000");
+        assertEquals(TagDecoder.FORMAT_FDX, decoder.decode(frame, frame.length));
+        assertEquals("1147000000000013", decoder.getIdString());
+        assertSameAsLegacy(frame);
+    }
+
+    @Test
+    public void asciiFrame() {
+        byte[] frame = ascii("\u0002A985000012345678  #\r\n");
+        assertEquals(TagDecoder.FORMAT_ASCII, decoder.decode(frame, frame.length));
+        assertEquals("985000012345678", decoder.getIdString());
+        assertEquals(985, decoder.getCountryCode());
+        assertEquals(12345678L, decoder.getNationalId());
+        assertSameAsLegacy(frame);
+    }
+
+    @Test
+    public void asciiFrameWithNonAsciiBytes() {
+        byte[] frame = ascii("\u0002A985000012345678  #");
+        frame[5] = (byte) 0xC8;
+        assertSameAsLegacy(frame);
+        assertEquals(-1, decoder.getNationalId());
+    }
+
+    @Test
+    public void randomFdxFramesMatchLegacy() {
+        Random random = new Random(11784);
+        for (int n = 0; n < 20000; n++) {
+            long id = random.nextLong() & 0xFFFFFFFFFFL;
+            int country = random.nextInt(0x1000);
+            byte[] frame = FrameAssemblerTest.fdxFrame(
+                    lsbFirstHex(id, 10, random.nextBoolean()) + lsbFirstHex(country, 4, random.nextBoolean())
+                            + "010000000000");
+            assertSameAsLegacy(frame);
+        }
+    }
+
+    @Test
+    public void randomAsciiFramesMatchLegacy() {
+        Random random = new Random(11785);
+        for (int n = 0; n < 5000; n++) {
+            byte[] frame = new byte[20 + random.nextInt(10)];
+            for (int i = 0; i < frame.length; i++) {
+                frame[i] = (byte) ('0' + random.nextInt(10));
+            }
+            frame[0] = 0x02;
+            frame[19] = '#';
+            assertSameAsLegacy(frame);
+        }
+    }
+
+    @Test
+    public void corruptedInputMatchesLegacy() {
+        byte[] alphabet = ascii("0123456789ABCDEFabcdefXYZ #\u0002\u0003\u0007\u0000");
+        Random random = new Random(11785);
+        for (int n = 0; n < 50000; n++) {
+            byte[] frame = new byte[random.nextInt(70)];
+            for (int i = 0; i < frame.length; i++) {
+                frame[i] = alphabet[random.nextInt(alphabet.length)];
+            }
+            assertSameAsLegacy(frame);
+        }
+    }
+
+    @Test
+    public void earlyEtxAndShortFrames() {
+        byte[] frame = FrameAssemblerTest.fdxFrame("41A199EBC17E30010000000000");
+        frame[8] = 0x03;
+        assertSameAsLegacy(frame);
+        assertSameAsLegacy(new byte[0]);
+        assertSameAsLegacy(new byte[29]);
+        assertSameAsLegacy(new byte[65]);
+    }
+
+    /**
+     * BigInteger 接受首位的 '+'/'-'，这类损坏帧新解码器直接拒绝
+     */
+    @Test
+    public void signCharactersAreRejected() {
+        byte[] frame = FrameAssemblerTest.fdxFrame("41A199EBC-7E30010000000000");
+        assertEquals(TagDecoder.FORMAT_NONE, decoder.decode(frame, frame.length));
+        assertNull(decoder.getIdString());
+    }
+
+    @Test
+    public void decodesPrefixOfReusedBuffer() {
+        byte[] frame = FrameAssemblerTest.fdxFrame("41A199EBC17E30010000000000");
+        byte[] buffer = new byte[64];
+        System.arraycopy(frame, 0, buffer, 0, frame.length);
+        assertEquals(TagDecoder.FORMAT_FDX, decoder.decode(buffer, frame.length));
+        char[] out = new char[TagDecoder.MAX_ID_LENGTH + 5];
+        int length = decoder.writeTo(out, 5);
+        assertEquals("999123456789012", new String(out, 5, length));
+    }
+
+    @Test
+    public void tagKeyKeepsNumericIdsBelowBit50() {
+        decoder.setNumericId(TagDecoder.FORMAT_FDX, 999, 123456789012L);
+        assertEquals((999L << 40) | 123456789012L, decoder.getTagKey());
+
+        // 国家代码超过 10 位时不再占用第 50 位以上，与读卡器编号不冲突
+        decoder.setNumericId(TagDecoder.FORMAT_FDX, 1024 + 999, 123456789012L);
+        long wide = decoder.getTagKey();
+        assertEquals(Long.MIN_VALUE, wide & Long.MIN_VALUE);
+        decoder.setNumericId(TagDecoder.FORMAT_FDX, 999, 123456789012L);
+        assertNotEquals(decoder.getTagKey() ^ (1L << 50), wide);
+    }
+
+    private void assertSameAsLegacy(byte[] frame) {
+        decoder.decode(frame, frame.length);
+        assertEquals(LegacyRfidDecoder.processRfidData(frame), decoder.getIdString());
+    }
+
+    private static String lsbFirstHex(long value, int digits, boolean lowerCase) {
+        String hex = String.format("%0" + digits + "X", value);
+        if (lowerCase) {
+            hex = hex.toLowerCase();
+        }
+        return new StringBuilder(hex).reverse().toString();
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
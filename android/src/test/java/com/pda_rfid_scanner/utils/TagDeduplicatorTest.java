@@ -0,0 +1,74 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+public class TagDeduplicatorTest {
+
+    @Test
+    public void disabledByDefault() {
+        TagDeduplicator dedup = new TagDeduplicator();
+        assertFalse(dedup.isEnabled());
+        assertEquals(TagDeduplicator.RESULT_NEW, dedup.check(1, 0));
+        assertEquals(TagDeduplicator.RESULT_NEW, dedup.check(1, 1));
+    }
+
+    @Test
+    public void suppressesRepeatsInsideSlidingWindow() {
+        TagDeduplicator dedup = new TagDeduplicator();
+        dedup.configure(500, 0);
+        assertEquals(TagDeduplicator.RESULT_NEW, dedup.check(42, 1000));
+        assertEquals(TagDeduplicator.RESULT_DUPLICATE, dedup.check(42, 1400));
+        // 窗口随每次读取向后滑动
+        assertEquals(TagDeduplicator.RESULT_DUPLICATE, dedup.check(42, 1800));
+        assertEquals(3, dedup.getLastCount());
+        assertEquals(TagDeduplicator.RESULT_NEW, dedup.check(42, 2300));
+        assertEquals(1, dedup.getLastCount());
+        assertEquals(2, dedup.getSuppressedCount());
+    }
+
+    @Test
+    public void distinctTagsAreIndependent() {
+        TagDeduplicator dedup = new TagDeduplicator();
+        dedup.configure(500, 0);
+        assertEquals(TagDeduplicator.RESULT_NEW, dedup.check(1, 0));
+        assertEquals(TagDeduplicator.RESULT_NEW, dedup.check(2, 10));
+        assertEquals(TagDeduplicator.RESULT_DUPLICATE, dedup.check(1, 20));
+        assertEquals(TagDeduplicator.RESULT_DUPLICATE, dedup.check(2, 30));
+    }
+
+    @Test
+    public void heartbeatCarriesReadCount() {
+        TagDeduplicator dedup = new TagDeduplicator();
+        dedup.configure(500, 1000);
+        assertEquals(TagDeduplicator.RESULT_NEW, dedup.check(7, 0));
+        for (int t = 100; t < 1000; t += 100) {
+            assertEquals(TagDeduplicator.RESULT_DUPLICATE, dedup.check(7, t));
+        }
+        assertEquals(TagDeduplicator.RESULT_HEARTBEAT, dedup.check(7, 1000));
+        assertEquals(11, dedup.getLastCount());
+        assertEquals(TagDeduplicator.RESULT_DUPLICATE, dedup.check(7, 1100));
+    }
+
+    @Test
+    public void boundedTableEvictsOldestWhenFull() {
+        TagDeduplicator dedup = new TagDeduplicator(8);
+        dedup.configure(60000, 0);
+        for (long key = 0; key < 1000; key++) {
+            assertEquals(TagDeduplicator.RESULT_NEW, dedup.check(key, key));
+        }
+        // 最近插入的标签仍在表中
+        assertEquals(TagDeduplicator.RESULT_DUPLICATE, dedup.check(999, 1000));
+    }
+
+    @Test
+    public void clearForgetsTags() {
+        TagDeduplicator dedup = new TagDeduplicator();
+        dedup.configure(500, 0);
+        dedup.check(5, 0);
+        dedup.clear();
+        assertEquals(TagDeduplicator.RESULT_NEW, dedup.check(5, 1));
+    }
+}
@@ -0,0 +1,120 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class TagIndexTest {
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("tag-index", ".bin");
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void findsEveryBuiltTagWithItsPayload() throws IOException {
+        List<String> ids = new ArrayList<>();
+        Random random = new Random(7);
+        int count = 20000;
+        byte[] payloads = new byte[count * 4];
+        for (int i = 0; i < count; i++) {
+            ids.add(String.format("999%012d", (random.nextLong() >>> 1) % 1000000000000L));
+            ScanEventCodec.putInt(payloads, i * 4, i);
+        }
+        File file = tempFile();
+        assertEquals(count, TagIndex.build(file, ids, payloads, 4));
+        assertEquals(TagIndex.HEADER_LENGTH + count * 12L, file.length());
+
+        TagIndex index = TagIndex.open(file);
+        assertEquals(count, index.size());
+        assertEquals(4, index.getPayloadSize());
+        byte[] payload = new byte[4];
+        for (int i = 0; i < count; i++) {
+            String id = ids.get(i);
+            int record = index.find(id.toCharArray(), id.length());
+            assertEquals(4, index.copyPayload(record, payload, 0));
+            assertEquals(i, ScanEventCodec.getInt(payload, 0));
+        }
+        assertEquals(-1, index.find(TagIndex.keyOf("999000000000000x")));
+    }
+
+    @Test
+    public void decodedTagMatchesRegistryId() throws IOException {
+        File file = tempFile();
+        TagIndex.build(file, Arrays.asList("999123456789012", "ABC"), null, 0);
+        TagIndex index = TagIndex.open(file);
+        byte[] frame = LoadGenerator.buildFrame(123456789012L, 999, FrameAssembler.ETX);
+        TagDecoder decoder = new TagDecoder();
+        decoder.decode(frame, frame.length);
+        int record = index.find(decoder.getChars(), decoder.getLength());
+        assertNotEquals(-1, record);
+        assertEquals(0, index.copyPayload(record, new byte[0], 0));
+        assertNotEquals(-1, index.find(TagIndex.keyOf("ABC")));
+    }
+
+    @Test
+    public void keyKeepsLeadingZeros() {
+        assertNotEquals(TagIndex.keyOf("0123"), TagIndex.keyOf("123"));
+        assertNotEquals(TagIndex.keyOf("12a"), TagIndex.keyOf("12b"));
+        assertEquals(TagIndex.keyOf("99999999999999999"), TagIndex.keyOf("99999999999999999".toCharArray(), 17));
+    }
+
+    @Test
+    public void emptyIndex() throws IOException {
+        File file = tempFile();
+        TagIndex.build(file, new ArrayList<String>(), null, 0);
+        assertEquals(-1, TagIndex.open(file).find(TagIndex.keyOf("1")));
+    }
+
+    @Test
+    public void rejectsDuplicates() throws IOException {
+        try {
+            TagIndex.build(tempFile(), Arrays.asList("1", "2", "1"), null, 0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void rebuildReplacesOpenIndex() throws IOException {
+        File file = tempFile();
+        TagIndex.build(file, Arrays.asList("1", "2"), null, 0);
+        TagIndex old = TagIndex.open(file);
+        TagIndex.build(file, Arrays.asList("3"), null, 0);
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        assertEquals(1, TagIndex.open(file).size());
+        // 已映射的旧索引仍可用
+        assertEquals(2, old.size());
+        assertNotEquals(-1, old.find(TagIndex.keyOf("2")));
+    }
+
+    @Test
+    public void rejectsTruncatedFile() throws IOException {
+        File file = tempFile();
+        TagIndex.build(file, Arrays.asList("1", "2"), new byte[]{1, 2}, 1);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes, 0, bytes.length - 1);
+        }
+        try {
+            TagIndex.open(file);
+            fail();
+        } catch (IOException expected) {
+        }
+        assertArrayEquals(new byte[]{'T', 'I', 'D', 'X'}, Arrays.copyOf(bytes, 4));
+    }
+}
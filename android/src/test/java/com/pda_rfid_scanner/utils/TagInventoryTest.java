@@ -0,0 +1,105 @@
+package com.pda_rfid_scanner.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class TagInventoryTest {
+
+    private static void record(TagInventory inventory, long key, long micros) {
+        char[] id = Long.toString(key).toCharArray();
+        inventory.record(key, id, id.length, micros);
+    }
+
+    private static int entryCount(byte[] snapshot) {
+        return ScanEventCodec.getInt(snapshot, 4);
+    }
+
+    @Test
+    public void countsReadsPerTag() {
+        TagInventory inventory = new TagInventory();
+        inventory.clear(500);
+        record(inventory, 999123456789012L, 1000);
+        record(inventory, 999123456789012L, 2000);
+        record(inventory, 999000000000001L, 1500);
+        record(inventory, 999123456789012L, 3000);
+        assertEquals(2, inventory.size());
+        assertEquals(4, inventory.getReadCount());
+
+        byte[] snapshot = inventory.snapshot(false);
+        assertEquals(TagInventory.VERSION, snapshot[0]);
+        assertEquals(0, snapshot[1]);
+        assertEquals(2, entryCount(snapshot));
+        assertEquals(2, ScanEventCodec.getInt(snapshot, 8));
+        assertEquals(4, ScanEventCodec.getLong(snapshot, 16));
+        assertEquals(500, ScanEventCodec.getLong(snapshot, 24));
+
+        // 条目按首次读到的顺序
+        int pos = TagInventory.HEADER_LENGTH;
+        assertEquals(1000, ScanEventCodec.getLong(snapshot, pos));
+        assertEquals(3000, ScanEventCodec.getLong(snapshot, pos + 8));
+        assertEquals(3, ScanEventCodec.getInt(snapshot, pos + 16));
+        int length = snapshot[pos + 20];
+        assertEquals("999123456789012",
+                new String(snapshot, pos + TagInventory.ENTRY_HEADER_LENGTH, length));
+        pos += TagInventory.ENTRY_HEADER_LENGTH + length;
+        assertEquals(1, ScanEventCodec.getInt(snapshot, pos + 16));
+        assertEquals(snapshot.length, pos + TagInventory.ENTRY_HEADER_LENGTH + snapshot[pos + 20]);
+    }
+
+    @Test
+    public void diffContainsOnlyChangedTags() {
+        TagInventory inventory = new TagInventory();
+        inventory.clear(0);
+        for (long key = 1; key <= 10; key++) {
+            record(inventory, key, key);
+        }
+        assertEquals(10, entryCount(inventory.snapshot(true)));
+        assertEquals(0, inventory.getDirtyCount());
+        assertEquals(0, entryCount(inventory.snapshot(true)));
+
+        record(inventory, 3, 100);
+        record(inventory, 3, 101);
+        record(inventory, 11, 102);
+        byte[] diff = inventory.snapshot(true);
+        assertEquals(1, diff[1]);
+        assertEquals(2, entryCount(diff));
+        assertEquals(11, ScanEventCodec.getInt(diff, 8));
+        assertEquals(3, ScanEventCodec.getInt(diff, TagInventory.HEADER_LENGTH + 16));
+        // 全量快照仍包含全部标签
+        assertEquals(11, entryCount(inventory.snapshot(false)));
+    }
+
+    @Test
+    public void growsPastInitialCapacity() {
+        TagInventory inventory = new TagInventory();
+        inventory.clear(0);
+        for (int round = 0; round < 3; round++) {
+            for (long key = 0; key < 5000; key++) {
+                // 相邻键与高位键都应分散
+                record(inventory, key << 20, key);
+            }
+        }
+        assertEquals(5000, inventory.size());
+        assertEquals(15000, inventory.getReadCount());
+        byte[] snapshot = inventory.snapshot(false);
+        assertEquals(5000, entryCount(snapshot));
+        assertEquals(3, ScanEventCodec.getInt(snapshot, TagInventory.HEADER_LENGTH + 16));
+    }
+
+    @Test
+    public void clearStartsNewSession() {
+        TagInventory inventory = new TagInventory();
+        inventory.clear(0);
+        record(inventory, 1, 1);
+        record(inventory, 2, 2);
+        inventory.clear(100);
+        assertEquals(0, inventory.size());
+        assertEquals(0, inventory.getDirtyCount());
+        record(inventory, 2, 200);
+        byte[] snapshot = inventory.snapshot(true);
+        assertEquals(1, entryCount(snapshot));
+        assertEquals(1, ScanEventCodec.getInt(snapshot, TagInventory.HEADER_LENGTH + 16));
+        assertEquals(100, ScanEventCodec.getLong(snapshot, 24));
+    }
+}
@@ -0,0 +1,45 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 解码 {@link RawCapture} 抓包文件并打印每个标签：
+ * <pre>
+ * ./gradlew :tools:captureReplay -Pargs="lf-capture.bin"
+ * </pre>
+ * 输出每帧相对第一条记录的毫秒数与卡号，最后输出统计。
+ */
+public final class CaptureReplayTool {
+    private CaptureReplayTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: CaptureReplayTool <capture file>");
+            System.exit(2);
+        }
+        final TagDecoderRegistry registry = TagDecoderRegistry.withBuiltInFormats();
+        final TagDecoder decoder = new TagDecoder();
+        final long[] offset = new long[1];
+        final int[] counts = new int[2];
+        FrameAssembler assembler = new FrameAssembler((frame, length) -> {
+            if (registry.decode(frame, length, decoder) != TagDecoder.FORMAT_NONE) {
+                counts[0]++;
+                System.out.println(String.format("%10.3f %s", offset[0] / 1e6, decoder.getIdString()));
+            } else {
+                counts[1]++;
+                System.out.println(String.format("%10.3f ? %s", offset[0] / 1e6,
+                        ByteUtils.bytesToHexString(frame, 0, length)));
+            }
+        });
+        try (RawCapture.Reader reader = new RawCapture.Reader(new File(args[0]))) {
+            while (reader.next()) {
+                offset[0] = reader.getOffsetNanos();
+                assembler.feed(reader.getData(), 0, reader.getLength());
+            }
+            System.out.println(reader.getCount() + " reads, " + counts[0] + " tags, " + counts[1]
+                    + " undecodable frames, " + assembler.getDiscardedBytes() + " discarded bytes");
+        }
+    }
+}
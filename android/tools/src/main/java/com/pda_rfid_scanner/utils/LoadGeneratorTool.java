@@ -0,0 +1,44 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * 用 {@link LoadGenerator} 向伪终端或文件写入合成帧：
+ * <pre>
+ * ./gradlew :tools:loadGenerator -Pargs="/tmp/ttyGEN 1000 0 mixed"
+ * </pre>
+ * 参数依次为输出路径、帧率(0 不限速)、帧数(0 不限)、fdx|hdx|mixed。
+ */
+public final class LoadGeneratorTool {
+    private LoadGeneratorTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: LoadGeneratorTool <path> <framesPerSecond> [frameCount] [fdx|hdx|mixed]");
+            System.exit(2);
+        }
+        long count = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        int format = LoadGenerator.FORMAT_FDX;
+        if (args.length > 3) {
+            format = "hdx".equals(args[3]) ? LoadGenerator.FORMAT_HDX
+                    : "mixed".equals(args[3]) ? LoadGenerator.FORMAT_MIXED : LoadGenerator.FORMAT_FDX;
+        }
+        LoadGenerator generator = new LoadGenerator(Integer.parseInt(args[1]), count, format);
+        generator.open();
+        InputStream in = generator.getInputStream();
+        byte[] buffer = new byte[64];
+        try (OutputStream out = new FileOutputStream(args[0])) {
+            int size;
+            while ((size = in.read(buffer, 0, buffer.length)) >= 0) {
+                out.write(buffer, 0, size);
+                out.flush();
+            }
+        } finally {
+            generator.close();
+        }
+    }
+}
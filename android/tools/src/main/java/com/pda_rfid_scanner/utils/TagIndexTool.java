@@ -0,0 +1,52 @@
+package com.pda_rfid_scanner.utils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 由文本文件生成 {@link TagIndex} 索引：
+ * <pre>
+ * ./gradlew :tools:tagIndex -Pargs="registry.csv tag-index.bin 4"
+ * </pre>
+ * 每行 "卡号[,附加数据十六进制]"，附加数据不足 payloadSize 时补零。
+ */
+public final class TagIndexTool {
+    private TagIndexTool() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: TagIndexTool <csv> <index file> [payloadSize]");
+            System.exit(2);
+        }
+        int payloadSize = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        List<String> ids = new ArrayList<>();
+        List<byte[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new FileReader(args[0]))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                ids.add(comma < 0 ? line : line.substring(0, comma).trim());
+                rows.add(comma < 0 ? null : ByteUtils.parseHexStr2Byte(line.substring(comma + 1).trim()));
+            }
+        }
+        byte[] payloads = new byte[ids.size() * payloadSize];
+        for (int i = 0; i < rows.size(); i++) {
+            byte[] row = rows.get(i);
+            if (row != null) {
+                System.arraycopy(row, 0, payloads, i * payloadSize, Math.min(row.length, payloadSize));
+            }
+        }
+        File file = new File(args[1]);
+        int count = TagIndex.build(file, ids, payloads, payloadSize);
+        System.out.println(count + " tags, " + file.length() + " bytes");
+    }
+}
@@ -1,8 +1,33 @@
 import 'dart:async';
+import 'dart:convert';
 
 import 'package:flutter/foundation.dart';
 import 'package:flutter/services.dart';
 
+/// Event encodings delivered by the platform side
+enum ScanEventFormat { string, binary }
+
+/// What to do when a listener's event queue is full
+enum EventOverflowPolicy { dropOldest, dropNewest, latestOnly }
+
+/// How a reader splits its serial stream into frames
+enum ReaderFramingProfile {
+  /// FDX/HDX and '#' terminated LF frames (the built-in reader)
+  lf,
+
+  /// Plain STX ... ETX frames
+  stxEtx,
+}
+
+/// How the barcode engine runs between reads
+enum BarcodeScanMode {
+  /// Stop and restart the engine after each barcode (default)
+  single,
+
+  /// Keep the engine running across reads
+  continuous,
+}
+
 /// Types of scan data
 enum ScanType { barcode, rfid, unknown }
 
@@ -12,50 +37,380 @@ class ScanResult {
   final ScanType type;
   final DateTime timestamp;
 
+  /// Number of reads of this tag while it stayed in front of the reader.
+  /// Always 1 unless RFID de-duplication is enabled.
+  final int readCount;
+
+  /// True for a periodic "still present" event of a de-duplicated RFID tag
+  final bool isHeartbeat;
+
+  /// Numeric national ID of an RFID tag (binary events only)
+  final int? tagId;
+
+  /// Numeric country code of an RFID tag (binary events only)
+  final int? countryCode;
+
+  /// Raw frame bytes as read from the serial port (binary RFID events only)
+  final Uint8List? rawFrame;
+
+  /// Frame format of an RFID tag (binary events only): 1 for '#' ASCII,
+  /// 2 for FDX-B, 3 for HDX, or the id of a format registered natively
+  final int? tagFormat;
+
+  /// RFID reader that produced the event: 0 for the built-in reader,
+  /// otherwise the number returned by [PdaRfidScanner.addReader]
+  final int reader;
+
+  /// Whether the tag is in the known-tag index; null when no index is loaded
+  final bool? known;
+
+  /// Payload stored with the tag in the known-tag index
+  final Uint8List? payload;
+
   ScanResult({
     required this.data,
     required this.type,
     DateTime? timestamp,
+    this.readCount = 1,
+    this.isHeartbeat = false,
+    this.tagId,
+    this.countryCode,
+    this.rawFrame,
+    this.tagFormat,
+    this.reader = 0,
+    this.known,
+    this.payload,
   }) : timestamp = timestamp ?? DateTime.now();
 
+  // Binary event layout, see ScanEventCodec.java
+  static const int _headerLength = 32;
+  static const int _typeBarcode = 1;
+  static const int _typeRfid = 2;
+  static const int _typeRfidPresent = 3;
+  static const int _matchUnknown = 1;
+  static const int _matchKnown = 2;
+
+  /// Decode a binary scan event. The timestamp is the native capture time.
+  factory ScanResult.fromBytes(Uint8List bytes) {
+    final header = ByteData.sublistView(bytes);
+    final int type = header.getUint8(1);
+    final int format = header.getUint8(2);
+    final int countryCode = header.getUint16(4, Endian.little);
+    final int dataLength = header.getUint16(6, Endian.little);
+    final int readCount = header.getUint32(8, Endian.little);
+    final int rawLength = header.getUint16(12, Endian.little);
+    final int tagId = header.getInt64(16, Endian.little);
+    final int capturedMicros = header.getInt64(24, Endian.little);
+    final int match = header.getUint8(14);
+    final int payloadLength = header.getUint8(15);
+    final int payloadStart = _headerLength + dataLength + rawLength;
+    final dataBytes =
+        Uint8List.sublistView(bytes, _headerLength, _headerLength + dataLength);
+    final bool isRfid = type == _typeRfid || type == _typeRfidPresent;
+
+    return ScanResult(
+      data: type == _typeBarcode
+          ? utf8.decode(dataBytes, allowMalformed: true)
+          : String.fromCharCodes(dataBytes),
+      type: type == _typeBarcode
+          ? ScanType.barcode
+          : (isRfid ? ScanType.rfid : ScanType.unknown),
+      timestamp: DateTime.fromMicrosecondsSinceEpoch(capturedMicros),
+      readCount: readCount,
+      isHeartbeat: type == _typeRfidPresent,
+      tagId: isRfid && tagId >= 0 ? tagId : null,
+      countryCode: isRfid && countryCode != 0xFFFF ? countryCode : null,
+      rawFrame: rawLength > 0
+          ? Uint8List.sublistView(bytes, _headerLength + dataLength,
+              _headerLength + dataLength + rawLength)
+          : null,
+      tagFormat: isRfid && format != 0 ? format : null,
+      reader: header.getUint8(3),
+      known: match == _matchKnown
+          ? true
+          : (match == _matchUnknown ? false : null),
+      payload: match == _matchKnown
+          ? Uint8List.sublistView(
+              bytes, payloadStart, payloadStart + payloadLength)
+          : null,
+    );
+  }
+
   @override
   String toString() => '$type: $data';
 }
 
+/// One record of the native scan journal
+class JournalEntry {
+  /// Position in the journal, increasing by one per record
+  final int sequence;
+
+  /// Native capture time
+  final DateTime timestamp;
+  final ScanType type;
+
+  /// Tag ID or barcode; long barcodes are cut to 100 bytes, see [truncated]
+  final String data;
+  final int reader;
+  final int readCount;
+  final bool isHeartbeat;
+  final bool truncated;
+
+  JournalEntry({
+    required this.sequence,
+    required this.timestamp,
+    required this.type,
+    required this.data,
+    this.reader = 0,
+    this.readCount = 1,
+    this.isHeartbeat = false,
+    this.truncated = false,
+  });
+
+  @override
+  String toString() => '#$sequence $type: $data';
+}
+
+/// One page of [PdaRfidScanner.queryJournal] results
+class JournalPage {
+  final List<JournalEntry> entries;
+
+  /// Pass as afterSequence to get the next page; null when there are no
+  /// more records. A page may be empty but still have a next page when a
+  /// time filter skipped many records.
+  final int? nextAfterSequence;
+
+  JournalPage({required this.entries, this.nextAfterSequence});
+
+  // Page layout, see ScanJournal.java
+  static const int _headerLength = 16;
+  static const int _entryHeaderLength = 24;
+  static const int _typeBarcode = 1;
+  static const int _typeRfidPresent = 3;
+  static const int _flagTruncated = 1;
+
+  factory JournalPage.fromBytes(Uint8List bytes) {
+    final data = ByteData.sublistView(bytes);
+    final int count = data.getUint32(4, Endian.little);
+    final int next = data.getInt64(8, Endian.little);
+    final entries = <JournalEntry>[];
+    int pos = _headerLength;
+    for (int i = 0; i < count; i++) {
+      final int type = data.getUint8(pos + 16);
+      final int length = data.getUint8(pos + 18);
+      final start = pos + _entryHeaderLength;
+      final body = Uint8List.sublistView(bytes, start, start + length);
+      entries.add(JournalEntry(
+        sequence: data.getInt64(pos, Endian.little),
+        timestamp: DateTime.fromMicrosecondsSinceEpoch(
+            data.getInt64(pos + 8, Endian.little)),
+        type: type == _typeBarcode ? ScanType.barcode : ScanType.rfid,
+        data: type == _typeBarcode
+            ? utf8.decode(body, allowMalformed: true)
+            : String.fromCharCodes(body),
+        reader: data.getUint8(pos + 17),
+        readCount: data.getUint32(pos + 20, Endian.little),
+        isHeartbeat: type == _typeRfidPresent,
+        truncated: (data.getUint8(pos + 19) & _flagTruncated) != 0,
+      ));
+      pos = start + length;
+    }
+    return JournalPage(
+        entries: entries, nextAfterSequence: next >= 0 ? next : null);
+  }
+}
+
+/// One tag in an inventory session
+class InventoryEntry {
+  /// Tag ID as sent in RFID scan events
+  final String id;
+
+  /// Reads of this tag since the session started
+  final int count;
+  final DateTime firstSeen;
+  final DateTime lastSeen;
+
+  InventoryEntry({
+    required this.id,
+    required this.count,
+    required this.firstSeen,
+    required this.lastSeen,
+  });
+
+  @override
+  String toString() => '$id x$count';
+}
+
+/// Inventory session contents returned by
+/// [PdaRfidScanner.getInventorySnapshot]
+class InventorySnapshot {
+  /// True when [entries] only holds tags read since the previous snapshot
+  final bool isDiff;
+
+  /// New or updated tags; every tag of the session when [isDiff] is false
+  final List<InventoryEntry> entries;
+
+  /// Unique tags in the whole session
+  final int uniqueTags;
+
+  /// Reads in the whole session
+  final int totalReads;
+  final DateTime sessionStart;
+
+  InventorySnapshot({
+    required this.isDiff,
+    required this.entries,
+    required this.uniqueTags,
+    required this.totalReads,
+    required this.sessionStart,
+  });
+
+  // Snapshot layout, see TagInventory.java
+  static const int _headerLength = 32;
+  static const int _entryHeaderLength = 21;
+
+  factory InventorySnapshot.fromBytes(Uint8List bytes) {
+    final data = ByteData.sublistView(bytes);
+    final int count = data.getUint32(4, Endian.little);
+    final entries = <InventoryEntry>[];
+    int pos = _headerLength;
+    for (int i = 0; i < count; i++) {
+      final int idLength = data.getUint8(pos + 20);
+      final int start = pos + _entryHeaderLength;
+      entries.add(InventoryEntry(
+        id: String.fromCharCodes(bytes, start, start + idLength),
+        count: data.getUint32(pos + 16, Endian.little),
+        firstSeen: DateTime.fromMicrosecondsSinceEpoch(
+            data.getInt64(pos, Endian.little)),
+        lastSeen: DateTime.fromMicrosecondsSinceEpoch(
+            data.getInt64(pos + 8, Endian.little)),
+      ));
+      pos = start + idLength;
+    }
+    return InventorySnapshot(
+      isDiff: data.getUint8(1) == 1,
+      entries: entries,
+      uniqueTags: data.getUint32(8, Endian.little),
+      totalReads: data.getInt64(16, Endian.little),
+      sessionStart: DateTime.fromMicrosecondsSinceEpoch(
+          data.getInt64(24, Endian.little)),
+    );
+  }
+}
+
 /// Main class for working with PDA scanner and RFID
 class PdaRfidScanner {
   static const MethodChannel _channel = MethodChannel('pda_rfid_scanner');
   static const EventChannel _eventChannel =
       EventChannel('pda_rfid_scanner/stream');
 
+  static Stream<List<ScanResult>>? _scanBatchStream;
   static Stream<ScanResult>? _scanStream;
 
   /// Get a stream of scan results
   static Stream<ScanResult> get scanStream {
-    _scanStream ??= _eventChannel.receiveBroadcastStream().map((dynamic event) {
-      if (event is String) {
-        if (event.startsWith('barcode:')) {
-          return ScanResult(
-            data: event.substring(8).trim(),
-            type: ScanType.barcode,
-          );
-        } else if (event.startsWith('rfid:')) {
-          return ScanResult(
-            data: event.substring(5).trim(),
-            type: ScanType.rfid,
-          );
-        } else {
-          // For backward compatibility - assume barcode if no prefix
-          return ScanResult(
-            data: event.trim(),
-            type: ScanType.barcode,
-          );
-        }
+    _scanStream ??= scanBatchStream.expand((batch) => batch);
+
+    return _scanStream!;
+  }
+
+  /// Get a stream of scan result batches.
+  /// When event batching is enabled (see [setEventBatching]) each list holds
+  /// every scan delivered in one platform channel message; otherwise each
+  /// list holds a single result.
+  static Stream<List<ScanResult>> get scanBatchStream {
+    _scanBatchStream ??=
+        _eventChannel.receiveBroadcastStream().map((dynamic event) {
+      if (event is List) {
+        return event.map(_parseEvent).toList(growable: false);
       }
-      return ScanResult(data: event.toString(), type: ScanType.unknown);
+      return <ScanResult>[_parseEvent(event)];
     });
 
-    return _scanStream!;
+    return _scanBatchStream!;
+  }
+
+  static ScanResult _parseEvent(dynamic event) {
+    if (event is Uint8List) {
+      return ScanResult.fromBytes(event);
+    }
+    if (event is String) {
+      if (event.startsWith('barcode:')) {
+        return ScanResult(
+          data: event.substring(8).trim(),
+          type: ScanType.barcode,
+        );
+      } else if (event.startsWith('rfid')) {
+        return _parseRfidEvent(event);
+      } else {
+        // For backward compatibility - assume barcode if no prefix
+        return ScanResult(
+          data: event.trim(),
+          type: ScanType.barcode,
+        );
+      }
+    }
+    return ScanResult(data: event.toString(), type: ScanType.unknown);
+  }
+
+  /// Parse "rfid[@reader]:<tag>" and "rfid_present[@reader]:<readCount>:<tag>".
+  /// With a known-tag index loaded <tag> ends in "|known:<payload hex>" or
+  /// "|unknown".
+  static ScanResult _parseRfidEvent(String event) {
+    final colon = event.indexOf(':');
+    if (colon < 0) {
+      return ScanResult(data: event.trim(), type: ScanType.barcode);
+    }
+    String kind = event.substring(0, colon);
+    String body = event.substring(colon + 1);
+    int reader = 0;
+    final at = kind.indexOf('@');
+    if (at >= 0) {
+      reader = int.tryParse(kind.substring(at + 1)) ?? 0;
+      kind = kind.substring(0, at);
+    }
+    int readCount = 1;
+    if (kind == 'rfid_present') {
+      final separator = body.indexOf(':');
+      readCount = int.tryParse(body.substring(0, separator)) ?? 1;
+      body = body.substring(separator + 1);
+    }
+    if (kind == 'rfid' || kind == 'rfid_present') {
+      bool? known;
+      Uint8List? payload;
+      final bar = body.lastIndexOf('|');
+      if (bar >= 0) {
+        final match = body.substring(bar + 1).trim();
+        if (match == 'unknown') {
+          known = false;
+        } else if (match.startsWith('known:')) {
+          known = true;
+          payload = _parseHex(match.substring(6));
+        }
+        if (known != null) {
+          body = body.substring(0, bar);
+        }
+      }
+      return ScanResult(
+        data: body.trim(),
+        type: ScanType.rfid,
+        readCount: readCount,
+        isHeartbeat: kind == 'rfid_present',
+        reader: reader,
+        known: known,
+        payload: payload,
+      );
+    }
+    // For backward compatibility - assume barcode if no known prefix
+    return ScanResult(data: event.trim(), type: ScanType.barcode);
+  }
+
+  static Uint8List _parseHex(String hex) {
+    final bytes = Uint8List(hex.length ~/ 2);
+    for (int i = 0; i < bytes.length; i++) {
+      bytes[i] = int.parse(hex.substring(i * 2, i * 2 + 2), radix: 16);
+    }
+    return bytes;
   }
 
   /// Get platform version
@@ -64,6 +419,26 @@ class PdaRfidScanner {
     return version;
   }
 
+  /// Preload the serial port native library and the barcode scanner SDK in
+  /// the background.
+  ///
+  /// Nothing is opened or powered at startup; the RFID reader thread only
+  /// runs between [enableRfid] and [disableRfid]. Calling this once after
+  /// launch, off the critical path, makes the first scan as fast as later
+  /// ones. Returns {serialPort, scanner}: whether each loaded.
+  static Future<Map<String, bool>> warmUp() async {
+    try {
+      final Map<dynamic, dynamic>? status =
+          await _channel.invokeMethod('warmUp');
+      return status?.cast<String, bool>() ?? {};
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error warming up: $e');
+      }
+      return {};
+    }
+  }
+
   /// Enable RFID module (turns off barcode scanner if active)
   static Future<bool> enableRfid() async {
     try {
@@ -131,6 +506,578 @@ class PdaRfidScanner {
     }
   }
 
+  /// Suppress repeated reads of the same RFID tag within [window].
+  /// A tag held near the reader is reported once; it is reported again only
+  /// after it has been out of range for longer than [window].
+  /// If [heartbeat] is non-zero, a "still present" event carrying the read
+  /// count is emitted at that interval while the tag stays in range.
+  /// Pass [Duration.zero] as [window] to disable de-duplication.
+  static Future<bool> setDedupWindow(Duration window,
+      {Duration heartbeat = Duration.zero}) async {
+    try {
+      final String result = await _channel.invokeMethod('setDedupWindow', {
+        'windowMs': window.inMilliseconds,
+        'heartbeatMs': heartbeat.inMilliseconds,
+      });
+      return result.contains('Dedup window');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting dedup window: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Select single or continuous barcode scanning.
+  ///
+  /// Continuous mode keeps the scan engine running instead of stopping and
+  /// restarting it after every barcode, removing the restart gap between
+  /// reads. [interval] sets the engine's pause between continuous reads (zero
+  /// keeps the device setting). Combine with [setBarcodeDedupWindow] so a
+  /// barcode held in view is reported once. Achieved rate is reported by
+  /// [getStats] as barcodeScansPerSecond.
+  static Future<bool> setBarcodeScanMode(BarcodeScanMode mode,
+      {Duration interval = Duration.zero}) async {
+    try {
+      final String result =
+          await _channel.invokeMethod('setBarcodeScanMode', {
+        'mode': mode == BarcodeScanMode.continuous ? 'continuous' : 'single',
+        'intervalMs': interval.inMilliseconds,
+      });
+      return result.contains(
+          mode == BarcodeScanMode.continuous ? 'continuous' : 'single');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting barcode scan mode: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Suppress the same barcode read again within [window] of its last read.
+  /// Pass [Duration.zero] to disable.
+  static Future<bool> setBarcodeDedupWindow(Duration window) async {
+    try {
+      final String result = await _channel.invokeMethod(
+          'setBarcodeDedupWindow', {'windowMs': window.inMilliseconds});
+      return result.contains('dedup window');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting barcode dedup window: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Deliver scan events in batches instead of one platform channel message
+  /// per scan. A batch is sent when it reaches [maxBatchSize] events or when
+  /// its first event has waited [maxLatency], whichever comes first.
+  /// Batches are available on [scanBatchStream]; [scanStream] keeps emitting
+  /// individual results. Pass `enable: false` to go back to per-scan delivery.
+  static Future<bool> setEventBatching(
+      {bool enable = true,
+      int maxBatchSize = 32,
+      Duration maxLatency = const Duration(milliseconds: 16)}) async {
+    try {
+      final String result = await _channel.invokeMethod('setEventBatching', {
+        'maxBatchSize': enable ? maxBatchSize : 1,
+        'maxLatencyMs': maxLatency.inMilliseconds,
+      });
+      return result.contains('Event batching');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting event batching: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Select how scan events are encoded on the platform side.
+  /// [ScanEventFormat.binary] sends packed records that carry the numeric tag
+  /// ID, country code, raw frame and the native capture time, and skips the
+  /// string building and parsing on both sides. [scanStream] decodes both
+  /// formats transparently.
+  static Future<bool> setEventFormat(ScanEventFormat format) async {
+    final String name = format == ScanEventFormat.binary ? 'binary' : 'string';
+    try {
+      final String result =
+          await _channel.invokeMethod('setEventFormat', {'format': name});
+      return result.contains(name);
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting event format: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Configure the bounded queue that buffers scan events for a listener
+  /// which is not keeping up. When [capacity] events are pending, [policy]
+  /// decides which event is dropped; dropped events are counted in
+  /// [getEventQueueStats].
+  static Future<bool> setEventQueue(
+      {int capacity = 256,
+      EventOverflowPolicy policy = EventOverflowPolicy.dropOldest}) async {
+    const names = {
+      EventOverflowPolicy.dropOldest: 'dropOldest',
+      EventOverflowPolicy.dropNewest: 'dropNewest',
+      EventOverflowPolicy.latestOnly: 'latestOnly',
+    };
+    try {
+      final String result = await _channel.invokeMethod('setEventQueue', {
+        'capacity': capacity,
+        'policy': names[policy],
+      });
+      return result.contains('Event queue');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting event queue: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Get event queue counters: published, delivered, dropped, queued and
+  /// the number of active listeners
+  static Future<Map<String, int>> getEventQueueStats() async {
+    try {
+      final Map<dynamic, dynamic>? stats =
+          await _channel.invokeMethod('getEventQueueStats');
+      return stats?.map((key, value) =>
+              MapEntry(key as String, (value as num).toInt())) ??
+          {};
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error getting event queue stats: $e');
+      }
+      return {};
+    }
+  }
+
+  /// Get a snapshot of native pipeline metrics.
+  ///
+  /// Counters: bytesRead, framesAssembled, framingDiscardedBytes, tagsDecoded,
+  /// decodeFailures, duplicatesSuppressed, barcodesReceived,
+  /// barcodeDuplicatesSuppressed, eventsPublished, eventsDelivered,
+  /// eventsDropped.
+  /// Rates: barcodeScansPerSecond (recent) and barcodeScansPerSecondPeak.
+  /// Latency histograms (microseconds): readToDecodeUs (serial read to
+  /// decoded tag) and decodeToSinkUs (decoded event to EventSink), each a map
+  /// with count, mean, p50, p90, p99, max and power-of-two buckets.
+  /// modeSwitchUs is the same kind of histogram for barcode/RFID switches and
+  /// lastModeSwitchUs the most recent switch (-1 if none yet).
+  static Future<Map<String, dynamic>> getStats() async {
+    try {
+      final Map<dynamic, dynamic>? stats =
+          await _channel.invokeMethod('getStats');
+      return stats?.cast<String, dynamic>() ?? {};
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error getting stats: $e');
+      }
+      return {};
+    }
+  }
+
+  /// Reset all native pipeline metrics to zero
+  static Future<bool> resetStats() async {
+    try {
+      final String result = await _channel.invokeMethod('resetStats');
+      return result.contains('reset');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error resetting stats: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Duty-cycle the RFID module's power while RFID mode is on.
+  ///
+  /// The module is powered for [onMs] then off for [offMs], repeatedly; both
+  /// must be positive to cycle. After [idleTimeoutMs] without a tag it is
+  /// powered down until [wakeRfid]. All zero (the default) keeps it powered.
+  /// Powered time and power cycles are reported by [getStats] as
+  /// rfidPoweredMs, rfidPowerCycles and rfidIdlePowerDowns.
+  static Future<bool> setPowerSchedule(
+      {int onMs = 0, int offMs = 0, int idleTimeoutMs = 0}) async {
+    try {
+      final String result = await _channel.invokeMethod('setPowerSchedule', {
+        'onMs': onMs,
+        'offMs': offMs,
+        'idleTimeoutMs': idleTimeoutMs,
+      });
+      return result.contains('set');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting power schedule: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Power the RFID module up immediately and restart the schedule's timers.
+  /// Returns false if RFID mode is off.
+  static Future<bool> wakeRfid() async {
+    try {
+      return await _channel.invokeMethod('wakeRfid') ?? false;
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error waking RFID: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Let barcode scanning and RFID reading run at the same time.
+  ///
+  /// In dual mode [startBarcodeScan] and [enableRfid] no longer switch each
+  /// other off. Results from both are merged into [scanStream] ordered by
+  /// native capture time; each event is held for [hold] so a slightly later
+  /// delivery from the other path can still be placed before it. Turning dual
+  /// mode off leaves running devices on until the next start.
+  static Future<bool> setDualMode(bool enabled,
+      {Duration hold = const Duration(milliseconds: 5)}) async {
+    try {
+      final String result = await _channel.invokeMethod('setDualMode', {
+        'enabled': enabled,
+        'holdMs': hold.inMilliseconds,
+      });
+      return result.contains(enabled ? 'enabled' : 'disabled');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting dual mode: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Get every scan type that is currently active
+  static Future<Set<ScanType>> getActiveModes() async {
+    try {
+      final List<dynamic>? modes =
+          await _channel.invokeMethod('getActiveModes');
+      return (modes ?? [])
+          .map((mode) => mode == 'barcode'
+              ? ScanType.barcode
+              : (mode == 'rfid' ? ScanType.rfid : ScanType.unknown))
+          .toSet();
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error getting active modes: $e');
+      }
+      return {};
+    }
+  }
+
+  /// Keep the idle device open when switching between barcode and RFID.
+  ///
+  /// With standby on, [disableRfid] keeps the serial port open and the module
+  /// powered and [stopBarcodeScan] keeps the scanner open, so the next switch
+  /// only toggles reading. Turning standby off releases the idle device.
+  /// Switch latency is reported by [getStats] as modeSwitchUs and
+  /// lastModeSwitchUs.
+  static Future<bool> setStandby(bool enabled) async {
+    try {
+      final String result =
+          await _channel.invokeMethod('setStandby', {'enabled': enabled});
+      return result.contains(enabled ? 'enabled' : 'disabled');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting standby: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Check the checksum of every RFID frame before reporting it (default on).
+  ///
+  /// FDX-B and HDX frames whose XOR checksum or out-of-range ISO 11784
+  /// fields do not match are dropped instead of being reported as tags and
+  /// counted per format under 'decoder' in [getStats]. Turn this off only to
+  /// diagnose readers that send non-standard checksums.
+  static Future<bool> setChecksumVerification(bool enabled) async {
+    try {
+      final String result = await _channel
+          .invokeMethod('setChecksumVerification', {'enabled': enabled});
+      return result.contains(enabled ? 'enabled' : 'disabled');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting checksum verification: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Open an additional RFID reader on [path] and return its reader number,
+  /// or null on failure.
+  ///
+  /// Events from this reader arrive on [scanStream] with [ScanResult.reader]
+  /// set to the returned number. Only the serial port is opened; the module
+  /// must already be powered.
+  static Future<int?> addReader(
+    String path, {
+    int baudRate = 9600,
+    ReaderFramingProfile profile = ReaderFramingProfile.lf,
+    int maxFrameLength = 64,
+  }) async {
+    try {
+      return await _channel.invokeMethod<int>('addReader', {
+        'path': path,
+        'baudRate': baudRate,
+        'profile': profile == ReaderFramingProfile.stxEtx ? 'stxEtx' : 'lf',
+        'maxFrameLength': maxFrameLength,
+      });
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error adding reader: $e');
+      }
+      return null;
+    }
+  }
+
+  /// Close and remove a reader added with [addReader]
+  static Future<bool> removeReader(int reader) async {
+    try {
+      final String result =
+          await _channel.invokeMethod('removeReader', {'reader': reader});
+      return result.contains('removed');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error removing reader: $e');
+      }
+      return false;
+    }
+  }
+
+  /// List readers added with [addReader]: reader, path, baudRate, profile, opened
+  static Future<List<Map<String, dynamic>>> getReaders() async {
+    try {
+      final List<dynamic>? readers = await _channel.invokeMethod('getReaders');
+      return readers
+              ?.map((reader) => (reader as Map).cast<String, dynamic>())
+              .toList() ??
+          [];
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error listing readers: $e');
+      }
+      return [];
+    }
+  }
+
+  /// Record raw serial reads in a fixed-size native ring buffer.
+  ///
+  /// [records] is the number of reads kept before the oldest is overwritten.
+  /// Off by default; re-enabling with a different size starts empty.
+  static Future<bool> setRawCapture(bool enabled, {int records = 4096}) async {
+    try {
+      final String result = await _channel.invokeMethod(
+          'setRawCapture', {'enabled': enabled, 'records': records});
+      return result.contains(enabled ? 'enabled' : 'disabled');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting raw capture: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Write the raw capture to a file and return its path, or null on failure.
+  ///
+  /// Without [path] the file goes to the app cache directory. The file can be
+  /// decoded offline with `com.pda_rfid_scanner.utils.CaptureReplay`.
+  static Future<String?> dumpRawCapture({String? path}) async {
+    try {
+      final Map<dynamic, dynamic>? dump =
+          await _channel.invokeMethod('dumpRawCapture', {'path': path});
+      return dump?['path'] as String?;
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error dumping raw capture: $e');
+      }
+      return null;
+    }
+  }
+
+  /// Memory-map a known-tag index file built by [buildTagIndex] or by
+  /// `com.pda_rfid_scanner.utils.TagIndex` and return its entry count,
+  /// or null on failure.
+  ///
+  /// Every following RFID event carries [ScanResult.known] and, for known
+  /// tags, [ScanResult.payload]. Lookups are a binary search over the mapped
+  /// file, so the registry does not need to be held in Dart or Java heap.
+  static Future<int?> loadTagIndex(String path) async {
+    try {
+      final Map<dynamic, dynamic>? index =
+          await _channel.invokeMethod('loadTagIndex', {'path': path});
+      return index?['entries'] as int?;
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error loading tag index: $e');
+      }
+      return null;
+    }
+  }
+
+  /// Write a known-tag index file and load it. Returns the entry count, or
+  /// null on failure (including duplicate [ids]).
+  ///
+  /// [ids] are tag IDs as they appear in [ScanResult.data]. [payloads] holds
+  /// [payloadSize] bytes (0..255) per ID, in the same order. Without [path]
+  /// the file is written to the app files directory and can be loaded with
+  /// [loadTagIndex] on later starts without rebuilding.
+  static Future<int?> buildTagIndex(List<String> ids,
+      {Uint8List? payloads, int payloadSize = 0, String? path}) async {
+    try {
+      final Map<dynamic, dynamic>? index =
+          await _channel.invokeMethod('buildTagIndex', {
+        'ids': ids,
+        'payloads': payloads,
+        'payloadSize': payloadSize,
+        'path': path,
+      });
+      return index?['entries'] as int?;
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error building tag index: $e');
+      }
+      return null;
+    }
+  }
+
+  /// Stop looking tags up; events no longer carry a match result
+  static Future<bool> closeTagIndex() async {
+    try {
+      final String result = await _channel.invokeMethod('closeTagIndex');
+      return result.contains('closed');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error closing tag index: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Enable or disable the native scan journal.
+  ///
+  /// Every barcode and RFID event is appended to memory-mapped segment files
+  /// in [directory] (by default in the app files directory) before it is sent
+  /// to Dart, so scans survive an app crash. Records are forced to storage
+  /// after [commitRecords] records or [commitInterval], whichever comes
+  /// first. The journal keeps [maxSegments] segments of [segmentRecords]
+  /// records each and drops the oldest beyond that. Reopening recovers
+  /// everything up to the last intact record.
+  ///
+  /// Returns {directory, firstSequence, lastSequence, recovered} when
+  /// enabled, otherwise null.
+  static Future<Map<String, dynamic>?> setJournal(
+    bool enabled, {
+    String? directory,
+    int segmentRecords = 32768,
+    int maxSegments = 8,
+    int commitRecords = 64,
+    Duration commitInterval = const Duration(milliseconds: 200),
+  }) async {
+    try {
+      final Map<dynamic, dynamic>? info =
+          await _channel.invokeMethod('setJournal', {
+        'enabled': enabled,
+        'directory': directory,
+        'segmentRecords': segmentRecords,
+        'maxSegments': maxSegments,
+        'commitRecords': commitRecords,
+        'commitMs': commitInterval.inMilliseconds,
+      });
+      return info?.cast<String, dynamic>();
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error setting journal: $e');
+      }
+      return null;
+    }
+  }
+
+  /// Read one page of the scan journal, or null on failure.
+  ///
+  /// Returns up to [limit] records after [afterSequence], optionally only
+  /// those captured between [from] and [to] inclusive. Continue with
+  /// [JournalPage.nextAfterSequence] until it is null.
+  static Future<JournalPage?> queryJournal({
+    int afterSequence = 0,
+    DateTime? from,
+    DateTime? to,
+    int limit = 500,
+  }) async {
+    try {
+      final Uint8List? bytes = await _channel.invokeMethod('queryJournal', {
+        'afterSequence': afterSequence,
+        'fromMicros': from?.microsecondsSinceEpoch,
+        'toMicros': to?.microsecondsSinceEpoch,
+        'limit': limit,
+      });
+      return bytes != null ? JournalPage.fromBytes(bytes) : null;
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error querying journal: $e');
+      }
+      return null;
+    }
+  }
+
+  /// Start an RFID inventory session, clearing the previous one.
+  ///
+  /// Every decoded read is counted natively per tag, including reads that
+  /// de-duplication would suppress. Per-read RFID events are not sent to
+  /// [scanStream] during the session unless [streamReads] is true; use
+  /// [getInventorySnapshot] to pull the results instead.
+  static Future<bool> startInventory({bool streamReads = false}) async {
+    try {
+      final String result = await _channel
+          .invokeMethod('startInventory', {'streamReads': streamReads});
+      return result.contains('started');
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error starting inventory: $e');
+      }
+      return false;
+    }
+  }
+
+  /// Stop the inventory session and return its totals as {tags, reads}.
+  /// The contents stay available to [getInventorySnapshot].
+  static Future<Map<String, int>> stopInventory() async {
+    try {
+      final Map<dynamic, dynamic>? summary =
+          await _channel.invokeMethod('stopInventory');
+      return summary?.cast<String, int>() ?? {};
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error stopping inventory: $e');
+      }
+      return {};
+    }
+  }
+
+  /// Get the tags of the current inventory session, or null on failure.
+  ///
+  /// With [sinceLast] (the default) only tags read since the previous
+  /// snapshot are returned, so polling costs grow with the changes rather
+  /// than the session size. Pass false for every tag.
+  static Future<InventorySnapshot?> getInventorySnapshot(
+      {bool sinceLast = true}) async {
+    try {
+      final Uint8List? bytes = await _channel
+          .invokeMethod('getInventorySnapshot', {'sinceLast': sinceLast});
+      return bytes != null ? InventorySnapshot.fromBytes(bytes) : null;
+    } catch (e) {
+      if (kDebugMode) {
+        print('Error getting inventory snapshot: $e');
+      }
+      return null;
+    }
+  }
+
   /// Check if barcode scanner is active
   static Future<bool> isScannerActive() async {
     try {
@@ -155,7 +1102,8 @@ class PdaRfidScanner {
     }
   }
 
-  /// Get current operation mode (barcode/rfid/unknown)
+  /// Get current operation mode (barcode/rfid/unknown).
+  /// In dual mode with both running this is unknown; use [getActiveModes].
   static Future<ScanType> getCurrentMode() async {
     try {
       final String mode =
@@ -1,4 +1,5 @@
 import 'dart:async';
+import 'dart:typed_data';
 
 import 'package:flutter/services.dart';
 import 'package:flutter_test/flutter_test.dart';
@@ -29,6 +30,8 @@ class MockPdaRfidScannerPlatform with MockPlatformInterfaceMixin {
     switch (methodName) {
       case 'getPlatformVersion':
         return Future.value('42');
+      case 'warmUp':
+        return Future.value({'serialPort': true, 'scanner': true});
       case 'setRfidPowerOn':
       case 'setPowerOn':
         methodCalls['rfidPower'] = true;
@@ -48,6 +51,116 @@ class MockPdaRfidScannerPlatform with MockPlatformInterfaceMixin {
         methodCalls['autoRestart'] = arguments['enable'];
         return Future.value(
             'Auto restart ${arguments['enable'] ? 'enabled' : 'disabled'}');
+      case 'setDedupWindow':
+        methodCalls['dedupWindow'] = arguments['windowMs'];
+        return Future.value('Dedup window ${arguments['windowMs']} ms');
+      case 'setEventBatching':
+        methodCalls['batchSize'] = arguments['maxBatchSize'];
+        return Future.value(
+            'Event batching ${arguments['maxBatchSize'] > 1 ? 'enabled' : 'disabled'}');
+      case 'setEventFormat':
+        methodCalls['eventFormat'] = arguments['format'];
+        return Future.value('Event format ${arguments['format']}');
+      case 'setEventQueue':
+        methodCalls['eventQueue'] = arguments['capacity'];
+        return Future.value('Event queue ${arguments['capacity']}');
+      case 'getEventQueueStats':
+        return Future.value({
+          'published': 0,
+          'delivered': 0,
+          'dropped': 0,
+          'queued': 0,
+          'listeners': 1,
+        });
+      case 'getStats':
+        return Future.value({
+          'bytesRead': 120,
+          'tagsDecoded': 4,
+          'readToDecodeUs': {'count': 4, 'p50': 127},
+        });
+      case 'resetStats':
+        return Future.value('Stats reset');
+      case 'setBarcodeScanMode':
+        return Future.value('Barcode scan mode ${arguments['mode']}');
+      case 'setBarcodeDedupWindow':
+        return Future.value(
+            'Barcode dedup window ${arguments['windowMs']} ms');
+      case 'setPowerSchedule':
+        methodCalls['powerSchedule'] = arguments;
+        return Future.value('Power schedule set');
+      case 'wakeRfid':
+        return Future.value(methodCalls['rfidPower'] ?? false);
+      case 'setDualMode':
+        methodCalls['dualMode'] = arguments['enabled'];
+        return Future.value(
+            'Dual mode ${arguments['enabled'] ? 'enabled' : 'disabled'}');
+      case 'getActiveModes':
+        return Future.value([
+          if (methodCalls['scannerActive'] == true) 'barcode',
+          if (methodCalls['rfidPower'] == true) 'rfid',
+        ]);
+      case 'setStandby':
+        methodCalls['standby'] = arguments['enabled'];
+        return Future.value(
+            'Standby ${arguments['enabled'] ? 'enabled' : 'disabled'}');
+      case 'setChecksumVerification':
+        return Future.value(
+            'Checksum verification ${arguments['enabled'] ? 'enabled' : 'disabled'}');
+      case 'addReader':
+        methodCalls['readerPath'] = arguments['path'];
+        return Future.value(1);
+      case 'removeReader':
+        return Future.value('Reader ${arguments['reader']} removed');
+      case 'getReaders':
+        return Future.value([
+          {
+            'reader': 1,
+            'path': methodCalls['readerPath'],
+            'baudRate': 115200,
+            'profile': 'lf',
+            'opened': true,
+          }
+        ]);
+      case 'setRawCapture':
+        methodCalls['rawCapture'] = arguments['enabled'];
+        return Future.value(
+            'Raw capture ${arguments['enabled'] ? 'enabled' : 'disabled'}');
+      case 'dumpRawCapture':
+        return Future.value({
+          'path': arguments['path'] ?? '/cache/lf-capture.bin',
+          'records': 2,
+          'bytes': 80,
+        });
+      case 'loadTagIndex':
+        return Future.value(
+            {'path': arguments['path'], 'entries': 2, 'payloadSize': 1});
+      case 'buildTagIndex':
+        return Future.value({
+          'path': arguments['path'] ?? '/files/tag-index.bin',
+          'entries': (arguments['ids'] as List).length,
+          'payloadSize': arguments['payloadSize'],
+        });
+      case 'closeTagIndex':
+        return Future.value('Tag index closed');
+      case 'setJournal':
+        if (arguments['enabled'] != true) {
+          return Future.value(null);
+        }
+        return Future.value({
+          'directory': arguments['directory'] ?? '/files/scan-journal',
+          'firstSequence': 1,
+          'lastSequence': 2,
+          'recovered': 2,
+        });
+      case 'queryJournal':
+        return Future.value(journalPage(arguments['afterSequence']));
+      case 'startInventory':
+        methodCalls['inventoryStreamReads'] = arguments['streamReads'];
+        return Future.value('Inventory started');
+      case 'stopInventory':
+        return Future.value({'tags': 1, 'reads': 3});
+      case 'getInventorySnapshot':
+        return Future.value(inventorySnapshot(arguments['sinceLast']));
       case 'isScannerActive':
         return Future.value(methodCalls['scannerActive'] ?? false);
       case 'isRfidActive':
@@ -65,6 +178,42 @@ class MockPdaRfidScannerPlatform with MockPlatformInterfaceMixin {
     }
   }
 
+  // Two journal records in the ScanJournal.java page layout, one per page
+  Uint8List journalPage(int afterSequence) {
+    final isBarcode = afterSequence == 0;
+    final body = (isBarcode ? '4870001234567' : '999123456789012').codeUnits;
+    final bytes = ByteData(16 + 24 + body.length);
+    bytes.setUint32(4, 1, Endian.little);
+    bytes.setInt64(8, isBarcode ? 1 : -1, Endian.little);
+    bytes.setInt64(16, afterSequence + 1, Endian.little);
+    bytes.setInt64(24, 1700000000000000 + afterSequence, Endian.little);
+    bytes.setUint8(32, isBarcode ? 1 : 2);
+    bytes.setUint8(34, body.length);
+    bytes.setUint32(36, 1, Endian.little);
+    final list = bytes.buffer.asUint8List();
+    list.setRange(40, list.length, body);
+    return list;
+  }
+
+  // One tag read 3 times, in the TagInventory.java layout
+  Uint8List inventorySnapshot(bool sinceLast) {
+    final id = '999123456789012'.codeUnits;
+    final bytes = ByteData(32 + 21 + id.length);
+    bytes.setUint8(0, 1);
+    bytes.setUint8(1, sinceLast ? 1 : 0);
+    bytes.setUint32(4, 1, Endian.little);
+    bytes.setUint32(8, 1, Endian.little);
+    bytes.setInt64(16, 3, Endian.little);
+    bytes.setInt64(24, 1700000000000000, Endian.little);
+    bytes.setInt64(32, 1700000000100000, Endian.little);
+    bytes.setInt64(40, 1700000000300000, Endian.little);
+    bytes.setUint32(48, 3, Endian.little);
+    bytes.setUint8(52, id.length);
+    final list = bytes.buffer.asUint8List();
+    list.setRange(53, list.length, id);
+    return list;
+  }
+
   // For testing the event channel
   Stream<dynamic> getScanStream() {
     return _scanStreamController.stream;
@@ -88,6 +237,11 @@ void main() {
       expect(await PdaRfidScanner.getPlatformVersion(), '42');
     });
 
+    test('warmUp', () async {
+      expect(await PdaRfidScanner.warmUp(),
+          {'serialPort': true, 'scanner': true});
+    });
+
     test('enableRfid and disableRfid', () async {
       // Test enableRfid
       expect(await PdaRfidScanner.enableRfid(), true);
@@ -124,6 +278,201 @@ void main() {
       expect(await PdaRfidScanner.setAutoRestartScan(false), true);
     });
 
+    test('setDedupWindow', () async {
+      expect(
+          await PdaRfidScanner.setDedupWindow(const Duration(milliseconds: 500),
+              heartbeat: const Duration(seconds: 2)),
+          true);
+
+      // Disable de-duplication
+      expect(await PdaRfidScanner.setDedupWindow(Duration.zero), true);
+    });
+
+    test('setEventBatching', () async {
+      expect(await PdaRfidScanner.setEventBatching(maxBatchSize: 64), true);
+      expect(await PdaRfidScanner.setEventBatching(enable: false), true);
+    });
+
+    test('setEventFormat', () async {
+      expect(await PdaRfidScanner.setEventFormat(ScanEventFormat.binary), true);
+      expect(await PdaRfidScanner.setEventFormat(ScanEventFormat.string), true);
+    });
+
+    test('binary scan event decoding', () {
+      final frame = Uint8List.fromList([0x02, 0x41, 0x03]);
+      final id = '999123456789012'.codeUnits;
+      final bytes = ByteData(32 + id.length + frame.length);
+      bytes.setUint8(0, 1);
+      bytes.setUint8(1, 2);
+      bytes.setUint8(2, 2);
+      bytes.setUint8(3, 2);
+      bytes.setUint16(4, 999, Endian.little);
+      bytes.setUint16(6, id.length, Endian.little);
+      bytes.setUint32(8, 1, Endian.little);
+      bytes.setUint16(12, frame.length, Endian.little);
+      bytes.setInt64(16, 123456789012, Endian.little);
+      bytes.setInt64(24, 1700000000123456, Endian.little);
+      final list = bytes.buffer.asUint8List();
+      list.setRange(32, 32 + id.length, id);
+      list.setRange(32 + id.length, list.length, frame);
+
+      final result = ScanResult.fromBytes(list);
+      expect(result.type, ScanType.rfid);
+      expect(result.data, '999123456789012');
+      expect(result.tagId, 123456789012);
+      expect(result.countryCode, 999);
+      expect(result.rawFrame, frame);
+      expect(result.tagFormat, 2);
+      expect(result.isHeartbeat, false);
+      expect(result.reader, 2);
+      expect(result.timestamp.microsecondsSinceEpoch, 1700000000123456);
+    });
+
+    test('binary scan event with known-tag payload', () {
+      final id = '999123456789012'.codeUnits;
+      final bytes = ByteData(32 + id.length + 2);
+      bytes.setUint8(0, 1);
+      bytes.setUint8(1, 2);
+      bytes.setUint16(6, id.length, Endian.little);
+      bytes.setUint32(8, 1, Endian.little);
+      bytes.setUint8(14, 2);
+      bytes.setUint8(15, 2);
+      final list = bytes.buffer.asUint8List();
+      list.setRange(32, 32 + id.length, id);
+      list.setRange(32 + id.length, list.length, [0x0A, 0x0B]);
+
+      final known = ScanResult.fromBytes(list);
+      expect(known.known, true);
+      expect(known.payload, [0x0A, 0x0B]);
+      expect(known.rawFrame, isNull);
+
+      bytes.setUint8(14, 1);
+      bytes.setUint8(15, 0);
+      final unknown = ScanResult.fromBytes(list);
+      expect(unknown.known, false);
+      expect(unknown.payload, isNull);
+
+      bytes.setUint8(14, 0);
+      expect(ScanResult.fromBytes(list).known, isNull);
+    });
+
+    test('loadTagIndex, buildTagIndex and closeTagIndex', () async {
+      expect(await PdaRfidScanner.loadTagIndex('/files/herd.bin'), 2);
+      expect(
+          await PdaRfidScanner.buildTagIndex(
+              ['999123456789012', '999000000000001'],
+              payloads: Uint8List.fromList([1, 2]),
+              payloadSize: 1),
+          2);
+      expect(await PdaRfidScanner.closeTagIndex(), true);
+    });
+
+    test('setEventQueue and getEventQueueStats', () async {
+      expect(
+          await PdaRfidScanner.setEventQueue(
+              capacity: 64, policy: EventOverflowPolicy.latestOnly),
+          true);
+      final stats = await PdaRfidScanner.getEventQueueStats();
+      expect(stats['dropped'], 0);
+    });
+
+    test('getStats and resetStats', () async {
+      final stats = await PdaRfidScanner.getStats();
+      expect(stats['tagsDecoded'], 4);
+      expect(await PdaRfidScanner.resetStats(), true);
+    });
+
+    test('setBarcodeScanMode and setBarcodeDedupWindow', () async {
+      expect(
+          await PdaRfidScanner.setBarcodeScanMode(BarcodeScanMode.continuous,
+              interval: const Duration(milliseconds: 50)),
+          true);
+      expect(
+          await PdaRfidScanner.setBarcodeDedupWindow(
+              const Duration(milliseconds: 800)),
+          true);
+      expect(await PdaRfidScanner.setBarcodeScanMode(BarcodeScanMode.single),
+          true);
+    });
+
+    test('setPowerSchedule and wakeRfid', () async {
+      expect(
+          await PdaRfidScanner.setPowerSchedule(
+              onMs: 500, offMs: 1500, idleTimeoutMs: 30000),
+          true);
+      expect(await PdaRfidScanner.wakeRfid(), false);
+      await PdaRfidScanner.enableRfid();
+      expect(await PdaRfidScanner.wakeRfid(), true);
+      await PdaRfidScanner.disableRfid();
+    });
+
+    test('setDualMode and getActiveModes', () async {
+      expect(await PdaRfidScanner.setDualMode(true), true);
+      expect(await PdaRfidScanner.getActiveModes(), isEmpty);
+      await PdaRfidScanner.enableRfid();
+      expect(await PdaRfidScanner.getActiveModes(), {ScanType.rfid});
+      await PdaRfidScanner.disableRfid();
+      expect(await PdaRfidScanner.setDualMode(false), true);
+    });
+
+    test('setStandby', () async {
+      expect(await PdaRfidScanner.setStandby(true), true);
+      expect(await PdaRfidScanner.setStandby(false), true);
+    });
+
+    test('setChecksumVerification', () async {
+      expect(await PdaRfidScanner.setChecksumVerification(false), true);
+      expect(await PdaRfidScanner.setChecksumVerification(true), true);
+    });
+
+    test('addReader, getReaders and removeReader', () async {
+      expect(await PdaRfidScanner.addReader('/dev/ttyS1', baudRate: 115200), 1);
+      final readers = await PdaRfidScanner.getReaders();
+      expect(readers.single['path'], '/dev/ttyS1');
+      expect(await PdaRfidScanner.removeReader(1), true);
+    });
+
+    test('setRawCapture and dumpRawCapture', () async {
+      expect(await PdaRfidScanner.setRawCapture(true, records: 1024), true);
+      expect(await PdaRfidScanner.dumpRawCapture(), '/cache/lf-capture.bin');
+      expect(await PdaRfidScanner.setRawCapture(false), true);
+    });
+
+    test('setJournal and queryJournal', () async {
+      final info = await PdaRfidScanner.setJournal(true);
+      expect(info!['recovered'], 2);
+      final entries = <JournalEntry>[];
+      int? after = 0;
+      while (after != null) {
+        final page = await PdaRfidScanner.queryJournal(afterSequence: after);
+        entries.addAll(page!.entries);
+        after = page.nextAfterSequence;
+      }
+      expect(entries.map((e) => e.sequence), [1, 2]);
+      expect(entries[0].type, ScanType.barcode);
+      expect(entries[0].data, '4870001234567');
+      expect(entries[1].type, ScanType.rfid);
+      expect(entries[1].data, '999123456789012');
+      expect(entries[1].timestamp.microsecondsSinceEpoch, 1700000000000001);
+      expect(await PdaRfidScanner.setJournal(false), isNull);
+    });
+
+    test('startInventory, getInventorySnapshot and stopInventory', () async {
+      expect(await PdaRfidScanner.startInventory(), true);
+      final diff = await PdaRfidScanner.getInventorySnapshot();
+      expect(diff!.isDiff, true);
+      expect(diff.uniqueTags, 1);
+      expect(diff.totalReads, 3);
+      final entry = diff.entries.single;
+      expect(entry.id, '999123456789012');
+      expect(entry.count, 3);
+      expect(entry.lastSeen.difference(entry.firstSeen),
+          const Duration(milliseconds: 200));
+      final full = await PdaRfidScanner.getInventorySnapshot(sinceLast: false);
+      expect(full!.isDiff, false);
+      expect(await PdaRfidScanner.stopInventory(), {'tags': 1, 'reads': 3});
+    });
+
     test('getCurrentMode', () async {
       // Initial state
       expect(await PdaRfidScanner.getCurrentMode(), ScanType.unknown);
@@ -192,6 +541,10 @@ void main() {
       expect(await PdaRfidScanner.startBarcodeScan(), false);
       expect(await PdaRfidScanner.stopBarcodeScan(), false);
       expect(await PdaRfidScanner.setAutoRestartScan(true), false);
+      expect(await PdaRfidScanner.setDedupWindow(Duration.zero), false);
+      expect(await PdaRfidScanner.setEventBatching(), false);
+      expect(
+          await PdaRfidScanner.setEventFormat(ScanEventFormat.binary), false);
       expect(await PdaRfidScanner.isScannerActive(), false);
       expect(await PdaRfidScanner.isRfidActive(), false);
       expect(await PdaRfidScanner.getCurrentMode(), ScanType.unknown);